@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.benchmark;
+
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.formatter.JsonFormatter;
+
+import java.util.Random;
+
+/**
+ * Deterministic json payloads for benchmarks
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class BenchmarkData {
+
+    enum Size {
+        SMALL(1_000),
+        MEDIUM(100_000),
+        LARGE(10_000_000);
+
+        final int chars;
+
+        Size(int chars) {
+            this.chars = chars;
+        }
+    }
+
+    enum Kind {
+        MIXED,
+        NUMBERS,
+        STRINGS
+    }
+
+    private static final String[] WORDS = {"lorem", "ipsum", "dolor", "sit", "amet", "consectetur", "adipiscing", "elit",
+            "sed", "do", "eiusmod", "tempor", "incididunt", "ut", "labore", "et", "dolore", "magna", "aliqua",
+            "ěščřž", "quote\"d", "line\nbreak", "tab\tbed", "back\\slash"};
+
+    private BenchmarkData() {
+        //utility class
+    }
+
+    /**
+     * @return pretty formatted json array with at least {@link Size#chars} chars
+     */
+    static String json(Kind kind, Size size) {
+        Random random = new Random(42);
+        JsonArray root = new JsonArray();
+        int length = 2;
+        for (int i = 0; length < size.chars; i++) {
+            JsonObject record = record(kind, i, random);
+            root.add(record);
+            length += record.toString(JsonFormatter.PRETTY()).length() + 2;
+        }
+        return root.toString(JsonFormatter.PRETTY());
+    }
+
+    private static JsonObject record(Kind kind, int i, Random random) {
+        switch (kind) {
+            case NUMBERS:
+                return new JsonObject()
+                        .add("timestamp", 1_500_000_000_000L + random.nextInt(1_000_000_000))
+                        .add("count", random.nextInt(100_000))
+                        .add("values", new JsonArray()
+                                .add(random.nextDouble() * 1000)
+                                .add(-random.nextDouble())
+                                .add(random.nextInt())
+                                .add(random.nextLong()));
+            case STRINGS:
+                return new JsonObject()
+                        .add("title", text(random, 4))
+                        .add("body", text(random, 40))
+                        .add("tags", new JsonArray().add(text(random, 1)).add(text(random, 1)));
+            default:
+                return new JsonObject()
+                        .add("id", i)
+                        .add("name", text(random, 2))
+                        .add("active", random.nextBoolean())
+                        .add("score", random.nextDouble() * 100)
+                        .add("parent", null)
+                        .add("tags", new JsonArray().add(text(random, 1)).add(text(random, 1)))
+                        .add("address", new JsonObject()
+                                .add("city", text(random, 1))
+                                .add("zip", random.nextInt(99_999)));
+        }
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.benchmark;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.benchmark.BenchmarkData.Kind;
+import org.cuberact.json.benchmark.BenchmarkData.Size;
+import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.formatter.JsonFormatterPacked;
+import org.cuberact.json.formatter.JsonFormatterPretty;
+import org.cuberact.json.output.JsonOutputStringBuilder;
+import org.cuberact.json.parser.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonFormatterPacked} vs {@link JsonFormatterPretty} - DOM written to StringBuilder
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JsonFormatterBenchmark {
+
+    @Param
+    public Size size;
+
+    @Param
+    public Kind kind;
+
+    private Json json;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        json = new JsonParser().parse(BenchmarkData.json(kind, size));
+    }
+
+    @Benchmark
+    public Object packed() {
+        JsonOutputStringBuilder output = new JsonOutputStringBuilder();
+        json.toOutput(JsonFormatter.PACKED(), output);
+        return output.getResult();
+    }
+
+    @Benchmark
+    public Object pretty() {
+        JsonOutputStringBuilder output = new JsonOutputStringBuilder();
+        json.toOutput(JsonFormatter.PRETTY(), output);
+        return output.getResult();
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.benchmark;
+
+import org.cuberact.json.benchmark.BenchmarkData.Kind;
+import org.cuberact.json.benchmark.BenchmarkData.Size;
+import org.cuberact.json.input.JsonInputMappedFile;
+import org.cuberact.json.parser.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link JsonParser} with default DOM builder over every input type
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JsonParserBenchmark {
+
+    public enum Input {
+        STRING,
+        CHAR_ARRAY,
+        READER,
+        UTF8_BYTES,
+        MAPPED_FILE
+    }
+
+    @Param
+    public Input input;
+
+    @Param
+    public Size size;
+
+    @Param
+    public Kind kind;
+
+    private final JsonParser parser = new JsonParser();
+    private String json;
+    private char[] chars;
+    private byte[] bytes;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        json = BenchmarkData.json(kind, size);
+        chars = json.toCharArray();
+        bytes = json.getBytes(StandardCharsets.UTF_8);
+        if (input == Input.MAPPED_FILE) {
+            file = Files.createTempFile("cuberact-json-jmh", ".json");
+            Files.write(file, bytes);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (file != null) {
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public Object parse() {
+        switch (input) {
+            case STRING:
+                return parser.parse(json);
+            case CHAR_ARRAY:
+                return parser.parse(chars);
+            case READER:
+                return parser.parse(new StringReader(json));
+            case UTF8_BYTES:
+                return parser.parse(bytes);
+            case MAPPED_FILE:
+                try (JsonInputMappedFile mappedFile = new JsonInputMappedFile(file)) {
+                    return parser.parse(mappedFile);
+                }
+            default:
+                throw new IllegalStateException("Unknown input " + input);
+        }
+    }
+}
@@ -46,7 +46,7 @@ public class JsonArray extends Json {
 
     public Object get(int index) {
         try {
-            return data.get(index);
+            return data().get(index);
         } catch (Throwable t) {
             throw new JsonException(t);
         }
@@ -93,7 +93,7 @@ public class JsonArray extends Json {
     }
 
     private boolean outOfRange(int index){
-        return index < 0 || index > data.size()-1;
+        return index < 0 || index > data().size()-1;
     }
 
     public JsonObject getObj(int index, JsonObject ifNotExists) {
@@ -147,13 +147,13 @@ public class JsonArray extends Json {
     }
 
     public JsonArray add(Object value) {
-        data.add(value);
+        data().add(value);
         return this;
     }
 
     public JsonArray add(int index, Object value) {
         try {
-            data.add(index, value);
+            data().add(index, value);
         } catch (Throwable t) {
             throw new JsonException(t);
         }
@@ -162,7 +162,7 @@ public class JsonArray extends Json {
 
     public JsonArray set(int index, Object value) {
         try {
-            data.set(index, value);
+            data().set(index, value);
         } catch (Throwable t) {
             throw new JsonException(t);
         }
@@ -171,7 +171,7 @@ public class JsonArray extends Json {
 
     public JsonArray remove(int index) {
         try {
-            data.remove(index);
+            data().remove(index);
         } catch (Throwable t) {
             throw new JsonException(t);
         }
@@ -179,12 +179,12 @@ public class JsonArray extends Json {
     }
 
     public JsonArray remove(Object value) {
-        data.remove(value);
+        data().remove(value);
         return this;
     }
 
     public int indexOf(Object value) {
-        return data.indexOf(value);
+        return data().indexOf(value);
     }
 
     public boolean isNotNull(int index) {
@@ -192,15 +192,15 @@ public class JsonArray extends Json {
     }
 
     public boolean contains(Object value) {
-        return data.contains(value);
+        return data().contains(value);
     }
 
     public int size() {
-        return data.size();
+        return data().size();
     }
 
     public List<Object> list() {
-        return data;
+        return data();
     }
 
     public <E> List<E> listOf(Class<E> type) {
@@ -216,23 +216,30 @@ public class JsonArray extends Json {
     }
 
     public Stream<Object> stream() {
-        return data.stream();
+        return data().stream();
     }
 
     @SuppressWarnings("unchecked")
     public <E> Stream<E> streamOf(Class<E> type) {
-        return (Stream<E>) data.stream()
+        return (Stream<E>) data().stream()
                 .filter(value -> value != null && type.isAssignableFrom(value.getClass()));
     }
 
+    /**
+     * @return data of json, subclass can prepare them on first access
+     */
+    protected List<Object> data() {
+        return data;
+    }
+
     @Override
     public void toOutput(JsonFormatter formatter, JsonOutput<?> output) {
         if (formatter.writeArrayStart(this, output)) {
-            for (int i = 0, len = data.size(); i < len; i++) {
+            for (int i = 0, len = data().size(); i < len; i++) {
                 if (i != 0) {
                     formatter.writeArrayComma(this, output);
                 }
-                formatter.writeArrayValue(data.get(i),this,  output);
+                formatter.writeArrayValue(data().get(i),this,  output);
             }
             formatter.writeArrayEnd(this, output);
         }
@@ -240,7 +247,7 @@ public class JsonArray extends Json {
 
     private <E> E getInternal(int index, Class<E> type) {
         try {
-            Object value = data.get(index);
+            Object value = data().get(index);
             return getValueAsType(value, type);
         } catch (Throwable t) {
             throw new JsonException(t);
@@ -29,8 +29,11 @@ public class JsonException extends RuntimeException {
         super(message);
     }
 
+    /**
+     * @param t - cause, message of JsonException cause is kept (exception of parallel stream worker is rethrown wrapped this way)
+     */
     public JsonException(Throwable t) {
-        super(t);
+        super(t instanceof JsonException ? t.getMessage() : t == null ? null : t.toString(), t);
     }
 
     public JsonException(String message, Throwable t) {
@@ -16,6 +16,8 @@
 
 package org.cuberact.json;
 
+import org.cuberact.json.optimize.NumberConverter;
+
 import static org.cuberact.json.optimize.CharTable.toInt;
 import static org.cuberact.json.optimize.CharTable.toLong;
 
@@ -133,26 +135,68 @@ public final class JsonNumber implements Serializable {
     }
 
     public float asFloat() {
-        return Float.parseFloat(toString());
+        return NumberConverter.toFloat(charNumber, 0, charNumber.length);
     }
 
     public double asDouble() {
-        return Double.parseDouble(toString());
+        return NumberConverter.toDouble(charNumber, 0, charNumber.length);
     }
 
+    /**
+     * Integer part of number, fraction and exponent are ignored
+     */
     public BigInteger asBigInt() {
+        int end = charNumber.length;
         if (floatingNumber) {
-            int indexOfDot = toString().indexOf(".");
-            if (indexOfDot != -1) {
-                String number = toString().substring(0, indexOfDot);
-                return number.length() == 0 ? BigInteger.ZERO : new BigInteger(number);
+            for (int i = 0; i < charNumber.length; i++) {
+                if (charNumber[i] == '.') {
+                    end = i;
+                    break;
+                }
+            }
+        }
+        int start = end > 0 && charNumber[0] == '-' ? 1 : 0;
+        if (start == end) {
+            return BigInteger.ZERO;
+        }
+        long value = 0L;
+        for (int i = start; i < end; i++) {
+            int digit = charNumber[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return new BigInteger(new String(charNumber, 0, end));
             }
+            value = value * 10L + digit;
         }
-        return new BigInteger(toString());
+        if (end - start <= 18) {
+            return BigInteger.valueOf(start == 0 ? value : -value);
+        }
+        return new BigDecimal(charNumber, 0, end).toBigInteger();
     }
 
     public BigDecimal asBigDecimal() {
-        return new BigDecimal(toString());
+        if (charNumber.length > 0 && charNumber.length <= 18 + 2) { //sign, dot and max 18 digits - unscaled value fits in long
+            int i = charNumber[0] == '-' ? 1 : 0;
+            long unscaled = 0L;
+            int digits = 0;
+            int scale = 0;
+            boolean dot = false;
+            for (; i < charNumber.length; i++) {
+                char c = charNumber[i];
+                if (c >= '0' && c <= '9') {
+                    unscaled = unscaled * 10L + (c - '0');
+                    digits++;
+                    if (dot) scale++;
+                } else if (c == '.' && !dot) {
+                    dot = true;
+                } else {
+                    break;
+                }
+            }
+            if (i == charNumber.length && digits > 0) {
+                return BigDecimal.valueOf(charNumber[0] == '-' ? -unscaled : unscaled, scale);
+            }
+        }
+        return new BigDecimal(charNumber);
     }
 
     public int length() {
@@ -47,7 +47,7 @@ public class JsonObject extends Json {
     }
 
     public Object get(String attr) {
-        return data.get(attr);
+        return data().get(attr);
     }
 
     public JsonObject getObj(String attr) {
@@ -91,79 +91,79 @@ public class JsonObject extends Json {
     }
 
     public JsonObject getObj(String attr, JsonObject ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, JsonObject.class);
     }
 
     public JsonArray getArr(String attr, JsonArray ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, JsonArray.class);
     }
 
     public String getString(String attr, String ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, String.class);
     }
 
     public Integer getInt(String attr, Integer ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, Integer.class);
     }
 
     public Long getLong(String attr, Long ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, Long.class);
     }
 
     public Float getFloat(String attr, Float ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, Float.class);
     }
 
     public Double getDouble(String attr, Double ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, Double.class);
     }
 
     public BigInteger getBigInt(String attr, BigInteger ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, BigInteger.class);
     }
 
     public BigDecimal getBigDecimal(String attr, BigDecimal ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, BigDecimal.class);
     }
 
     public Boolean getBoolean(String attr, Boolean ifNotExists) {
-        if (!data.containsKey(attr)) return ifNotExists;
+        if (!data().containsKey(attr)) return ifNotExists;
         return getInternal(attr, Boolean.class);
     }
     
     public JsonObject add(String attr, Object value) {
-        data.put(attr, value);
+        data().put(attr, value);
         return this;
     }
 
     public JsonObject remove(String attr) {
-        data.remove(attr);
+        data().remove(attr);
         return this;
     }
 
     public boolean isNotNull(String attr) {
-        return data.get(attr) != null;
+        return data().get(attr) != null;
     }
 
     public boolean contains(String attr) {
-        return data.containsKey(attr);
+        return data().containsKey(attr);
     }
 
     public int size() {
-        return data.size();
+        return data().size();
     }
 
     public Map<String, Object> map() {
-        return data;
+        return data();
     }
 
     public <E> Map<String, E> mapOf(Class<E> type) {
@@ -171,7 +171,7 @@ public class JsonObject extends Json {
     }
 
     public Iterable<Entry<String, Object>> iterable() {
-        return data.entrySet();
+        return data().entrySet();
     }
 
     public <E> Iterable<Entry<String, E>> iterableOf(Class<E> type) {
@@ -179,21 +179,28 @@ public class JsonObject extends Json {
     }
 
     public Stream<Entry<String, Object>> stream() {
-        return data.entrySet().stream();
+        return data().entrySet().stream();
     }
 
     @SuppressWarnings("unchecked")
     public <E> Stream<Entry<String, E>> streamOf(Class<E> type) {
-        return data.entrySet().stream()
+        return data().entrySet().stream()
                 .filter(entry -> entry.getValue() != null && type.isAssignableFrom(entry.getValue().getClass()))
                 .map(value -> (Entry<String, E>) value);
     }
 
+    /**
+     * @return data of json, subclass can prepare them on first access
+     */
+    protected Map<String, Object> data() {
+        return data;
+    }
+
     @Override
     public void toOutput(JsonFormatter formatter, JsonOutput<?> output) {
         if (formatter.writeObjectStart(this, output)) {
             boolean addComma = false;
-            for (Entry<String, Object> entry : data.entrySet()) {
+            for (Entry<String, Object> entry : data().entrySet()) {
                 if (addComma) {
                     formatter.writeObjectComma(this,output);
                 } else {
@@ -208,7 +215,7 @@ public class JsonObject extends Json {
     }
 
     private <E> E getInternal(String attr, Class<E> type) {
-        Object value = data.get(attr);
+        Object value = data().get(attr);
         return getValueAsType(value, type);
     }
 }
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.builder;
+
+import org.cuberact.json.JsonNumber;
+
+/**
+ * {@link JsonBuilder} with primitive callbacks. If builder implements this interface, parser computes
+ * values of numbers from scanned number chars and {@link JsonNumber} is not created - only integers out of long range and numbers
+ * out of double range (infinite) are passed by {@link #addNumberToObject(Object, String, JsonNumber)} / {@link #addNumberToArray(Object, JsonNumber)}.
+ * Booleans are passed as boolean and strings without escapes as range of parser chars, so values can be stored
+ * to primitive columns or arrays without boxing.
+ * <p>
+ * Numbers with dot are passed as double, numbers without dot as long. Default implementations create {@link JsonNumber},
+ * Boolean or String and call methods of {@link JsonBuilder}. Long and double callbacks which are not overridden
+ * are not called by parser - numbers are passed as {@link JsonNumber} of source chars, so precision is not lost.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public interface JsonBuilderPrimitive<OBJECT, ARRAY> extends JsonBuilder<OBJECT, ARRAY> {
+
+    /**
+     * @param object - json object representation created by {@link JsonBuilder#createObject()}
+     * @param attr   - attribute
+     * @param value  - value of number without dot
+     */
+    default void addLongToObject(OBJECT object, String attr, long value) {
+        addNumberToObject(object, attr, toJsonNumber(Long.toString(value), false));
+    }
+
+    /**
+     * @param object - json object representation created by {@link JsonBuilder#createObject()}
+     * @param attr   - attribute
+     * @param value  - value of number with dot
+     */
+    default void addDoubleToObject(OBJECT object, String attr, double value) {
+        addNumberToObject(object, attr, toJsonNumber(Double.toString(value), true));
+    }
+
+    /**
+     * @param object - json object representation created by {@link JsonBuilder#createObject()}
+     * @param attr   - attribute
+     * @param value  - true or false
+     */
+    default void addBooleanToObject(OBJECT object, String attr, boolean value) {
+        addBooleanToObject(object, attr, Boolean.valueOf(value));
+    }
+
+    /**
+     * Strings with escapes (or not read at once) can be passed by {@link #addStringToObject(Object, String, String)}
+     *
+     * @param object - json object representation created by {@link JsonBuilder#createObject()}
+     * @param attr   - attribute
+     * @param chars  - chars of parser, valid only during this call
+     * @param offset - index of first char of string
+     * @param length - count of chars of string
+     */
+    default void addStringToObject(OBJECT object, String attr, char[] chars, int offset, int length) {
+        addStringToObject(object, attr, new String(chars, offset, length));
+    }
+
+    /**
+     * @param array - json array representation created by {@link JsonBuilder#createArray()}
+     * @param value - value of number without dot
+     */
+    default void addLongToArray(ARRAY array, long value) {
+        addNumberToArray(array, toJsonNumber(Long.toString(value), false));
+    }
+
+    /**
+     * @param array - json array representation created by {@link JsonBuilder#createArray()}
+     * @param value - value of number with dot
+     */
+    default void addDoubleToArray(ARRAY array, double value) {
+        addNumberToArray(array, toJsonNumber(Double.toString(value), true));
+    }
+
+    /**
+     * @param array - json array representation created by {@link JsonBuilder#createArray()}
+     * @param value - true or false
+     */
+    default void addBooleanToArray(ARRAY array, boolean value) {
+        addBooleanToArray(array, Boolean.valueOf(value));
+    }
+
+    /**
+     * Strings with escapes (or not read at once) can be passed by {@link #addStringToArray(Object, String)}
+     *
+     * @param array  - json array representation created by {@link JsonBuilder#createArray()}
+     * @param chars  - chars of parser, valid only during this call
+     * @param offset - index of first char of string
+     * @param length - count of chars of string
+     */
+    default void addStringToArray(ARRAY array, char[] chars, int offset, int length) {
+        addStringToArray(array, new String(chars, offset, length));
+    }
+
+    private static JsonNumber toJsonNumber(String number, boolean floatingNumber) {
+        final char[] chars = number.replace('E', 'e').toCharArray();
+        return new JsonNumber(chars, chars.length, floatingNumber);
+    }
+}
@@ -34,4 +34,13 @@ public interface JsonInput {
      * @return actual position in input. Used only for error message.
      */
     int position();
+
+    /**
+     * Inputs longer than {@link Integer#MAX_VALUE} chars should override this method.
+     *
+     * @return actual position in input as long. Used only for error message.
+     */
+    default long positionLong() {
+        return position();
+    }
 }
@@ -19,31 +19,70 @@ package org.cuberact.json.input;
 import java.util.Objects;
 
 /**
- * JsonInput from char array
+ * JsonInput from char array (or its part). Whole array is one window.
  *
  * @author Michal Nikodim (michal.nikodim@gmail.com)
  */
-public final class JsonInputCharArray implements JsonInput {
+public final class JsonInputCharArray implements JsonInputWindow {
 
     private final char[] input;
+    private final int offset;
+    private final int end;
     private int position;
 
     public JsonInputCharArray(char[] input) {
+        this(input, 0, Objects.requireNonNull(input, "input").length);
+    }
+
+    /**
+     * @param input  - char array
+     * @param offset - index of first char
+     * @param length - count of chars
+     */
+    public JsonInputCharArray(char[] input, int offset, int length) {
         this.input = Objects.requireNonNull(input, "input");
+        if (offset < 0 || length < 0 || offset + length > input.length || offset + length < 0) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + input.length);
+        }
+        this.offset = offset;
+        this.end = offset + length;
+        this.position = offset;
     }
 
     public char nextChar() {
-        try {
-            char c = input[position];
-            position++;
-            return c;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            return END_OF_INPUT;
+        if (position < end) {
+            return input[position++];
         }
+        return END_OF_INPUT;
     }
 
     @Override
     public int position() {
+        return position - offset;
+    }
+
+    @Override
+    public char[] window() {
+        return input;
+    }
+
+    @Override
+    public int cursor() {
         return position;
     }
+
+    @Override
+    public int limit() {
+        return end;
+    }
+
+    @Override
+    public void cursor(int cursor) {
+        this.position = cursor;
+    }
+
+    @Override
+    public boolean fill() {
+        return position < end;
+    }
 }
@@ -20,30 +20,87 @@ import java.util.Objects;
 
 /**
  * JsonInput from CharSequence (String, StringBuilder etc.)
+ * <p>
+ * Chars are copied to window in blocks - {@link String#getChars(int, int, char[], int)} for String,
+ * StringBuilder and StringBuffer.
  *
  * @author Michal Nikodim (michal.nikodim@gmail.com)
  */
-public final class JsonInputCharSequence implements JsonInput {
+public final class JsonInputCharSequence implements JsonInputWindow {
+
+    private static final int WINDOW_SIZE = 4096;
 
     private final CharSequence input;
-    private int position;
+    private final int length;
+    private final char[] window;
+    private int windowOffset;
+    private int cursor;
+    private int limit;
 
     public JsonInputCharSequence(CharSequence input) {
         this.input = Objects.requireNonNull(input, "input");
+        this.length = input.length();
+        this.window = new char[Math.min(length, WINDOW_SIZE)];
     }
 
     public char nextChar() {
-        try {
-            char c = input.charAt(position);
-            position++;
-            return c;
-        } catch (StringIndexOutOfBoundsException e) {
-            return END_OF_INPUT;
+        if (cursor < limit || fill()) {
+            return window[cursor++];
         }
+        return END_OF_INPUT;
     }
 
     @Override
     public int position() {
-        return position;
+        return windowOffset + cursor;
+    }
+
+    @Override
+    public char[] window() {
+        return window;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void cursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public boolean fill() {
+        int remaining = limit - cursor;
+        if (remaining > 0) {
+            System.arraycopy(window, cursor, window, 0, remaining);
+        }
+        windowOffset += cursor;
+        cursor = 0;
+        int from = windowOffset + remaining;
+        int to = Math.min(length, from + window.length - remaining);
+        copyChars(from, to, remaining);
+        limit = remaining + to - from;
+        return limit > 0;
+    }
+
+    private void copyChars(int from, int to, int windowIndex) {
+        if (input instanceof String) {
+            ((String) input).getChars(from, to, window, windowIndex);
+        } else if (input instanceof StringBuilder) {
+            ((StringBuilder) input).getChars(from, to, window, windowIndex);
+        } else if (input instanceof StringBuffer) {
+            ((StringBuffer) input).getChars(from, to, window, windowIndex);
+        } else {
+            for (int i = from; i < to; i++) {
+                window[windowIndex++] = input.charAt(i);
+            }
+        }
     }
 }
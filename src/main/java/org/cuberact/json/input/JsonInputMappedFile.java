@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.input;
+
+import org.cuberact.json.JsonException;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * JsonInput from UTF-8 file. File is mapped to memory by chunks ({@link FileChannel#map(FileChannel.MapMode, long, long)})
+ * and mapped bytes are decoded directly - suitable for files bigger than 2GB.
+ * <p>
+ * Input must be closed. Mapped chunks are released by garbage collector.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonInputMappedFile extends JsonInputUtf8 implements AutoCloseable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 28;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int chunkSize;
+    private long offset;
+
+    public JsonInputMappedFile(Path file) {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param file      - UTF-8 file
+     * @param chunkSize - max count of bytes mapped at once
+     */
+    public JsonInputMappedFile(Path file, int chunkSize) {
+        Objects.requireNonNull(file, "file");
+        if (chunkSize < 4) {
+            throw new IllegalArgumentException("Chunk size must be at least 4, but is " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.size = channel.size();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+
+    @Override
+    protected boolean nextBytes(int unread) {
+        offset -= unread;
+        if (offset >= size) {
+            return false;
+        }
+        long length = Math.min(chunkSize, size - offset);
+        try {
+            bytes(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+        offset += length;
+        return unread < length;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        }
+    }
+}
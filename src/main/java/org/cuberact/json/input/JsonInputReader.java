@@ -23,32 +23,101 @@ import java.io.Reader;
 import java.util.Objects;
 
 /**
+ * JsonInput from {@link Reader}. Chars are read in blocks with {@link Reader#read(char[], int, int)} to reusable window.
+ *
  * @author Michal Nikodim (michal.nikodim@gmail.com)
  */
-public class JsonInputReader implements JsonInput {
+public class JsonInputReader implements JsonInputWindow {
+
+    public static final int DEFAULT_WINDOW_SIZE = 8192;
 
     private final Reader input;
-    private int position;
+    private final char[] window;
+    private long windowOffset;
+    private int cursor;
+    private int limit;
+    private boolean endOfInput;
 
     public JsonInputReader(Reader input) {
+        this(input, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * @param input      - reader
+     * @param windowSize - count of chars read from reader at once
+     */
+    public JsonInputReader(Reader input, int windowSize) {
         this.input = Objects.requireNonNull(input, "input");
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive, but is " + windowSize);
+        }
+        this.window = new char[windowSize];
     }
 
     @Override
     public char nextChar() {
-        try {
-            char c = (char) input.read();
-            if (c != END_OF_INPUT) {
-                position++;
-            }
-            return c;
-        } catch (IOException e) {
-            throw new JsonException(e);
+        if (cursor < limit || fill()) {
+            return window[cursor++];
         }
+        return END_OF_INPUT;
     }
 
     @Override
     public int position() {
-        return position;
+        return (int) Math.min(positionLong(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long positionLong() {
+        return windowOffset + cursor;
+    }
+
+    @Override
+    public char[] window() {
+        return window;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void cursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public boolean fill() {
+        int remaining = limit - cursor;
+        if (remaining > 0) {
+            System.arraycopy(window, cursor, window, 0, remaining);
+        }
+        windowOffset += cursor;
+        cursor = 0;
+        limit = remaining;
+        if (!endOfInput) {
+            try {
+                while (limit < window.length) {
+                    int count = input.read(window, limit, window.length - limit);
+                    if (count < 0) {
+                        endOfInput = true;
+                        break;
+                    }
+                    limit += count;
+                    if (count > 0) {
+                        break; //don't wait for full window
+                    }
+                }
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+        return limit > 0;
     }
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.input;
+
+import org.cuberact.json.JsonException;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * JsonInput from UTF-8 encoded bytes (byte array or {@link ByteBuffer}).
+ * Bytes are decoded block by block into small char window while parsing, runs of ASCII bytes are copied without any decoding.
+ * Leading UTF-8 BOM is skipped.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonInputUtf8 implements JsonInputWindow {
+
+    private static final int WINDOW_SIZE = 4096;
+
+    private byte[] bytes;
+    private ByteBuffer buffer;
+    private int index;
+    private int end;
+    private boolean bomChecked;
+    private final char[] window;
+    private long windowOffset;
+    private int cursor;
+    private int limit;
+
+    public JsonInputUtf8(byte[] input) {
+        this(input, 0, Objects.requireNonNull(input, "input").length);
+    }
+
+    /**
+     * @param input  - UTF-8 bytes
+     * @param offset - index of first byte
+     * @param length - count of bytes
+     */
+    public JsonInputUtf8(byte[] input, int offset, int length) {
+        Objects.requireNonNull(input, "input");
+        if (offset < 0 || length < 0 || offset + length > input.length || offset + length < 0) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + input.length);
+        }
+        this.window = new char[Math.min(length, WINDOW_SIZE) + 1];
+        bytes(input, offset, offset + length);
+    }
+
+    /**
+     * Bytes between {@link ByteBuffer#position()} and {@link ByteBuffer#limit()} are used. Position of buffer is not changed.
+     *
+     * @param input - UTF-8 bytes
+     */
+    public JsonInputUtf8(ByteBuffer input) {
+        this.window = new char[Math.min(Objects.requireNonNull(input, "input").remaining(), WINDOW_SIZE) + 1];
+        bytes(input);
+    }
+
+    /**
+     * For subclasses which provide bytes continuously - see {@link #nextBytes(int)}
+     */
+    protected JsonInputUtf8() {
+        this.window = new char[WINDOW_SIZE + 1];
+    }
+
+    @Override
+    public char nextChar() {
+        if (cursor < limit || fill()) {
+            return window[cursor++];
+        }
+        return END_OF_INPUT;
+    }
+
+    @Override
+    public int position() {
+        return (int) Math.min(positionLong(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public long positionLong() {
+        return windowOffset + cursor;
+    }
+
+    @Override
+    public char[] window() {
+        return window;
+    }
+
+    @Override
+    public int cursor() {
+        return cursor;
+    }
+
+    @Override
+    public int limit() {
+        return limit;
+    }
+
+    @Override
+    public void cursor(int cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    public boolean fill() {
+        int remaining = limit - cursor;
+        if (remaining > 0) {
+            System.arraycopy(window, cursor, window, 0, remaining);
+        }
+        windowOffset += cursor;
+        cursor = 0;
+        int count = decode(remaining);
+        while (count == 0 && nextBytes(end - index)) {
+            count = decode(remaining);
+        }
+        if (count == 0 && index < end) {
+            throw invalidSequence(remaining); //incomplete sequence at the end of input
+        }
+        limit = remaining + count;
+        return limit > 0;
+    }
+
+    /**
+     * Called when all bytes are decoded. Subclass can continue with next bytes - {@link #bytes(ByteBuffer)}
+     *
+     * @param unread - count of not decoded bytes at the end of actual bytes (incomplete UTF-8 sequence), these bytes must be repeated
+     * @return true if next bytes are set
+     */
+    protected boolean nextBytes(int unread) {
+        return false;
+    }
+
+    /**
+     * @param input - next UTF-8 bytes between {@link ByteBuffer#position()} and {@link ByteBuffer#limit()}
+     */
+    protected final void bytes(ByteBuffer input) {
+        if (input.hasArray()) {
+            bytes(input.array(), input.arrayOffset() + input.position(), input.arrayOffset() + input.limit());
+        } else {
+            this.bytes = null;
+            this.buffer = input;
+            this.index = input.position();
+            this.end = input.limit();
+            skipBom();
+        }
+    }
+
+    private void bytes(byte[] input, int index, int end) {
+        this.bytes = input;
+        this.buffer = null;
+        this.index = index;
+        this.end = end;
+        skipBom();
+    }
+
+    /**
+     * Decode bytes to window.
+     *
+     * @param from - first free index in window
+     * @return count of decoded chars
+     */
+    private int decode(int from) {
+        final char[] w = window;
+        final int max = w.length - 1; //space for surrogate pair
+        int i = index;
+        int c = from;
+        if (bytes != null) {
+            final byte[] b = bytes;
+            while (c < max && i < end) {
+                byte b0 = b[i];
+                if (b0 >= 0) { //ASCII
+                    w[c++] = (char) b0;
+                    i++;
+                } else {
+                    index = i;
+                    int next = decodeSequence(b0, c);
+                    if (next < 0) return c - from; //incomplete sequence, index stays on its first byte
+                    c = next;
+                    i = index;
+                }
+            }
+        } else {
+            while (c < max && i < end) {
+                byte b0 = buffer.get(i);
+                if (b0 >= 0) { //ASCII
+                    w[c++] = (char) b0;
+                    i++;
+                } else {
+                    index = i;
+                    int next = decodeSequence(b0, c);
+                    if (next < 0) return c - from; //incomplete sequence, index stays on its first byte
+                    c = next;
+                    i = index;
+                }
+            }
+        }
+        index = i;
+        return c - from;
+    }
+
+    /**
+     * @return index in window after decoded sequence or -1 if sequence is not complete
+     */
+    private int decodeSequence(int b0, int c) {
+        int codePoint;
+        if ((b0 & 0xE0) == 0xC0) {
+            if (index + 2 > end) return incomplete(c);
+            codePoint = ((b0 & 0x1F) << 6) | continuation(1, c);
+            if (codePoint < 0x80) throw invalidSequence(c);
+            index += 2;
+            window[c++] = (char) codePoint;
+        } else if ((b0 & 0xF0) == 0xE0) {
+            if (index + 3 > end) return incomplete(c);
+            codePoint = ((b0 & 0x0F) << 12) | (continuation(1, c) << 6) | continuation(2, c);
+            if (codePoint < 0x800 || Character.isSurrogate((char) codePoint)) throw invalidSequence(c);
+            index += 3;
+            window[c++] = (char) codePoint;
+        } else if ((b0 & 0xF8) == 0xF0) {
+            if (index + 4 > end) return incomplete(c);
+            codePoint = ((b0 & 0x07) << 18) | (continuation(1, c) << 12) | (continuation(2, c) << 6) | continuation(3, c);
+            if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) throw invalidSequence(c);
+            index += 4;
+            window[c++] = Character.highSurrogate(codePoint);
+            window[c++] = Character.lowSurrogate(codePoint);
+        } else {
+            throw invalidSequence(c);
+        }
+        return c;
+    }
+
+    private int incomplete(int c) {
+        for (int i = index + 1; i < end; i++) {
+            if ((byteAt(i) & 0xC0) != 0x80) throw invalidSequence(c);
+        }
+        return -1;
+    }
+
+    private int continuation(int offset, int c) {
+        int b = byteAt(index + offset);
+        if ((b & 0xC0) != 0x80) throw invalidSequence(c);
+        return b & 0x3F;
+    }
+
+    private int byteAt(int i) {
+        return bytes != null ? bytes[i] : buffer.get(i);
+    }
+
+    private void skipBom() {
+        if (bomChecked) return;
+        bomChecked = true;
+        if (end - index >= 3 && byteAt(index) == (byte) 0xEF && byteAt(index + 1) == (byte) 0xBB && byteAt(index + 2) == (byte) 0xBF) {
+            index += 3;
+        }
+    }
+
+    private JsonException invalidSequence(int c) {
+        return new JsonException("Invalid UTF-8 byte sequence on position " + (windowOffset + c));
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.input;
+
+/**
+ * Optional extension of {@link JsonInput} - input exposes a window of chars, so parser can read them
+ * directly by index and doesn't call {@link #nextChar()} for every char.
+ * <p>
+ * Valid chars are in {@link #window()} between {@link #cursor()} and {@link #limit()}.
+ * {@link #nextChar()} and {@link #position()} must respect the cursor.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public interface JsonInputWindow extends JsonInput {
+
+    /**
+     * @return array with chars of actual window
+     */
+    char[] window();
+
+    /**
+     * @return index of next unread char in {@link #window()}
+     */
+    int cursor();
+
+    /**
+     * @return index after last valid char in {@link #window()}
+     */
+    int limit();
+
+    /**
+     * @param cursor - index of next unread char in {@link #window()}, chars before cursor are consumed
+     */
+    void cursor(int cursor);
+
+    /**
+     * Discard consumed chars and load next chars. Window array, cursor and limit can be changed.
+     *
+     * @return true if at least one unread char is available, false on end of input
+     */
+    boolean fill();
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.optimize;
+
+import java.math.BigInteger;
+
+/**
+ * Conversion of number chars (JSON number format) to double and float without String.
+ * <p>
+ * Up to 19 significant digits are accumulated to long mantissa, then:
+ * <ul>
+ * <li>exact fast path (Clinger) - mantissa and power of ten are exactly representable, one multiplication or division</li>
+ * <li>Eisel-Lemire algorithm - mantissa multiplied by 128-bit approximation of power of five, correctly rounded result or
+ * rejection of the rare ambiguous case</li>
+ * <li>{@link Double#parseDouble(String)} or {@link Float#parseFloat(String)} - rejected cases, more than 19 significant digits
+ * where truncation changes result, chars out of JSON number format</li>
+ * </ul>
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class NumberConverter {
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    private static final long REJECTED = -1L;
+
+    private NumberConverter() {
+        //utility class
+    }
+
+    public static double toDouble(char[] chars, int from, int to) {
+        double value = convert(chars, from, to, false);
+        return value == value ? value : Double.parseDouble(new String(chars, from, to - from));
+    }
+
+    public static float toFloat(char[] chars, int from, int to) {
+        double value = convert(chars, from, to, true);
+        return value == value ? (float) value : Float.parseFloat(new String(chars, from, to - from));
+    }
+
+    /**
+     * @return converted value or NaN if chars must be parsed by JDK
+     */
+    private static double convert(char[] chars, int from, int to, boolean single) {
+        int i = from;
+        final boolean negative = i < to && chars[i] == '-';
+        if (negative) i++;
+        long mantissa = 0L;
+        int significant = 0;
+        int exponent = 0;
+        boolean truncated = false;
+        final int intStart = i;
+        for (; i < to; i++) {
+            final int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9) break;
+            if (significant < 19) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0) significant++;
+            } else {
+                exponent++;
+                truncated |= digit != 0;
+            }
+        }
+        int digits = i - intStart;
+        if (i < to && chars[i] == '.') {
+            final int fractionStart = ++i;
+            for (; i < to; i++) {
+                final int digit = chars[i] - '0';
+                if (digit < 0 || digit > 9) break;
+                if (significant < 19) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0) significant++;
+                    exponent--;
+                } else {
+                    truncated |= digit != 0;
+                }
+            }
+            digits += i - fractionStart;
+        }
+        if (digits == 0) return Double.NaN;
+        if (i < to && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            final boolean negativeExponent = i < to && chars[i] == '-';
+            if (i < to && (chars[i] == '-' || chars[i] == '+')) i++;
+            if (i == to) return Double.NaN;
+            int explicitExponent = 0;
+            for (; i < to; i++) {
+                final int digit = chars[i] - '0';
+                if (digit < 0 || digit > 9) return Double.NaN;
+                explicitExponent = Math.min(explicitExponent * 10 + digit, 100_000);
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != to) return Double.NaN;
+        if (mantissa == 0L) return negative ? -0.0 : 0.0;
+        double value;
+        if (!truncated && single && mantissa > 0L && mantissa <= 1L << 24 && exponent >= -10 && exponent <= 10) {
+            value = exponent < 0 ? (float) mantissa / FLOAT_POWERS_OF_TEN[-exponent] : (float) mantissa * FLOAT_POWERS_OF_TEN[exponent];
+        } else if (!truncated && !single && mantissa > 0L && mantissa <= 1L << 53 && exponent >= -22 && exponent <= 22) {
+            value = exponent < 0 ? mantissa / DOUBLE_POWERS_OF_TEN[-exponent] : mantissa * DOUBLE_POWERS_OF_TEN[exponent];
+        } else {
+            long bits = eiselLemire(mantissa, exponent, single);
+            if (truncated && bits != REJECTED && bits != eiselLemire(mantissa + 1, exponent, single)) {
+                bits = REJECTED; //exact value is between mantissa and mantissa + 1, both must give same result
+            }
+            if (bits == REJECTED) return Double.NaN;
+            value = single ? Float.intBitsToFloat((int) bits) : Double.longBitsToDouble(bits);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * @param mantissa - unsigned, not zero
+     * @param exponent - power of ten
+     * @return bits of positive double (or float) or {@link #REJECTED}
+     */
+    static long eiselLemire(long mantissa, int exponent, boolean single) {
+        final int mantissaBits = single ? 23 : 52;
+        final int infinitePower = single ? 0xFF : 0x7FF;
+        if (exponent < (single ? -65 : PowersOfFive.SMALLEST)) return 0L;
+        if (exponent > (single ? 38 : PowersOfFive.LARGEST)) return (long) infinitePower << mantissaBits;
+        final int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        final long w = mantissa << leadingZeros;
+        final int index = 2 * (exponent - PowersOfFive.SMALLEST);
+        long low = w * PowersOfFive.TABLE[index];
+        long high = unsignedMultiplyHigh(w, PowersOfFive.TABLE[index]);
+        final long precisionMask = -1L >>> (mantissaBits + 3);
+        if ((high & precisionMask) == precisionMask) { //lower bits are all ones, more precision is needed
+            final long secondHigh = unsignedMultiplyHigh(w, PowersOfFive.TABLE[index + 1]);
+            final long sum = low + secondHigh;
+            if (Long.compareUnsigned(secondHigh, sum) > 0) high++;
+            low = sum;
+            if (low == -1L && (exponent < -27 || exponent > 55)) return REJECTED;
+        }
+        final int upperBit = (int) (high >>> 63);
+        final int shift = upperBit + 64 - mantissaBits - 3;
+        long m = high >>> shift;
+        int power2 = (((152170 + 65536) * exponent) >> 16) + 63 + upperBit - leadingZeros + (single ? 127 : 1023);
+        if (power2 <= 0) { //subnormal
+            if (-power2 + 1 >= 64) return 0L;
+            m >>>= -power2 + 1;
+            m += m & 1;
+            m >>>= 1;
+            return m; //rounded up to smallest normal value has exponent bits 1 already
+        }
+        if (Long.compareUnsigned(low, 1) <= 0 && (m & 3) == 1
+                && exponent >= (single ? -17 : -4) && exponent <= (single ? 10 : 23) && (m << shift) == high) {
+            m &= ~1L; //exactly between two values - round half to even
+        }
+        m += m & 1;
+        m >>>= 1;
+        if (m >= 2L << mantissaBits) {
+            m = 1L << mantissaBits;
+            power2++;
+        }
+        m &= ~(1L << mantissaBits);
+        if (power2 >= infinitePower) return (long) infinitePower << mantissaBits;
+        return m | (long) power2 << mantissaBits;
+    }
+
+    private static long unsignedMultiplyHigh(long x, long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * 128-bit approximations of 5^q for q from -342 to 308 (high and low 64 bits), computed on first use
+     */
+    private static final class PowersOfFive {
+
+        static final int SMALLEST = -342;
+        static final int LARGEST = 308;
+        static final long[] TABLE = new long[2 * (LARGEST - SMALLEST + 1)];
+
+        static {
+            final BigInteger two128 = BigInteger.ONE.shiftLeft(128);
+            for (int q = SMALLEST; q <= LARGEST; q++) {
+                BigInteger power;
+                if (q < 0) {
+                    final BigInteger power5 = BigInteger.valueOf(5).pow(-q);
+                    final int z = power5.bitLength();
+                    power = BigInteger.ONE.shiftLeft(q >= -27 ? z + 127 : 2 * z + 128).divide(power5).add(BigInteger.ONE);
+                    if (power.compareTo(two128) >= 0) {
+                        power = power.shiftRight(power.bitLength() - 128);
+                    }
+                } else {
+                    power = BigInteger.valueOf(5).pow(q);
+                    power = power.bitLength() < 128 ? power.shiftLeft(128 - power.bitLength()) : power.shiftRight(power.bitLength() - 128);
+                }
+                final int index = 2 * (q - SMALLEST);
+                TABLE[index] = power.shiftRight(64).longValue();
+                TABLE[index + 1] = power.longValue();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+/**
+ * Cursor over elements of root array - every element is parsed by {@link #next()}, rest of input is not read.
+ * <p>
+ * Objects and arrays are built by builder of parser (every element as one build - {@link org.cuberact.json.builder.JsonBuilder#buildStart()}
+ * and {@link org.cuberact.json.builder.JsonBuilder#buildEnd()} are called for it), other elements are String, Boolean,
+ * {@link org.cuberact.json.JsonNumber} or null.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonArrayCursor {
+
+    private final JsonParser parser;
+    private final JsonScanner scanner;
+    private char next;
+
+    /**
+     * Reads [ and first char of first element
+     */
+    JsonArrayCursor(JsonParser parser, JsonScanner scanner) {
+        this.parser = parser;
+        this.scanner = scanner;
+        if (scanner.nextImportantChar() != '[') {
+            throw scanner.jsonException("Expected [");
+        }
+        this.next = scanner.nextImportantChar();
+    }
+
+    boolean hasNext() {
+        return next != ']';
+    }
+
+    /**
+     * @return parsed element, caller must check {@link #hasNext()} first
+     */
+    Object next() {
+        final Object element = parser.parseElement(scanner, next);
+        final char separator = scanner.lastReadChar;
+        if (separator == ',') {
+            next = scanner.nextImportantChar();
+        } else if (separator == ']') {
+            next = ']';
+        } else {
+            throw scanner.jsonException("Expected ] or ,");
+        }
+        return element;
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.input.JsonInput;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Flow.Publisher} of elements of root array - see {@link JsonParser#publishArray(JsonInput, Executor)}.
+ * <p>
+ * Input is read only on demand: elements are parsed one by one while subscriber has outstanding requests.
+ * Only one subscriber is supported (input can be read only once). Null elements are skipped, because
+ * {@link Flow.Subscriber#onNext(Object)} doesn't allow null.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonArrayPublisher implements Flow.Publisher<Object> {
+
+    private final JsonParser parser;
+    private final JsonInput input;
+    private final JsonParserOptions options;
+    private final Executor executor;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * @param executor - elements are parsed and delivered by this executor, null for thread which calls {@link Flow.Subscription#request(long)}
+     */
+    JsonArrayPublisher(JsonParser parser, JsonInput input, JsonParserOptions options, Executor executor) {
+        this.parser = parser;
+        this.input = Objects.requireNonNull(input, "input");
+        this.options = options;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+        Objects.requireNonNull(subscriber, "subscriber");
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Json array can be published only to one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new ElementSubscription(subscriber));
+    }
+
+    private final class ElementSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<? super Object> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile boolean wrongRequest;
+        private JsonArrayCursor cursor;
+        private boolean done;
+
+        private ElementSubscription(Flow.Subscriber<? super Object> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                wrongRequest = true;
+            } else {
+                requested.getAndUpdate(r -> r + n < 0 ? Long.MAX_VALUE : r + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                if (executor != null) {
+                    executor.execute(this);
+                } else {
+                    run();
+                }
+            }
+        }
+
+        /**
+         * Drain loop - only one thread at once, request from onNext only increments wip and is handled by next iteration
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done) {
+                return;
+            }
+            if (cancelled) {
+                done = true;
+                cursor = null;
+                return;
+            }
+            if (wrongRequest) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("Count of requested elements must be positive (rule 3.9)"));
+                return;
+            }
+            final long demand = requested.get();
+            long emitted = 0;
+            try {
+                if (demand > 0 && cursor == null) {
+                    cursor = new JsonArrayCursor(parser, new JsonScanner(input, options));
+                }
+                while (emitted < demand && cursor.hasNext() && !cancelled) {
+                    final Object element = cursor.next();
+                    if (element != null) {
+                        subscriber.onNext(element);
+                        emitted++;
+                    }
+                }
+            } catch (RuntimeException e) {
+                done = true;
+                cursor = null;
+                subscriber.onError(e);
+                return;
+            }
+            if (cursor != null && !cursor.hasNext() && !cancelled) {
+                done = true;
+                cursor = null;
+                subscriber.onComplete();
+                return;
+            }
+            if (emitted > 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+    }
+}
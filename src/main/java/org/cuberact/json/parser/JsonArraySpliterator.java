@@ -0,0 +1,453 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.input.JsonInputCharArray;
+import org.cuberact.json.input.JsonInputUtf8;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator of elements of root array in char array, UTF-8 bytes or UTF-8 file - see {@link JsonParser#streamArray(char[])}.
+ * <p>
+ * Sequential traversal parses elements one by one by {@link JsonArrayCursor}. Before first split (or size estimation for parallel
+ * stream) whole input is scanned once without allocation (only strings and brackets are tracked) and element boundaries are recorded
+ * to sparse index - one boundary every {@link #MIN_CHUNK} chars or bytes (or more for big inputs, max about 1024 chunks).
+ * Chunks are then split in constant time and every chunk is parsed by its own scanner from its first element.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonArraySpliterator implements Spliterator<Object> {
+
+    static final int MIN_CHUNK = 1 << 16;
+
+    private final Source source;
+    private Index index;
+    private JsonArrayCursor cursor;
+    private int lo;
+    private int hi;
+    private JsonScanner scanner;
+    private long remaining;
+    private char next;
+
+    JsonArraySpliterator(Source source) {
+        this.source = source;
+    }
+
+    private JsonArraySpliterator(Source source, Index index, int lo, int hi) {
+        this.source = source;
+        this.index = index;
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Object> action) {
+        Objects.requireNonNull(action, "action");
+        if (index == null) {
+            if (cursor == null) {
+                cursor = new JsonArrayCursor(source.parser, source.scanner(0, 0));
+            }
+            if (!cursor.hasNext()) {
+                return false;
+            }
+            action.accept(cursor.next());
+            return true;
+        }
+        while (remaining == 0) {
+            if (lo >= hi) {
+                return false;
+            }
+            scanner = source.scanner(index.offsets[lo], index.charOffsets[lo]);
+            remaining = index.first[lo + 1] - index.first[lo];
+            next = scanner.nextImportantChar();
+            lo++;
+        }
+        final Object element = source.parser.parseElement(scanner, next);
+        remaining--;
+        final char separator = scanner.lastReadChar;
+        if (separator == ',') {
+            if (remaining > 0) {
+                next = scanner.nextImportantChar();
+            } else if (lo == index.chunks && scanner.nextImportantChar() != ']') { //last element of array
+                throw scanner.jsonException("Expected \" or ] or number or boolean or null");
+            }
+        } else if (separator != ']' || remaining > 0) {
+            throw scanner.jsonException("Expected ] or ,");
+        }
+        if (remaining == 0) {
+            scanner = null;
+        }
+        action.accept(element);
+        return true;
+    }
+
+    @Override
+    public Spliterator<Object> trySplit() {
+        if (!indexed() || remaining > 0 || hi - lo < 2) {
+            return null;
+        }
+        final int mid = (lo + hi) >>> 1;
+        final JsonArraySpliterator prefix = new JsonArraySpliterator(source, index, lo, mid);
+        lo = mid;
+        return prefix;
+    }
+
+    /**
+     * Size is needed by parallel stream for splitting decisions, so input is indexed here if traversal has not started yet
+     */
+    @Override
+    public long estimateSize() {
+        if (!indexed()) {
+            return Long.MAX_VALUE;
+        }
+        return remaining + index.first[hi] - index.first[lo];
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | IMMUTABLE; //not SIZED, size is unknown until input is indexed
+    }
+
+    /**
+     * @return false if sequential traversal has already started
+     */
+    private boolean indexed() {
+        if (index == null) {
+            if (cursor != null) {
+                return false;
+            }
+            index = source.index();
+            lo = 0;
+            hi = index.chunks;
+        }
+        return true;
+    }
+
+    /**
+     * Sparse index of element boundaries, built by one pass through input
+     */
+    static final class Index {
+
+        private final long chunkSize;
+        long[] offsets = new long[16];
+        long[] charOffsets = new long[16];
+        long[] first = new long[17];
+        int chunks;
+        private long count;
+        private long nextBoundary;
+        private int depth;
+        private boolean inString;
+        private boolean escape;
+        private boolean expecting;
+        private boolean started;
+        boolean ended;
+
+        Index(long length) {
+            this.chunkSize = Math.max(MIN_CHUNK, length >>> 10);
+        }
+
+        void scan(char[] chars, int from, int to) {
+            for (int i = from; i < to && !ended; i++) {
+                accept(chars[i], i, i);
+            }
+        }
+
+        /**
+         * @param base      - offset of buffer index 0 in input
+         * @param charCount - count of chars before from
+         * @return count of chars before to
+         */
+        long scan(ByteBuffer bytes, int from, int to, long base, long charCount) {
+            for (int i = from; i < to && !ended; i++) {
+                final byte b = bytes.get(i);
+                accept(b, base + i, charCount);
+                if ((b & 0xC0) != 0x80) charCount++; //not continuation byte
+                if ((b & 0xF8) == 0xF0) charCount++; //surrogate pair
+            }
+            return charCount;
+        }
+
+        private void accept(int c, long offset, long charOffset) {
+            if (inString) {
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                return;
+            }
+            switch (c) {
+                case ' ':
+                case '\n':
+                case '\r':
+                case '\t':
+                    return;
+                case '[':
+                    if (!started) {
+                        started = true;
+                        depth = 1;
+                        expecting = true;
+                        return;
+                    }
+                    element(offset, charOffset);
+                    depth++;
+                    return;
+                case '{':
+                    element(offset, charOffset);
+                    depth++;
+                    return;
+                case ']':
+                case '}':
+                    depth--;
+                    expecting = false;
+                    ended = depth == 0;
+                    return;
+                case ',':
+                    expecting = depth == 1;
+                    return;
+                case '"':
+                    element(offset, charOffset);
+                    inString = true;
+                    return;
+                default:
+                    element(offset, charOffset);
+            }
+        }
+
+        private void element(long offset, long charOffset) {
+            if (!started) {
+                throw new JsonException("Parse error on position " + (charOffset + 1) + " - Expected [");
+            }
+            if (depth != 1 || !expecting) {
+                return;
+            }
+            expecting = false;
+            if (offset >= nextBoundary) {
+                if (chunks + 1 == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, chunks * 2);
+                    charOffsets = Arrays.copyOf(charOffsets, chunks * 2);
+                    first = Arrays.copyOf(first, chunks * 2 + 1);
+                }
+                offsets[chunks] = offset;
+                charOffsets[chunks] = charOffset;
+                first[chunks] = count;
+                chunks++;
+                nextBoundary = offset + chunkSize;
+            }
+            count++;
+        }
+
+        Index end(long charCount) {
+            if (!started) {
+                throw new JsonException("Parse error on position " + charCount + " - Expected [");
+            }
+            if (!ended && depth == 1 && !inString) { //unclosed string or nested container fails in parse of last element
+                throw new JsonException("Parse error on position " + charCount + " - "
+                        + (expecting ? "Expected \" or ] or number or boolean or null" : "Expected ] or ,"));
+            }
+            first[chunks] = count;
+            return this;
+        }
+    }
+
+    /**
+     * Input of spliterator, scanner can start on any element boundary
+     */
+    abstract static class Source implements AutoCloseable {
+
+        final JsonParser parser;
+        final JsonParserOptions options;
+
+        Source(JsonParser parser, JsonParserOptions options) {
+            this.parser = parser;
+            this.options = options;
+        }
+
+        /**
+         * @param offset     - index of char or byte
+         * @param charOffset - count of chars before offset (for error position)
+         */
+        abstract JsonScanner scanner(long offset, long charOffset);
+
+        abstract Index index();
+
+        @Override
+        public void close() {
+        }
+    }
+
+    static final class CharsSource extends Source {
+
+        private final char[] chars;
+
+        CharsSource(JsonParser parser, JsonParserOptions options, char[] chars) {
+            super(parser, options);
+            this.chars = Objects.requireNonNull(chars, "input");
+        }
+
+        @Override
+        JsonScanner scanner(long offset, long charOffset) {
+            final JsonInputCharArray input = new JsonInputCharArray(chars);
+            input.cursor((int) offset);
+            return new JsonScanner(input, options);
+        }
+
+        @Override
+        Index index() {
+            final Index index = new Index(chars.length);
+            index.scan(chars, 0, chars.length);
+            return index.end(chars.length);
+        }
+    }
+
+    static final class BytesSource extends Source {
+
+        private final ByteBuffer bytes;
+        private final int bom;
+
+        BytesSource(JsonParser parser, JsonParserOptions options, byte[] bytes) {
+            super(parser, options);
+            this.bytes = ByteBuffer.wrap(Objects.requireNonNull(bytes, "input"));
+            this.bom = bom(this.bytes, 0, bytes.length);
+        }
+
+        @Override
+        JsonScanner scanner(long offset, long charOffset) {
+            final ByteBuffer buffer = bytes.duplicate();
+            buffer.position((int) offset);
+            return new JsonScanner(new JsonInputUtf8(buffer) {
+                @Override
+                public long positionLong() {
+                    return super.positionLong() + charOffset;
+                }
+            }, options);
+        }
+
+        @Override
+        Index index() {
+            final int length = bytes.limit();
+            final Index index = new Index(length);
+            return index.end(index.scan(bytes, bom, length, 0, 0));
+        }
+    }
+
+    static final class FileSource extends Source {
+
+        private static final int SEGMENT = JsonInputMappedFileRange.SEGMENT;
+
+        private final FileChannel channel;
+        private final long size;
+
+        FileSource(JsonParser parser, JsonParserOptions options, Path file) {
+            super(parser, options);
+            Objects.requireNonNull(file, "input");
+            try {
+                this.channel = FileChannel.open(file, StandardOpenOption.READ);
+                this.size = channel.size();
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+
+        @Override
+        JsonScanner scanner(long offset, long charOffset) {
+            return new JsonScanner(new JsonInputMappedFileRange(channel, offset, size, charOffset), options);
+        }
+
+        @Override
+        Index index() {
+            final Index index = new Index(size);
+            long charCount = 0;
+            try {
+                for (long offset = 0; offset < size && !index.ended; offset += SEGMENT) {
+                    final int length = (int) Math.min(SEGMENT, size - offset);
+                    final ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                    charCount = index.scan(segment, offset == 0 ? bom(segment, 0, length) : 0, length, offset, charCount);
+                }
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+            return index.end(charCount);
+        }
+
+        @Override
+        public void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+        }
+    }
+
+    /**
+     * UTF-8 bytes of file from offset, mapped by segments
+     */
+    private static final class JsonInputMappedFileRange extends JsonInputUtf8 {
+
+        static final int SEGMENT = 1 << 28;
+
+        private final FileChannel channel;
+        private final long end;
+        private final long charOffset;
+        private long offset;
+
+        JsonInputMappedFileRange(FileChannel channel, long offset, long end, long charOffset) {
+            this.channel = channel;
+            this.offset = offset;
+            this.end = end;
+            this.charOffset = charOffset;
+        }
+
+        @Override
+        protected boolean nextBytes(int unread) {
+            offset -= unread;
+            if (offset >= end) {
+                return false;
+            }
+            final long length = Math.min(SEGMENT, end - offset);
+            try {
+                bytes(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+            } catch (IOException e) {
+                throw new JsonException(e);
+            }
+            offset += length;
+            return unread < length;
+        }
+
+        @Override
+        public long positionLong() {
+            return super.positionLong() + charOffset;
+        }
+    }
+
+    private static int bom(ByteBuffer bytes, int from, int to) {
+        return to - from >= 3 && bytes.get(from) == (byte) 0xEF && bytes.get(from + 1) == (byte) 0xBB && bytes.get(from + 2) == (byte) 0xBF ? 3 : 0;
+    }
+}
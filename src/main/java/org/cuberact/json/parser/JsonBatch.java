@@ -0,0 +1,128 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parse of many small inputs - see {@link JsonParser#parseAsync(List, Executor)}.
+ * <p>
+ * Inputs are split to contiguous batches (about 4 per processor), every batch is one task, so executor handles only few tasks
+ * and scanner buffers of worker thread are reused for whole batch. Results are stored on index of input.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonBatch {
+
+    private static final int BATCHES_PER_PROCESSOR = 4;
+
+    private final JsonParser parser;
+    private final List<?> inputs;
+    private final Object[] results;
+    private final AtomicInteger failedIndex = new AtomicInteger(Integer.MAX_VALUE);
+    private volatile RuntimeException failure;
+
+    private JsonBatch(JsonParser parser, List<?> inputs) {
+        this.parser = parser;
+        this.inputs = inputs;
+        this.results = new Object[inputs.size()];
+    }
+
+    static CompletableFuture<List<Object>> parse(JsonParser parser, List<?> inputs, Executor executor) {
+        Objects.requireNonNull(inputs, "inputs");
+        Objects.requireNonNull(executor, "executor");
+        final JsonBatch batch = new JsonBatch(parser, inputs);
+        final int size = inputs.size();
+        final int count = Math.min(size, Runtime.getRuntime().availableProcessors() * BATCHES_PER_PROCESSOR);
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            final int from = (int) ((long) size * i / count);
+            final int to = (int) ((long) size * (i + 1) / count);
+            tasks[i] = CompletableFuture.runAsync(() -> batch.parse(from, to), executor);
+        }
+        return CompletableFuture.allOf(tasks).thenApply(ignore -> batch.result());
+    }
+
+    private void parse(int from, int to) {
+        for (int i = from; i < to && i < failedIndex.get(); i++) {
+            try {
+                results[i] = parse(inputs.get(i));
+            } catch (RuntimeException e) {
+                fail(i, e);
+                return;
+            }
+        }
+    }
+
+    private Object parse(Object input) {
+        if (input instanceof CharSequence) {
+            return parser.parse((CharSequence) input);
+        }
+        if (input instanceof char[]) {
+            return parser.parse((char[]) input);
+        }
+        if (input instanceof byte[]) {
+            return parser.parse((byte[]) input);
+        }
+        throw new IllegalArgumentException("Unsupported input " + (input == null ? "null" : input.getClass().getName()) + ", expected CharSequence, char[] or byte[]");
+    }
+
+    /**
+     * Only failure of the lowest index is reported, batches after it stop
+     */
+    private synchronized void fail(int index, RuntimeException e) {
+        if (index < failedIndex.get()) {
+            failedIndex.set(index);
+            failure = e instanceof JsonException ? new JsonException("Input on index " + index + " - " + e.getMessage(), e) : e;
+        }
+    }
+
+    private List<Object> result() {
+        if (failure != null) {
+            throw failure;
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Virtual thread per task executor (Java 21+) or {@link ForkJoinPool#commonPool()}
+     */
+    static final class DefaultExecutor {
+
+        static final Executor INSTANCE = create();
+
+        private DefaultExecutor() {
+        }
+
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return ForkJoinPool.commonPool();
+            }
+        }
+    }
+}
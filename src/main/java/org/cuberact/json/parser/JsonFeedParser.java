@@ -0,0 +1,761 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking push parser - input is fed in chunks of any size (as they come from network) and never read
+ * by parser itself. State is kept between chunks and builder is called as soon as value is complete
+ * (number is complete with first char after it). Completed documents are passed to consumer.
+ * <p>
+ * Input is stream of documents like in {@link JsonParser#parseStream(org.cuberact.json.input.JsonInput, Consumer)}
+ * (one document, newline delimited json or documents just concatenated).
+ * <p>
+ * Created by {@link JsonParser#feedParser(Consumer)}. Not thread-safe - one instance per connection or stream.
+ * After error (JsonException from feed or from builder) parser can't be used anymore.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonFeedParser {
+
+    private static final int ROOT = 0;
+    private static final int OBJECT_KEY = 1;
+    private static final int COLON = 2;
+    private static final int VALUE = 3;
+    private static final int AFTER_VALUE = 4;
+    private static final int STRING = 5;
+    private static final int STRING_ESCAPE = 6;
+    private static final int STRING_UNICODE = 7;
+    private static final int LITERAL = 8;
+    private static final int NUMBER_SIGN = 9;
+    private static final int NUMBER_INT = 10;
+    private static final int NUMBER_FRACTION = 11;
+    private static final int NUMBER_EXPONENT_SIGN = 12;
+    private static final int NUMBER_EXPONENT = 13;
+    private static final int FAILED = 14;
+    private static final int ENDED = 15;
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private final JsonBuilder builder;
+    private final JsonBuilderPrimitive primitive;
+    private final Consumer<Object> consumer;
+    private final JsonKeyPool keyCache;
+    private final JsonKeyPool keyPool;
+    private final JsonLimits limits;
+    private int state = ROOT;
+    private long position;
+    private long offset;
+    private Object[] parents = new Object[16];
+    private boolean[] parentIsObject = new boolean[16];
+    private String[] attrs = new String[16];
+    private int[] sizes = new int[16];
+    private int depth;
+    private int size;
+    private long allocated;
+    private Object container;
+    private boolean isObject;
+    private String attr;
+    private boolean key;
+    private char[] token = new char[256];
+    private int tokenLength;
+    private long tokenStart;
+    private int tokenLimit;
+    private boolean numberToken;
+    private String literal;
+    private int literalIndex;
+    private int unicodeCount;
+    private int unicodeValue;
+    private JsonNumberValue numberValue;
+    private final byte[] pending = new byte[4];
+    private int pendingCount;
+    private boolean bomChecked;
+    private char[] decoded;
+    private byte[] copied;
+
+    JsonFeedParser(JsonBuilder builder, JsonParserOptions options, Consumer<Object> consumer) {
+        this.builder = builder;
+        this.primitive = JsonPrimitiveAdapter.of(builder);
+        this.consumer = Objects.requireNonNull(consumer, "consumer");
+        this.keyCache = options.isKeyCache() ? new JsonKeyPool(JsonParserOptions.KEY_CACHE_SIZE) : null;
+        this.keyPool = options.getKeyPool();
+        this.limits = options.getLimits();
+    }
+
+    /**
+     * @param input - next chars of input
+     */
+    public void feed(char[] input) {
+        feed(input, 0, Objects.requireNonNull(input, "input").length);
+    }
+
+    /**
+     * @param input  - next chars of input
+     * @param offset - index of first char
+     * @param length - count of chars
+     */
+    public void feed(char[] input, int offset, int length) {
+        checkRange(Objects.requireNonNull(input, "input").length, offset, length);
+        checkState();
+        if (pendingCount > 0) {
+            fail(invalidSequence(0));
+        }
+        process(input, offset, offset + length);
+    }
+
+    /**
+     * @param input - next UTF-8 bytes of input, sequence of bytes of one char can be split to more chunks
+     */
+    public void feed(byte[] input) {
+        feed(input, 0, Objects.requireNonNull(input, "input").length);
+    }
+
+    /**
+     * @param input  - next UTF-8 bytes of input, sequence of bytes of one char can be split to more chunks
+     * @param offset - index of first byte
+     * @param length - count of bytes
+     */
+    public void feed(byte[] input, int offset, int length) {
+        checkRange(Objects.requireNonNull(input, "input").length, offset, length);
+        checkState();
+        try {
+            decode(input, offset, offset + length);
+        } catch (RuntimeException e) {
+            state = FAILED;
+            throw e;
+        }
+    }
+
+    /**
+     * @param input - next UTF-8 bytes of input between {@link ByteBuffer#position()} and {@link ByteBuffer#limit()},
+     *              position of buffer is moved to limit
+     */
+    public void feed(ByteBuffer input) {
+        Objects.requireNonNull(input, "input");
+        if (input.hasArray()) {
+            feed(input.array(), input.arrayOffset() + input.position(), input.remaining());
+            input.position(input.limit());
+            return;
+        }
+        if (copied == null) {
+            copied = new byte[CHUNK_SIZE];
+        }
+        while (input.hasRemaining()) {
+            final int length = Math.min(input.remaining(), copied.length);
+            input.get(copied, 0, length);
+            feed(copied, 0, length);
+        }
+    }
+
+    /**
+     * No more input. Last number is completed, JsonException is thrown if last document is not complete.
+     */
+    public void endOfInput() {
+        checkState();
+        if (pendingCount > 0) {
+            fail(invalidSequence(0));
+        }
+        offset = position;
+        try {
+            if (state >= NUMBER_INT && state <= NUMBER_EXPONENT) {
+                numberCompleted(0);
+            }
+            switch (state) {
+                case ROOT:
+                    state = ENDED;
+                    return;
+                case OBJECT_KEY:
+                case STRING:
+                case STRING_ESCAPE:
+                    throw error(0, "Expected \"");
+                case STRING_UNICODE:
+                    throw error(0, "Expected 4 digits hex number");
+                case COLON:
+                    throw error(0, "Expected :");
+                case VALUE:
+                    throw error(0, valueError());
+                case LITERAL:
+                    throw error(0, "Expected " + literal);
+                case NUMBER_SIGN:
+                    throw error(0, "Expected correct number");
+                default:
+                    throw error(0, isObject ? "Expected } or ," : "Expected ] or ,");
+            }
+        } catch (RuntimeException e) {
+            state = FAILED;
+            throw e;
+        }
+    }
+
+    /**
+     * @return true if some part of unfinished document was fed
+     */
+    public boolean isInsideDocument() {
+        return state != ROOT && state != ENDED && state != FAILED;
+    }
+
+    /**
+     * @return count of fed chars (decoded chars for UTF-8 input)
+     */
+    public long position() {
+        return position;
+    }
+
+    private void process(char[] w, int from, int to) {
+        offset = position - from;
+        int i = from;
+        try {
+            if (position + (to - from) > limits.getMaxInputLength()) {
+                throw new JsonException("Parse error on position " + (limits.getMaxInputLength() + 1) + " - " + limits.inputError());
+            }
+            while (i < to) {
+                switch (state) {
+                    case ROOT:
+                    case OBJECT_KEY:
+                    case COLON:
+                    case VALUE:
+                    case AFTER_VALUE:
+                        i = JsonKernels.whitespaceEnd(w, i, to);
+                        if (i < to) {
+                            structural(w[i++], i);
+                        }
+                        break;
+                    case STRING:
+                        final int end = JsonKernels.stringEnd(w, i, to);
+                        append(w, i, end);
+                        i = end;
+                        if (i < to) {
+                            final char c = w[i++];
+                            if (c == '"') {
+                                stringCompleted(i);
+                            } else if (c == '\\') {
+                                state = STRING_ESCAPE;
+                            } else {
+                                append(c); //END_OF_INPUT char is ordinary char here
+                            }
+                        }
+                        break;
+                    case STRING_ESCAPE:
+                        escape(w[i++]);
+                        break;
+                    case STRING_UNICODE:
+                        final int hex = hex(w[i++]);
+                        if (hex < 0) {
+                            throw error(i, "Expected 4 digits hex number");
+                        }
+                        unicodeValue = (unicodeValue << 4) | hex;
+                        if (++unicodeCount == 4) {
+                            append((char) unicodeValue);
+                            state = STRING;
+                        }
+                        break;
+                    case LITERAL:
+                        if (w[i++] != literal.charAt(literalIndex)) {
+                            throw error(i, "Expected " + literal);
+                        }
+                        if (++literalIndex == literal.length()) {
+                            literalCompleted();
+                        }
+                        break;
+                    case NUMBER_SIGN:
+                        if (w[i] < '0' || w[i] > '9') {
+                            throw error(i + 1, "Expected correct number");
+                        }
+                        append(w[i++]);
+                        state = NUMBER_INT;
+                        break;
+                    case NUMBER_EXPONENT_SIGN:
+                        final char s = w[i];
+                        if (s == '-' || s == '+' || (s >= '0' && s <= '9')) {
+                            append(s);
+                            i++;
+                            state = NUMBER_EXPONENT;
+                        } else {
+                            numberCompleted(i); //char after number is processed in AFTER_VALUE
+                        }
+                        break;
+                    default: //NUMBER_INT, NUMBER_FRACTION, NUMBER_EXPONENT
+                        final int digitsEnd = JsonKernels.digitsEnd(w, i, to);
+                        append(w, i, digitsEnd);
+                        i = digitsEnd;
+                        if (i < to) {
+                            final char next = w[i];
+                            if (state == NUMBER_INT && next == '.') {
+                                append('.');
+                                i++;
+                                state = NUMBER_FRACTION;
+                            } else if (state == NUMBER_FRACTION && (next == 'e' || next == 'E')) {
+                                append('e');
+                                i++;
+                                state = NUMBER_EXPONENT_SIGN;
+                            } else {
+                                numberCompleted(i);
+                            }
+                        }
+                }
+            }
+        } catch (RuntimeException e) {
+            state = FAILED;
+            throw e;
+        } finally {
+            position = offset + i;
+        }
+    }
+
+    /**
+     * @param c - important char
+     * @param i - index after c
+     */
+    @SuppressWarnings("unchecked")
+    private void structural(char c, int i) {
+        switch (state) {
+            case ROOT:
+                if (c != '{' && c != '[') {
+                    throw error(i, "Expected { or [");
+                }
+                builder.buildStart();
+                size = 0;
+                allocated = 0;
+                allocate(i, JsonLimits.CONTAINER_BYTES);
+                isObject = c == '{';
+                container = isObject ? builder.createObject() : builder.createArray();
+                state = isObject ? OBJECT_KEY : VALUE;
+                break;
+            case OBJECT_KEY:
+                if (c == '"') {
+                    key = true;
+                    startToken(i, false);
+                    state = STRING;
+                } else if (c == '}') {
+                    containerCompleted();
+                } else {
+                    throw error(i, "Expected \"");
+                }
+                break;
+            case COLON:
+                if (c != ':') {
+                    throw error(i, "Expected :");
+                }
+                state = VALUE;
+                break;
+            case VALUE:
+                value(c, i);
+                break;
+            default: //AFTER_VALUE
+                if (++size > limits.getMaxContainerSize()) {
+                    throw error(i, limits.containerError());
+                }
+                allocate(i, JsonLimits.VALUE_BYTES);
+                if (c == ',') {
+                    state = isObject ? OBJECT_KEY : VALUE;
+                } else if (c == (isObject ? '}' : ']')) {
+                    containerCompleted();
+                } else {
+                    throw error(i, isObject ? "Expected } or ," : "Expected ] or ,");
+                }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void value(char c, int i) {
+        switch (c) {
+            case '"':
+                key = false;
+                startToken(i, false);
+                state = STRING;
+                break;
+            case '{':
+            case '[':
+                if (isObject) {
+                    builder.addObjectAttr(container, attr);
+                } else {
+                    builder.addArrayComma(container);
+                }
+                final Object sub = c == '{' ? builder.createObject() : builder.createArray();
+                if (depth == parents.length) {
+                    parents = Arrays.copyOf(parents, depth * 2);
+                    parentIsObject = Arrays.copyOf(parentIsObject, depth * 2);
+                    attrs = Arrays.copyOf(attrs, depth * 2);
+                    sizes = Arrays.copyOf(sizes, depth * 2);
+                }
+                parents[depth] = container;
+                parentIsObject[depth] = isObject;
+                attrs[depth] = attr;
+                sizes[depth] = size;
+                depth++;
+                size = 0;
+                if (depth + 1 > limits.getMaxDepth()) {
+                    throw error(i, limits.depthError());
+                }
+                allocate(i, JsonLimits.CONTAINER_BYTES);
+                container = sub;
+                isObject = c == '{';
+                state = isObject ? OBJECT_KEY : VALUE;
+                break;
+            case 't':
+                literal("true");
+                break;
+            case 'f':
+                literal("false");
+                break;
+            case 'n':
+                literal("null");
+                break;
+            case '-':
+                startToken(i - 1, true);
+                append(c);
+                state = NUMBER_SIGN;
+                break;
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                startToken(i - 1, true);
+                append(c);
+                state = NUMBER_INT;
+                break;
+            case ']':
+                if (!isObject) {
+                    containerCompleted();
+                    break;
+                }
+                throw error(i, valueError());
+            default:
+                throw error(i, valueError());
+        }
+    }
+
+    private void literal(String literal) {
+        this.literal = literal;
+        this.literalIndex = 1;
+        state = LITERAL;
+    }
+
+    private void escape(char c) {
+        switch (c) {
+            case 'b':
+                c = '\b';
+                break;
+            case 'f':
+                c = '\f';
+                break;
+            case 'n':
+                c = '\n';
+                break;
+            case 'r':
+                c = '\r';
+                break;
+            case 't':
+                c = '\t';
+                break;
+            case 'u':
+                unicodeCount = 0;
+                unicodeValue = 0;
+                state = STRING_UNICODE;
+                return;
+        }
+        append(c);
+        state = STRING;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stringCompleted(int i) {
+        allocate(i, JsonLimits.valueBytes(tokenLength));
+        if (key) {
+            attr = attr();
+            state = COLON;
+            return;
+        }
+        if (isObject) {
+            primitive.addStringToObject(container, attr, token, 0, tokenLength);
+        } else {
+            primitive.addStringToArray(container, token, 0, tokenLength);
+        }
+        state = AFTER_VALUE;
+    }
+
+    private String attr() {
+        if (keyCache == null) {
+            return new String(token, 0, tokenLength);
+        }
+        int hash = 0;
+        for (int i = 0; i < tokenLength; i++) {
+            hash = 31 * hash + token[i];
+        }
+        String attr = keyCache.find(token, 0, tokenLength, hash);
+        if (attr == null) {
+            attr = keyPool != null ? keyPool.get(token, 0, tokenLength, hash) : new String(token, 0, tokenLength);
+            keyCache.put(attr);
+        }
+        return attr;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void literalCompleted() {
+        if (literal.charAt(0) == 'n') {
+            if (isObject) {
+                builder.addNullToObject(container, attr);
+            } else {
+                builder.addNullToArray(container);
+            }
+        } else {
+            final boolean value = literal.charAt(0) == 't';
+            if (isObject) {
+                primitive.addBooleanToObject(container, attr, value);
+            } else {
+                primitive.addBooleanToArray(container, value);
+            }
+        }
+        state = AFTER_VALUE;
+    }
+
+    private void numberCompleted(int i) {
+        allocate(i, JsonLimits.valueBytes(tokenLength));
+        if (numberValue == null) {
+            numberValue = new JsonNumberValue();
+        }
+        numberValue.of(token, tokenLength, state != NUMBER_INT);
+        if (isObject) {
+            numberValue.addToObject(primitive, container, attr);
+        } else {
+            numberValue.addToArray(primitive, container);
+        }
+        state = AFTER_VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void containerCompleted() {
+        if (isObject) {
+            builder.objectCompleted(container);
+        } else {
+            builder.arrayCompleted(container);
+        }
+        if (depth == 0) {
+            builder.buildEnd();
+            final Object root = container;
+            container = null;
+            attr = null;
+            state = ROOT;
+            consumer.accept(root);
+            return;
+        }
+        depth--;
+        size = sizes[depth];
+        final Object parent = parents[depth];
+        parents[depth] = null;
+        if (parentIsObject[depth]) {
+            if (isObject) {
+                builder.addObjectToObject(parent, attrs[depth], container);
+            } else {
+                builder.addArrayToObject(parent, attrs[depth], container);
+            }
+        } else {
+            if (isObject) {
+                builder.addObjectToArray(parent, container);
+            } else {
+                builder.addArrayToArray(parent, container);
+            }
+        }
+        attrs[depth] = null;
+        container = parent;
+        isObject = parentIsObject[depth];
+        state = AFTER_VALUE;
+    }
+
+    private void allocate(int i, long bytes) {
+        if ((allocated += bytes) > limits.getMaxAllocation()) {
+            throw error(i, limits.allocationError());
+        }
+    }
+
+    /**
+     * @param i      - index of first char of string or number
+     * @param number - true for number
+     */
+    private void startToken(int i, boolean number) {
+        tokenLength = 0;
+        tokenStart = offset + i;
+        numberToken = number;
+        tokenLimit = number ? limits.getMaxNumberLength() : limits.getMaxStringLength();
+    }
+
+    private JsonException tokenError() {
+        return new JsonException("Parse error on position " + (tokenStart + tokenLimit + 1) + " - " + (numberToken ? limits.numberError() : limits.stringError()));
+    }
+
+    private String valueError() {
+        return isObject ? "Expected \" or number or boolean or null" : "Expected \" or ] or number or boolean or null";
+    }
+
+    private void append(char c) {
+        if (tokenLength == tokenLimit) {
+            throw tokenError();
+        }
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, tokenLength * 2);
+        }
+        token[tokenLength++] = c;
+    }
+
+    private void append(char[] w, int from, int to) {
+        final int count = to - from;
+        if (count > tokenLimit - tokenLength) {
+            throw tokenError();
+        }
+        if (tokenLength + count > token.length) {
+            token = Arrays.copyOf(token, Math.max(token.length * 2, tokenLength + count));
+        }
+        System.arraycopy(w, from, token, tokenLength, count);
+        tokenLength += count;
+    }
+
+    private static int hex(char c) {
+        if (c >= '0' && c <= '9') return c - '0';
+        if (c >= 'a' && c <= 'f') return c - 'a' + 10;
+        if (c >= 'A' && c <= 'F') return c - 'A' + 10;
+        return -1;
+    }
+
+    private void decode(byte[] input, int from, int to) {
+        if (decoded == null) {
+            decoded = new char[CHUNK_SIZE + 1];
+        }
+        final char[] d = decoded;
+        int i = from;
+        int c = 0;
+        if (pendingCount > 0) { //sequence split between chunks
+            final int length = sequenceLength(pending[0], 0);
+            while (pendingCount < length && i < to) {
+                pending[pendingCount++] = input[i++];
+            }
+            if (pendingCount < length) {
+                return;
+            }
+            c = decodeSequence(pending, 0, length, c);
+            pendingCount = 0;
+        }
+        while (i < to) {
+            final byte b = input[i];
+            if (b >= 0) { //ASCII
+                d[c++] = (char) b;
+                i++;
+            } else {
+                final int length = sequenceLength(b, c);
+                if (to - i < length) {
+                    pendingCount = to - i;
+                    System.arraycopy(input, i, pending, 0, pendingCount);
+                    break;
+                }
+                c = decodeSequence(input, i, length, c);
+                i += length;
+            }
+            if (c >= CHUNK_SIZE) {
+                processDecoded(c);
+                c = 0;
+            }
+        }
+        processDecoded(c);
+    }
+
+    private void processDecoded(int count) {
+        if (!bomChecked && count > 0) {
+            bomChecked = true;
+            if (position == 0 && decoded[0] == '\uFEFF') {
+                process(decoded, 1, count);
+                return;
+            }
+        }
+        process(decoded, 0, count);
+    }
+
+    private int sequenceLength(byte b0, int c) {
+        if ((b0 & 0xE0) == 0xC0) return 2;
+        if ((b0 & 0xF0) == 0xE0) return 3;
+        if ((b0 & 0xF8) == 0xF0) return 4;
+        throw invalidSequence(c);
+    }
+
+    /**
+     * @return index in decoded chars after sequence
+     */
+    private int decodeSequence(byte[] b, int i, int length, int c) {
+        final char[] d = decoded;
+        int codePoint = b[i] & (0xFF >> (length + 1));
+        for (int j = 1; j < length; j++) {
+            final int next = b[i + j];
+            if ((next & 0xC0) != 0x80) throw invalidSequence(c);
+            codePoint = (codePoint << 6) | (next & 0x3F);
+        }
+        if (length == 2) {
+            if (codePoint < 0x80) throw invalidSequence(c);
+            d[c++] = (char) codePoint;
+        } else if (length == 3) {
+            if (codePoint < 0x800 || Character.isSurrogate((char) codePoint)) throw invalidSequence(c);
+            d[c++] = (char) codePoint;
+        } else {
+            if (codePoint < 0x10000 || codePoint > Character.MAX_CODE_POINT) throw invalidSequence(c);
+            d[c++] = Character.highSurrogate(codePoint);
+            d[c++] = Character.lowSurrogate(codePoint);
+        }
+        return c;
+    }
+
+    private void checkState() {
+        if (state == FAILED) {
+            throw new IllegalStateException("Parser failed on previous input");
+        }
+        if (state == ENDED) {
+            throw new IllegalStateException("End of input already reached");
+        }
+    }
+
+    private void fail(JsonException e) {
+        state = FAILED;
+        throw e;
+    }
+
+    private static void checkRange(int arrayLength, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > arrayLength || offset + length < 0) {
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + ", array length " + arrayLength);
+        }
+    }
+
+    /**
+     * @param i - index after wrong char in actual chunk
+     */
+    private JsonException error(int i, String error) {
+        return new JsonException("Parse error on position " + (offset + i) + " - " + error);
+    }
+
+    private JsonException invalidSequence(int c) {
+        return new JsonException("Invalid UTF-8 byte sequence on position " + (position + c));
+    }
+}
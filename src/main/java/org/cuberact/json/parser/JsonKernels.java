@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
+
+/**
+ * Scanning loops of {@link JsonScanner} over char window.
+ * <p>
+ * This is scalar version. Multi-release jar contains version for Java 17+, which classifies many chars
+ * in one step with jdk.incubator.vector (if module is added by --add-modules jdk.incubator.vector).
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonKernels {
+
+    private JsonKernels() {
+    }
+
+    /**
+     * @return index of first char which is not whitespace or to
+     */
+    static int whitespaceEnd(char[] w, int from, int to) {
+        int i = from;
+        while (i < to) {
+            final char c = w[i];
+            if (c > ' ' || !(c == ' ' || c == '\n' || c == '\r' || c == '\t')) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return index of first " or \ or {@link org.cuberact.json.input.JsonInput#END_OF_INPUT} or to
+     */
+    static int stringEnd(char[] w, int from, int to) {
+        int i = from;
+        while (i < to) {
+            final char c = w[i];
+            if (c == '"' || c == '\\' || c == END_OF_INPUT) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return index of first char which is not digit or to
+     */
+    static int digitsEnd(char[] w, int from, int to) {
+        int i = from;
+        while (i < to) {
+            final char c = w[i];
+            if (c < '0' || c > '9') {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+}
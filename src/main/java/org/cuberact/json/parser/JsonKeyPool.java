@@ -0,0 +1,148 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bounded pool of canonical attribute names - {@link JsonParserOptions#withKeyPool(JsonKeyPool)}
+ * <p>
+ * Attribute chars are matched against already known names, so equal attribute names share one String instance
+ * and matched names are not allocated again. Pool has fixed count of slots, name in occupied slot is replaced
+ * by newer one on collision.
+ * <p>
+ * JsonKeyPool is thread-safe and can be shared by many parsers.
+ * Slots are accessed without synchronization - String is immutable, so racing threads can only miss or replace a name.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonKeyPool {
+
+    public static final int DEFAULT_SIZE = 4096;
+
+    private final String[] keys;
+    private final int mask;
+
+    public JsonKeyPool() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size - count of slots, rounded up to power of two
+     */
+    public JsonKeyPool(int size) {
+        if (size < 1 || size > (1 << 30)) {
+            throw new IllegalArgumentException("Size must be between 1 and 2^30, but is " + size);
+        }
+        int slots = Integer.highestOneBit(size);
+        if (slots < size) {
+            slots <<= 1;
+        }
+        this.keys = new String[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * @param chars  - attribute chars
+     * @param start  - index of first char
+     * @param length - count of chars
+     * @param hash   - {@link String#hashCode()} of attribute
+     * @return pooled attribute or null
+     */
+    String find(char[] chars, int start, int length, int hash) {
+        String key = keys[slot(hash)];
+        if (key != null && key.length() == length && key.hashCode() == hash) {
+            for (int i = 0; i < length; i++) {
+                if (key.charAt(i) != chars[start + i]) return null;
+            }
+            return key;
+        }
+        return null;
+    }
+
+    /**
+     * Same as {@link #find(char[], int, int, int)} for attribute in ASCII bytes
+     */
+    String find(byte[] bytes, int start, int length, int hash) {
+        String key = keys[slot(hash)];
+        if (key != null && key.length() == length && key.hashCode() == hash) {
+            for (int i = 0; i < length; i++) {
+                if (key.charAt(i) != bytes[start + i]) return null;
+            }
+            return key;
+        }
+        return null;
+    }
+
+    /**
+     * @param key - attribute
+     * @return pooled attribute equal to key or null
+     */
+    String find(String key) {
+        String pooled = keys[slot(key.hashCode())];
+        return key.equals(pooled) ? pooled : null;
+    }
+
+    void put(String key) {
+        keys[slot(key.hashCode())] = key;
+    }
+
+    /**
+     * @return pooled attribute, new attribute is created and pooled if not found
+     */
+    String get(char[] chars, int start, int length, int hash) {
+        String key = find(chars, start, length, hash);
+        if (key == null) {
+            key = new String(chars, start, length);
+            put(key);
+        }
+        return key;
+    }
+
+    /**
+     * Same as {@link #get(char[], int, int, int)} for attribute in ASCII bytes
+     */
+    String get(byte[] bytes, int start, int length, int hash) {
+        String key = find(bytes, start, length, hash);
+        if (key == null) {
+            key = new String(bytes, start, length, StandardCharsets.ISO_8859_1);
+            put(key);
+        }
+        return key;
+    }
+
+    /**
+     * @return pooled attribute, key is pooled if not found
+     */
+    String get(String key) {
+        String pooled = find(key);
+        if (pooled == null) {
+            put(key);
+            return key;
+        }
+        return pooled;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+    }
+
+    private int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
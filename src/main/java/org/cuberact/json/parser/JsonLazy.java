@@ -0,0 +1,168 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.input.JsonInputCharArray;
+
+import java.util.Arrays;
+
+/**
+ * Lazy parsed document - source and index of all objects and arrays (in order of their start).
+ * Index is created in one structural pass, then every {@link JsonObjectLazy} and {@link JsonArrayLazy} parses
+ * only own level and nested objects and arrays are skipped by index.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonLazy {
+
+    private final char[] source;
+    private final JsonParserOptions options;
+    private final JsonKeyPool keyCache; //shared by all containers of document
+    private final int[] ends; //index after } or ]
+    private final int[] nexts; //order of next container after all nested containers
+
+    private JsonLazy(char[] source, JsonParserOptions options, Index index) {
+        this.source = source;
+        this.options = options;
+        this.keyCache = options.isKeyCache() ? new JsonKeyPool(JsonParserOptions.KEY_CACHE_SIZE) : null;
+        this.ends = index.ends;
+        this.nexts = index.nexts;
+    }
+
+    /**
+     * @return lazy root - {@link JsonObjectLazy} or {@link JsonArrayLazy}
+     */
+    static Json parse(char[] source, JsonParserOptions options) {
+        final JsonScanner scanner = JsonScanner.acquire(new JsonInputCharArray(source), options);
+        try {
+            final char first = scanner.nextImportantChar();
+            if (first != '{' && first != '[') {
+                throw scanner.jsonException("Expected { or [");
+            }
+            final int start = scanner.cursor();
+            final Index index = new Index();
+            index.open();
+            scanner.skipContainer(index);
+            return new JsonLazy(source, options, index).container(first, 0, start);
+        } finally {
+            scanner.release();
+        }
+    }
+
+    /**
+     * Scanner of current thread for one level of container, it must be returned by {@link JsonScanner#release()}
+     *
+     * @param order - order of container
+     * @param start - index after { or [
+     */
+    JsonScanner scanner(int order, int start) {
+        JsonInputCharArray input = new JsonInputCharArray(source, 0, ends[order]);
+        input.cursor(start);
+        return JsonScanner.acquire(input, options, keyCache);
+    }
+
+    /**
+     * @param first - { or [ (already read)
+     * @param order - order of container
+     * @return lazy container, scanner is moved after it
+     */
+    Json container(JsonScanner scanner, char first, int order) {
+        final Json container = container(first, order, scanner.cursor());
+        scanner.cursor(ends[order]);
+        scanner.nextImportantChar();
+        return container;
+    }
+
+    /**
+     * @param order - order of container
+     * @return order of next container after all containers nested in container
+     */
+    int next(int order) {
+        return nexts[order];
+    }
+
+    /**
+     * @param first - first char of value (already read), not { or [
+     * @return value, after value the next important char is in scanner.lastReadChar
+     */
+    static Object value(JsonScanner scanner, char first, String expected) {
+        switch (first) {
+            case '"':
+                return scanner.consumeString();
+            case 't':
+                scanner.consumeTrue();
+                return Boolean.TRUE;
+            case 'f':
+                scanner.consumeFalse();
+                return Boolean.FALSE;
+            case 'n':
+                scanner.consumeNull();
+                return null;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return scanner.consumeNumber();
+            default:
+                throw scanner.jsonException(expected);
+        }
+    }
+
+    private Json container(char first, int order, int start) {
+        return first == '{' ? new JsonObjectLazy(this, order, start) : new JsonArrayLazy(this, order, start);
+    }
+
+    /**
+     * Index of objects and arrays created by {@link JsonScanner#skipContainer(Index)}
+     */
+    static final class Index {
+
+        private int[] ends = new int[64];
+        private int[] nexts = new int[64];
+        private int[] stack = new int[32];
+        private int count;
+        private int depth;
+
+        void open() {
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, count * 2);
+                nexts = Arrays.copyOf(nexts, count * 2);
+            }
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = count++;
+        }
+
+        /**
+         * @param end - index after } or ]
+         */
+        void close(int end) {
+            final int order = stack[--depth];
+            ends[order] = end;
+            nexts[order] = count;
+        }
+    }
+}
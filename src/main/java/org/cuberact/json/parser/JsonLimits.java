@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+/**
+ * Immutable limits of parsed input - {@link JsonParserOptions#withLimits(JsonLimits)}. Every {@code with...} method returns new instance.
+ * <p>
+ * Input over any limit fails fast with {@link org.cuberact.json.JsonException}, so untrusted input cannot exhaust
+ * thread stack or heap. Lengths are counted in chars (in bytes for byte[] input parsed by structural index).
+ * Allocation budget is approximate - strings, numbers, objects, arrays and their values are counted by estimated size.
+ * <p>
+ * All limits are checked by parse methods of {@link JsonParser} and by {@link JsonFeedParser}.
+ * {@link JsonReader}, lazy and projected parsing check lengths of input, strings and numbers only.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonLimits {
+
+    public static final JsonLimits NONE = new JsonLimits();
+
+    static final int CONTAINER_BYTES = 64;
+    static final int VALUE_BYTES = 24;
+
+    private int maxDepth = Integer.MAX_VALUE;
+    private long maxInputLength = Long.MAX_VALUE;
+    private int maxStringLength = Integer.MAX_VALUE;
+    private int maxNumberLength = Integer.MAX_VALUE;
+    private int maxContainerSize = Integer.MAX_VALUE;
+    private long maxAllocation = Long.MAX_VALUE;
+
+    private JsonLimits() {
+    }
+
+    private JsonLimits copy() {
+        JsonLimits copy = new JsonLimits();
+        copy.maxDepth = maxDepth;
+        copy.maxInputLength = maxInputLength;
+        copy.maxStringLength = maxStringLength;
+        copy.maxNumberLength = maxNumberLength;
+        copy.maxContainerSize = maxContainerSize;
+        copy.maxAllocation = maxAllocation;
+        return copy;
+    }
+
+    /**
+     * @param maxDepth - max nesting of objects and arrays, root is on depth 1
+     * @return new limits
+     */
+    public JsonLimits withMaxDepth(int maxDepth) {
+        JsonLimits copy = copy();
+        copy.maxDepth = (int) positive("Max depth", maxDepth);
+        return copy;
+    }
+
+    /**
+     * @param maxInputLength - max count of chars of whole input
+     * @return new limits
+     */
+    public JsonLimits withMaxInputLength(long maxInputLength) {
+        JsonLimits copy = copy();
+        copy.maxInputLength = positive("Max input length", maxInputLength);
+        return copy;
+    }
+
+    /**
+     * @param maxStringLength - max count of chars of one string or attribute name (after unescaping)
+     * @return new limits
+     */
+    public JsonLimits withMaxStringLength(int maxStringLength) {
+        JsonLimits copy = copy();
+        copy.maxStringLength = (int) positive("Max string length", maxStringLength);
+        return copy;
+    }
+
+    /**
+     * @param maxNumberLength - max count of chars of one number
+     * @return new limits
+     */
+    public JsonLimits withMaxNumberLength(int maxNumberLength) {
+        JsonLimits copy = copy();
+        copy.maxNumberLength = (int) positive("Max number length", maxNumberLength);
+        return copy;
+    }
+
+    /**
+     * @param maxContainerSize - max count of values in one object or array
+     * @return new limits
+     */
+    public JsonLimits withMaxContainerSize(int maxContainerSize) {
+        JsonLimits copy = copy();
+        copy.maxContainerSize = (int) positive("Max container size", maxContainerSize);
+        return copy;
+    }
+
+    /**
+     * @param maxAllocation - approximate max count of bytes allocated for parsed values of one document
+     * @return new limits
+     */
+    public JsonLimits withMaxAllocation(long maxAllocation) {
+        JsonLimits copy = copy();
+        copy.maxAllocation = positive("Max allocation", maxAllocation);
+        return copy;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getMaxInputLength() {
+        return maxInputLength;
+    }
+
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    public int getMaxNumberLength() {
+        return maxNumberLength;
+    }
+
+    public int getMaxContainerSize() {
+        return maxContainerSize;
+    }
+
+    public long getMaxAllocation() {
+        return maxAllocation;
+    }
+
+    /**
+     * @return estimated size of String or number with length chars
+     */
+    static long valueBytes(int length) {
+        return 40 + 2L * length;
+    }
+
+    String depthError() {
+        return "Depth is greater than " + maxDepth;
+    }
+
+    String inputError() {
+        return "Input is longer than " + maxInputLength + " chars";
+    }
+
+    String stringError() {
+        return "String is longer than " + maxStringLength + " chars";
+    }
+
+    String numberError() {
+        return "Number is longer than " + maxNumberLength + " chars";
+    }
+
+    String containerError() {
+        return "Object or array has more than " + maxContainerSize + " values";
+    }
+
+    String allocationError() {
+        return "Allocation budget " + maxAllocation + " bytes exceeded";
+    }
+
+    private static long positive(String name, long value) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " must be positive, but is " + value);
+        }
+        return value;
+    }
+}
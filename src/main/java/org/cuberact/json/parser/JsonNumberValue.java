@@ -0,0 +1,255 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+import org.cuberact.json.optimize.NumberConverter;
+
+/**
+ * Value of scanned number chars as long or double, without {@link JsonNumber} - for {@link JsonBuilderPrimitive}.
+ * <p>
+ * Digits are accumulated 8 at once (SWAR - 8 digits packed in one long are combined by 3 multiplications).
+ * Double is computed exactly if mantissa is max 2^53 and power of ten is max 22 (fast path - one multiplication
+ * or division of two exact doubles), other doubles are converted by {@link NumberConverter}.
+ * Integers out of long range and doubles out of double range are passed as {@link JsonNumber}. Numbers are passed
+ * as {@link JsonNumber} of source chars also if builder does not override long or double callback - default methods
+ * of {@link JsonBuilderPrimitive} would create JsonNumber from computed value, so precision of source would be lost.
+ * Value is computed only if it is passed by overridden callback.
+ * <p>
+ * Mutable holder reused by one parse.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonNumberValue {
+
+    static final int LONG = 0;
+    static final int DOUBLE = 1;
+    static final int JSON_NUMBER = 2;
+
+    private static final int LONG_TO_OBJECT = 1;
+    private static final int LONG_TO_ARRAY = 2;
+    private static final int DOUBLE_TO_OBJECT = 4;
+    private static final int DOUBLE_TO_ARRAY = 8;
+
+    /**
+     * Primitive number callbacks overridden by builder class
+     */
+    private static final ClassValue<Integer> OVERRIDDEN = new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(Class<?> type) {
+            return (overridden(type, "addLongToObject", String.class, long.class) ? LONG_TO_OBJECT : 0)
+                    | (overridden(type, "addLongToArray", long.class) ? LONG_TO_ARRAY : 0)
+                    | (overridden(type, "addDoubleToObject", String.class, double.class) ? DOUBLE_TO_OBJECT : 0)
+                    | (overridden(type, "addDoubleToArray", double.class) ? DOUBLE_TO_ARRAY : 0);
+        }
+    };
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    int type;
+    long longValue;
+    double doubleValue;
+    private char[] chars;
+    private int count;
+    private boolean floatingNumber;
+    private Class<?> builderClass;
+    private int overridden;
+
+    /**
+     * @param chars          - number chars in format of {@link JsonNumber} (digits, optional dot, digits, optional e, sign and digits)
+     * @param count          - count of number chars
+     * @param floatingNumber - number contains dot
+     * @return this - number for {@link #addToObject(JsonBuilderPrimitive, Object, String)} or {@link #addToArray(JsonBuilderPrimitive, Object)},
+     * chars of number must not be changed before
+     */
+    JsonNumberValue of(char[] chars, int count, boolean floatingNumber) {
+        this.chars = chars;
+        this.count = count;
+        this.floatingNumber = floatingNumber;
+        return this;
+    }
+
+    /**
+     * Same as {@link #of(char[], int, boolean)}, value is computed
+     *
+     * @return type of value - {@link #LONG}, {@link #DOUBLE} or {@link #JSON_NUMBER}
+     */
+    int parse(char[] chars, int count, boolean floatingNumber) {
+        return of(chars, count, floatingNumber).parse();
+    }
+
+    private int parse() {
+        final char[] chars = this.chars;
+        final int count = this.count;
+        final boolean floatingNumber = this.floatingNumber;
+        final boolean negative = chars[0] == '-';
+        final int intStart = negative ? 1 : 0;
+        final int intEnd = digitsEnd(chars, intStart, count);
+        int fractionStart = intEnd;
+        int fractionEnd = intEnd;
+        if (floatingNumber) {
+            fractionStart = intEnd + 1;
+            fractionEnd = digitsEnd(chars, fractionStart, count);
+        }
+        final int firstDigit = leadingZerosEnd(chars, intStart, intEnd);
+        final int significant = firstDigit < intEnd
+                ? intEnd - firstDigit + fractionEnd - fractionStart
+                : fractionEnd - leadingZerosEnd(chars, fractionStart, fractionEnd);
+        if (significant > 19) {
+            return floatingNumber ? parseDouble() : (type = JSON_NUMBER);
+        }
+        final long mantissa = accumulate(chars, fractionStart, fractionEnd, accumulate(chars, intStart, intEnd, 0));
+        if (!floatingNumber) {
+            if (significant == 19 && (negative ? Long.compareUnsigned(mantissa, Long.MIN_VALUE) > 0 : mantissa < 0)) {
+                return type = JSON_NUMBER;
+            }
+            longValue = negative ? -mantissa : mantissa;
+            return type = LONG;
+        }
+        int exponent = 0;
+        if (fractionEnd < count) { //e
+            int i = fractionEnd + 1;
+            final boolean negativeExponent = i < count && chars[i] == '-';
+            if (i < count && (chars[i] == '-' || chars[i] == '+')) i++;
+            if (i == count) {
+                return type = JSON_NUMBER; //incomplete exponent, JsonNumber as before
+            }
+            for (; i < count; i++) {
+                exponent = Math.min(exponent * 10 + chars[i] - '0', 100_000);
+            }
+            if (negativeExponent) exponent = -exponent;
+        }
+        exponent -= fractionEnd - fractionStart;
+        if (mantissa == 0) {
+            doubleValue = negative ? -0.0 : 0.0;
+            return type = DOUBLE;
+        }
+        if (mantissa < 0 || mantissa > (1L << 53) || exponent < -22 || exponent > 22) {
+            return parseDouble();
+        }
+        final double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        doubleValue = negative ? -value : value;
+        return type = DOUBLE;
+    }
+
+    /**
+     * Number as {@link JsonNumber} - for {@link #JSON_NUMBER}, chars of number must not be changed after {@link #parse(char[], int, boolean)}
+     */
+    JsonNumber jsonNumber() {
+        return new JsonNumber(chars, count, floatingNumber);
+    }
+
+    @SuppressWarnings("unchecked")
+    void addToObject(JsonBuilderPrimitive builder, Object object, String attr) {
+        final int callbacks = overridden(builder) & (LONG_TO_OBJECT | DOUBLE_TO_OBJECT);
+        final int type = callbacks != 0 ? parse() : JSON_NUMBER;
+        if (type == LONG && (callbacks & LONG_TO_OBJECT) != 0) {
+            builder.addLongToObject(object, attr, longValue);
+        } else if (type == DOUBLE && (callbacks & DOUBLE_TO_OBJECT) != 0) {
+            builder.addDoubleToObject(object, attr, doubleValue);
+        } else {
+            builder.addNumberToObject(object, attr, jsonNumber());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    void addToArray(JsonBuilderPrimitive builder, Object array) {
+        final int callbacks = overridden(builder) & (LONG_TO_ARRAY | DOUBLE_TO_ARRAY);
+        final int type = callbacks != 0 ? parse() : JSON_NUMBER;
+        if (type == LONG && (callbacks & LONG_TO_ARRAY) != 0) {
+            builder.addLongToArray(array, longValue);
+        } else if (type == DOUBLE && (callbacks & DOUBLE_TO_ARRAY) != 0) {
+            builder.addDoubleToArray(array, doubleValue);
+        } else {
+            builder.addNumberToArray(array, jsonNumber());
+        }
+    }
+
+    private int overridden(JsonBuilderPrimitive builder) {
+        final Class<?> type = (builder instanceof Delegating ? ((Delegating) builder).delegate() : builder).getClass();
+        if (type != builderClass) {
+            builderClass = type;
+            overridden = OVERRIDDEN.get(type);
+        }
+        return overridden;
+    }
+
+    /**
+     * Builder which passes values to other builder (e.g. recorder of parallel parse) - callbacks of other builder
+     * decide how numbers are passed
+     */
+    interface Delegating {
+
+        JsonBuilder delegate();
+    }
+
+    private int parseDouble() {
+        doubleValue = NumberConverter.toDouble(chars, 0, count);
+        return type = Double.isInfinite(doubleValue) ? JSON_NUMBER : DOUBLE;
+    }
+
+    private static boolean overridden(Class<?> type, String callback, Class<?>... valueTypes) {
+        final Class<?>[] parameterTypes = new Class<?>[valueTypes.length + 1];
+        parameterTypes[0] = Object.class; //erasure of OBJECT or ARRAY
+        System.arraycopy(valueTypes, 0, parameterTypes, 1, valueTypes.length);
+        try {
+            return type.getMethod(callback, parameterTypes).getDeclaringClass() != JsonBuilderPrimitive.class;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return value of 8 digits from index
+     */
+    static long eightDigits(char[] chars, int i) {
+        long value = chars[i] | (long) chars[i + 1] << 8 | (long) chars[i + 2] << 16 | (long) chars[i + 3] << 24
+                | (long) chars[i + 4] << 32 | (long) chars[i + 5] << 40 | (long) chars[i + 6] << 48 | (long) chars[i + 7] << 56;
+        value -= 0x3030303030303030L; //first digit in lowest byte
+        value = value * 10 + (value >>> 8); //pairs of digits in bytes 0, 2, 4, 6
+        return ((value & 0x000000FF000000FFL) * (100 + (1000000L << 32)) + ((value >>> 16) & 0x000000FF000000FFL) * (1 + (10000L << 32))) >>> 32;
+    }
+
+    /**
+     * Unsigned accumulation, max 19 digits
+     */
+    private static long accumulate(char[] chars, int from, int to, long value) {
+        while (to - from >= 8) {
+            value = value * 100_000_000L + eightDigits(chars, from);
+            from += 8;
+        }
+        while (from < to) {
+            value = value * 10 + chars[from++] - '0';
+        }
+        return value;
+    }
+
+    private static int digitsEnd(char[] chars, int from, int to) {
+        while (from < to && chars[from] >= '0' && chars[from] <= '9') from++;
+        return from;
+    }
+
+    private static int leadingZerosEnd(char[] chars, int from, int to) {
+        while (from < to && chars[from] == '0') from++;
+        return from;
+    }
+}
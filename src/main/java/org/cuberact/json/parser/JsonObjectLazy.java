@@ -0,0 +1,113 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonObject;
+
+import java.io.Serial;
+import java.util.Map;
+
+/**
+ * JsonObject parsed on first access - see {@link JsonParser#parseLazy(char[])}
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonObjectLazy extends JsonObject {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private transient JsonLazy lazy;
+    private transient int order;
+    private transient int start;
+    private volatile boolean parsed;
+
+    /**
+     * @param lazy  - lazy document
+     * @param order - order of this container in document
+     * @param start - index after {
+     */
+    JsonObjectLazy(JsonLazy lazy, int order, int start) {
+        this.lazy = lazy;
+        this.order = order;
+        this.start = start;
+    }
+
+    @Override
+    protected Map<String, Object> data() {
+        if (!parsed) {
+            parse();
+        }
+        return super.data();
+    }
+
+    private synchronized void parse() {
+        if (parsed) {
+            return;
+        }
+        final JsonScanner scanner = lazy.scanner(order, start);
+        try {
+            parse(super.data(), scanner);
+        } catch (RuntimeException e) {
+            super.data().clear();
+            throw e;
+        } finally {
+            scanner.release();
+        }
+        lazy = null;
+        parsed = true;
+    }
+
+    private void parse(Map<String, Object> data, JsonScanner scanner) {
+        int nested = order + 1;
+        for (; ; ) {
+            switch (scanner.nextImportantChar()) {
+                case '"':
+                    final String attr = scanner.consumeAttr();
+                    if (scanner.lastReadChar != ':') {
+                        throw scanner.jsonException("Expected :");
+                    }
+                    final char c = scanner.nextImportantChar();
+                    if (c == '{' || c == '[') {
+                        data.put(attr, lazy.container(scanner, c, nested));
+                        nested = lazy.next(nested);
+                    } else {
+                        data.put(attr, JsonLazy.value(scanner, c, "Expected \" or number or boolean or null"));
+                    }
+                    break;
+                case '}':
+                    return;
+                default:
+                    throw scanner.jsonException("Expected \"");
+            }
+            switch (scanner.lastReadChar) {
+                case ',':
+                    continue;
+                case '}':
+                    return;
+                default:
+                    throw scanner.jsonException("Expected } or ,");
+            }
+        }
+    }
+
+    @Serial
+    private Object writeReplace() {
+        data();
+        return this;
+    }
+}
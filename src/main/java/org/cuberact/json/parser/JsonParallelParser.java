@@ -0,0 +1,320 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.input.JsonInput;
+import org.cuberact.json.input.JsonInputCharArray;
+import org.cuberact.json.input.JsonInputUtf8;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Parallel parser of newline delimited json (NDJSON, json lines) - every document must be on one line.
+ * <p>
+ * Input is split to line-aligned chunks, chunks are parsed by {@link Executor} (default {@link ForkJoinPool#commonPool()}),
+ * every worker thread has own {@link JsonParser} with own {@link JsonBuilder} from builder supplier.
+ * Parsed documents are passed to consumer in calling thread, in original order or in order of completed chunks.
+ * Count of chunks in progress is limited, so memory doesn't grow with input size.
+ * <p>
+ * JsonParallelParser is thread-safe, if builder supplier is thread-safe.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonParallelParser {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int REGION_SIZE = 1 << 28;
+
+    private final ThreadLocal<JsonParser> parsers;
+    private final Executor executor;
+    private final int chunkSize;
+    private final int maxChunksInProgress;
+
+    public JsonParallelParser() {
+        this(() -> JsonBuilderDom.REF);
+    }
+
+    /**
+     * @param builderSupplier - called once for every worker thread
+     */
+    public JsonParallelParser(Supplier<JsonBuilder> builderSupplier) {
+        this(builderSupplier, JsonParserOptions.DEFAULT, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param builderSupplier - called once for every worker thread
+     * @param options         - options of parsers
+     * @param executor        - executor of chunks
+     * @param chunkSize       - approximate count of chars (or bytes) in one chunk, chunk always ends with end of line
+     */
+    public JsonParallelParser(Supplier<JsonBuilder> builderSupplier, JsonParserOptions options, Executor executor, int chunkSize) {
+        Objects.requireNonNull(builderSupplier, "builderSupplier");
+        Objects.requireNonNull(options, "options");
+        this.executor = Objects.requireNonNull(executor, "executor");
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive, but is " + chunkSize);
+        }
+        this.parsers = ThreadLocal.withInitial(() -> new JsonParser(builderSupplier.get(), options));
+        this.chunkSize = chunkSize;
+        this.maxChunksInProgress = Runtime.getRuntime().availableProcessors() * 4;
+    }
+
+    /**
+     * @param input    - newline delimited json
+     * @param ordered  - true - documents are passed to consumer in original order, false - in order of completed chunks
+     * @param consumer - called in calling thread with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> void parse(char[] input, boolean ordered, Consumer<E> consumer) {
+        Objects.requireNonNull(input, "input");
+        Chunks<E> chunks = new Chunks<>(ordered, consumer);
+        try {
+            int start = 0;
+            while (start < input.length) {
+                int end = (int) Math.min((long) start + chunkSize, input.length);
+                while (end < input.length && input[end - 1] != '\n') {
+                    end++;
+                }
+                chunks.submit(new JsonInputCharArray(input, start, end - start), start);
+                start = end;
+            }
+            chunks.finish();
+        } finally {
+            chunks.cancel();
+        }
+    }
+
+    /**
+     * @param input    - newline delimited json, UTF-8 encoded
+     * @param ordered  - true - documents are passed to consumer in original order, false - in order of completed chunks
+     * @param consumer - called in calling thread with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> void parse(byte[] input, boolean ordered, Consumer<E> consumer) {
+        Objects.requireNonNull(input, "input");
+        Chunks<E> chunks = new Chunks<>(ordered, consumer);
+        try {
+            int start = 0;
+            while (start < input.length) {
+                int end = (int) Math.min((long) start + chunkSize, input.length);
+                while (end < input.length && input[end - 1] != '\n') {
+                    end++;
+                }
+                chunks.submit(new JsonInputUtf8(input, start, end - start), start);
+                start = end;
+            }
+            chunks.finish();
+        } finally {
+            chunks.cancel();
+        }
+    }
+
+    /**
+     * @param input    - newline delimited json - JsonParallelParser doesn't close input reader
+     * @param ordered  - true - documents are passed to consumer in original order, false - in order of completed chunks
+     * @param consumer - called in calling thread with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> void parse(Reader input, boolean ordered, Consumer<E> consumer) {
+        Objects.requireNonNull(input, "input");
+        Chunks<E> chunks = new Chunks<>(ordered, consumer);
+        try {
+            char[] buffer = new char[chunkSize];
+            int length = 0;
+            long offset = 0;
+            boolean endOfInput = false;
+            while (!endOfInput) {
+                while (length < buffer.length) {
+                    int count = input.read(buffer, length, buffer.length - length);
+                    if (count < 0) {
+                        endOfInput = true;
+                        break;
+                    }
+                    length += count;
+                }
+                int end = length;
+                if (!endOfInput) {
+                    while (end > 0 && buffer[end - 1] != '\n') {
+                        end--;
+                    }
+                }
+                if (end == 0 && length > 0 && !endOfInput) { //line is longer than buffer
+                    char[] bigger = new char[buffer.length * 2];
+                    System.arraycopy(buffer, 0, bigger, 0, length);
+                    buffer = bigger;
+                    continue;
+                }
+                if (end > 0) {
+                    chunks.submit(new JsonInputCharArray(buffer, 0, end), offset);
+                }
+                char[] next = new char[Math.max(chunkSize, (length - end) * 2)];
+                System.arraycopy(buffer, end, next, 0, length - end);
+                offset += end;
+                length -= end;
+                buffer = next;
+            }
+            chunks.finish();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            chunks.cancel();
+        }
+    }
+
+    /**
+     * @param input    - newline delimited json, UTF-8 file - file is mapped to memory by regions
+     * @param ordered  - true - documents are passed to consumer in original order, false - in order of completed chunks
+     * @param consumer - called in calling thread with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> void parse(Path input, boolean ordered, Consumer<E> consumer) {
+        Objects.requireNonNull(input, "input");
+        Chunks<E> chunks = new Chunks<>(ordered, consumer);
+        try (FileChannel channel = FileChannel.open(input, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                final int regionSize = (int) Math.min(REGION_SIZE, size - position);
+                final boolean lastRegion = position + regionSize == size;
+                final MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+                int start = 0;
+                while (start < regionSize) {
+                    int end = (int) Math.min((long) start + chunkSize, regionSize);
+                    while (end < regionSize && region.get(end - 1) != '\n') {
+                        end++;
+                    }
+                    if (end == regionSize && !lastRegion) {
+                        while (end > start && region.get(end - 1) != '\n') {
+                            end--;
+                        }
+                        if (end == start) {
+                            if (start == 0) {
+                                throw new JsonException("Line on offset " + position + " is longer than " + REGION_SIZE + " bytes");
+                            }
+                            break; //rest of region will be in next region
+                        }
+                    }
+                    ByteBuffer chunk = region.duplicate();
+                    chunk.position(start).limit(end);
+                    chunks.submit(new JsonInputUtf8(chunk.slice()), position + start);
+                    start = end;
+                }
+                position += start;
+            }
+            chunks.finish();
+        } catch (IOException e) {
+            throw new JsonException(e);
+        } finally {
+            chunks.cancel();
+        }
+    }
+
+    private List<Object> parseChunk(JsonInput input, long offset) {
+        List<Object> result = new ArrayList<>();
+        try {
+            parsers.get().parseStream(input, result::add);
+        } catch (JsonException e) {
+            throw new JsonException("Chunk on offset " + offset + " - " + e.getMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Chunks in progress, used only by calling thread
+     */
+    private final class Chunks<E> {
+
+        private final boolean ordered;
+        private final Consumer<E> consumer;
+        private final ArrayDeque<FutureTask<List<Object>>> inProgress = new ArrayDeque<>();
+        private final LinkedBlockingQueue<FutureTask<List<Object>>> completed = new LinkedBlockingQueue<>();
+
+        private Chunks(boolean ordered, Consumer<E> consumer) {
+            this.ordered = ordered;
+            this.consumer = Objects.requireNonNull(consumer, "consumer");
+        }
+
+        private void submit(JsonInput input, long offset) {
+            if (inProgress.size() == maxChunksInProgress) {
+                deliverNext();
+            }
+            FutureTask<List<Object>> task = new FutureTask<List<Object>>(() -> parseChunk(input, offset)) {
+                @Override
+                protected void done() {
+                    if (!ordered) {
+                        completed.add(this);
+                    }
+                }
+            };
+            inProgress.add(task);
+            executor.execute(task);
+        }
+
+        private void finish() {
+            while (!inProgress.isEmpty()) {
+                deliverNext();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void deliverNext() {
+            List<Object> documents;
+            try {
+                FutureTask<List<Object>> task = ordered ? inProgress.peek() : completed.take();
+                documents = task.get();
+                inProgress.remove(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JsonException(e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new JsonException(e.getCause());
+            }
+            for (Object document : documents) {
+                consumer.accept((E) document);
+            }
+        }
+
+        private void cancel() {
+            for (FutureTask<List<Object>> task : inProgress) {
+                task.cancel(false);
+            }
+        }
+    }
+}
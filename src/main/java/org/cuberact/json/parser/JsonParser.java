@@ -16,33 +16,66 @@
 
 package org.cuberact.json.parser;
 
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.JsonObject;
 import org.cuberact.json.builder.JsonBuilder;
 import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
 import org.cuberact.json.input.JsonInput;
 import org.cuberact.json.input.JsonInputCharArray;
 import org.cuberact.json.input.JsonInputCharSequence;
+import org.cuberact.json.input.JsonInputMappedFile;
 import org.cuberact.json.input.JsonInputReader;
+import org.cuberact.json.input.JsonInputUtf8;
 
 import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Parse {@link JsonInput} and build result with {@link JsonBuilder}
  * <p>
  * JsonParser is thread-safe with default {@link JsonBuilderDom}
+ * <p>
+ * Scanner buffers are allocated once per thread and reused by following parses on the same thread.
  *
  * @author Michal Nikodim (michal.nikodim@gmail.com)
  */
 public final class JsonParser {
 
     private final JsonBuilder builder;
+    private final JsonBuilderPrimitive primitive;
+    private final JsonParserOptions options;
 
     public JsonParser() {
         this(JsonBuilderDom.REF);
     }
 
     public JsonParser(JsonBuilder builder) {
+        this(builder, JsonParserOptions.DEFAULT);
+    }
+
+    public JsonParser(JsonBuilder builder, JsonParserOptions options) {
         this.builder = Objects.requireNonNull(builder, "builder");
+        this.primitive = JsonPrimitiveAdapter.of(builder);
+        this.options = Objects.requireNonNull(options, "options");
     }
 
     /**
@@ -60,6 +93,9 @@ public final class JsonParser {
      * @return JsonBuilder result - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
      */
     public <E> E parse(char[] input) {
+        if (options.isStructuralIndex() || options.getParallelPool() != null) {
+            return JsonStructuralChars.parse(Objects.requireNonNull(input, "input"), builder, options);
+        }
         return parse(new JsonInputCharArray(input));
     }
 
@@ -72,24 +108,414 @@ public final class JsonParser {
         return parse(new JsonInputReader(input));
     }
 
+    /**
+     * @param input - UTF-8 encoded bytes
+     * @param <E>   - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return JsonBuilder result - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> E parse(byte[] input) {
+        if (options.isStructuralIndex() || options.getParallelPool() != null) {
+            return JsonStructuralBytes.parse(Objects.requireNonNull(input, "input"), builder, options);
+        }
+        return parse(new JsonInputUtf8(input));
+    }
+
+    /**
+     * @param input - UTF-8 encoded bytes between position and limit - JsonParser doesn't change position of buffer
+     * @param <E>   - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return JsonBuilder result - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> E parse(ByteBuffer input) {
+        return parse(new JsonInputUtf8(input));
+    }
+
+    /**
+     * @param input - UTF-8 file - file is mapped to memory by {@link JsonInputMappedFile}
+     * @param <E>   - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return JsonBuilder result - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> E parse(Path input) {
+        try (JsonInputMappedFile mappedFile = new JsonInputMappedFile(input)) {
+            return parse(mappedFile);
+        }
+    }
+
     /**
      * @param input - {@link JsonInput}
      * @param <E>   - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
      * @return JsonBuilder result - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
      */
-    @SuppressWarnings("unchecked")
     public <E> E parse(JsonInput input) {
-        JsonScanner scanner = new JsonScanner(input);
+        JsonScanner scanner = JsonScanner.acquire(input, options);
+        try {
+            return parseRoot(scanner, scanner.nextImportantChar());
+        } finally {
+            scanner.release();
+        }
+    }
+
+    /**
+     * Same as {@link #parse(JsonInput, JsonProjection)}
+     */
+    public <E> E parse(CharSequence input, JsonProjection projection) {
+        return parse(new JsonInputCharSequence(input), projection);
+    }
+
+    /**
+     * Same as {@link #parse(JsonInput, JsonProjection)}
+     */
+    public <E> E parse(char[] input, JsonProjection projection) {
+        return parse(new JsonInputCharArray(input), projection);
+    }
+
+    /**
+     * Same as {@link #parse(JsonInput, JsonProjection)}
+     */
+    public <E> E parse(byte[] input, JsonProjection projection) {
+        return parse(new JsonInputUtf8(input), projection);
+    }
+
+    /**
+     * Projection - only values on paths of projection and containers on the way to them are built, other values
+     * are skipped without allocation (skipped values are checked only for closed strings and balanced brackets).
+     * Parsing ends as soon as all paths are found, rest of input is not read.
+     * Arrays contain only elements on paths, so indexes in result can differ from indexes in paths.
+     *
+     * @param input      - {@link JsonInput}
+     * @param projection - JSON Pointers of requested values
+     * @param <E>        - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return JsonBuilder result - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    @SuppressWarnings("unchecked")
+    public <E> E parse(JsonInput input, JsonProjection projection) {
+        Objects.requireNonNull(projection, "projection");
+        JsonScanner scanner = JsonScanner.acquire(input, options);
+        try {
+            final char first = scanner.nextImportantChar();
+            if (projection.root.selected) {
+                return parseRoot(scanner, first);
+            }
+            builder.buildStart();
+            Object root;
+            final Projecting state = new Projecting(projection);
+            switch (first) {
+                case '{':
+                    root = builder.createObject();
+                    projectObject(scanner, root, projection.root, state);
+                    break;
+                case '[':
+                    root = builder.createArray();
+                    projectArray(scanner, root, projection.root, state);
+                    break;
+                default:
+                    throw scanner.jsonException("Expected { or [");
+            }
+            builder.buildEnd();
+            return (E) root;
+        } finally {
+            scanner.release();
+        }
+    }
+
+    /**
+     * Lazy parse - only structure of json is checked (closed strings and balanced brackets), objects and arrays
+     * are parsed level by level on first access of their content. Result is always {@link Json}, builder of this parser is not used.
+     * <p>
+     * Input array is referenced (and must not be changed) until all levels are parsed.
+     *
+     * @param input - char array
+     * @param <E>   - {@link JsonObject} or {@link JsonArray}
+     * @return lazy {@link JsonObject} or {@link JsonArray}
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Json> E parseLazy(char[] input) {
+        return (E) JsonLazy.parse(Objects.requireNonNull(input, "input"), options);
+    }
+
+    /**
+     * @param input - {@link CharSequence}
+     * @param <E>   - {@link JsonObject} or {@link JsonArray}
+     * @return lazy {@link JsonObject} or {@link JsonArray}
+     * @see #parseLazy(char[])
+     */
+    public <E extends Json> E parseLazy(CharSequence input) {
+        return parseLazy(input.toString().toCharArray());
+    }
+
+    /**
+     * Parse stream of json documents (newline delimited json, json lines or documents just concatenated
+     * or separated by any whitespace). One scanner and its buffers are used for all documents.
+     *
+     * @param input    - {@link CharSequence}
+     * @param consumer - called with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     */
+    public <E> void parseStream(CharSequence input, Consumer<E> consumer) {
+        parseStream(new JsonInputCharSequence(input), consumer);
+    }
+
+    /**
+     * @param input    - {@link Reader} - JsonParser doesn't close input reader
+     * @param consumer - called with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @see #parseStream(CharSequence, Consumer)
+     */
+    public <E> void parseStream(Reader input, Consumer<E> consumer) {
+        parseStream(new JsonInputReader(input), consumer);
+    }
+
+    /**
+     * @param input    - UTF-8 file - file is mapped to memory by {@link JsonInputMappedFile}
+     * @param consumer - called with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @see #parseStream(CharSequence, Consumer)
+     */
+    public <E> void parseStream(Path input, Consumer<E> consumer) {
+        try (JsonInputMappedFile mappedFile = new JsonInputMappedFile(input)) {
+            parseStream(mappedFile, consumer);
+        }
+    }
+
+    /**
+     * @param input    - {@link JsonInput}
+     * @param consumer - called with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @see #parseStream(CharSequence, Consumer)
+     */
+    public <E> void parseStream(JsonInput input, Consumer<E> consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        JsonScanner scanner = JsonScanner.acquire(input, options);
+        try {
+            for (char c = scanner.nextImportantChar(); c != JsonInput.END_OF_INPUT; c = scanner.nextImportantChar()) {
+                consumer.accept(parseRoot(scanner, c));
+            }
+        } finally {
+            scanner.release();
+        }
+    }
+
+    /**
+     * Lazy variant of {@link #parseStream(JsonInput, Consumer)} - next document is parsed by {@link Iterator#next()}
+     *
+     * @param input - {@link JsonInput}
+     * @param <E>   - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return iterator of parsed documents
+     */
+    public <E> Iterator<E> parseIterator(JsonInput input) {
+        final JsonScanner scanner = new JsonScanner(input, options);
+        return new Iterator<E>() {
+            private char next = scanner.nextImportantChar();
+
+            @Override
+            public boolean hasNext() {
+                return next != JsonInput.END_OF_INPUT;
+            }
+
+            @Override
+            public E next() {
+                if (next == JsonInput.END_OF_INPUT) {
+                    throw new NoSuchElementException();
+                }
+                E root = parseRoot(scanner, next);
+                next = scanner.nextImportantChar();
+                return root;
+            }
+        };
+    }
+
+    /**
+     * Non-blocking push parser - input chunks are fed by caller (for example from NIO channel), see {@link JsonFeedParser}
+     *
+     * @param consumer - called with every parsed document
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return new feed parser
+     */
+    @SuppressWarnings("unchecked")
+    public <E> JsonFeedParser feedParser(Consumer<E> consumer) {
+        return new JsonFeedParser(builder, options, (Consumer<Object>) consumer);
+    }
+
+    /**
+     * Publisher of elements of root array - elements are parsed one by one on demand of subscriber, so input is read
+     * only as far as subscriber requested. Objects and arrays are built by builder of this parser (every element
+     * as one build), other elements are String, Boolean or {@link JsonNumber}, null elements are skipped.
+     * Elements are parsed and delivered by thread which calls {@link Flow.Subscription#request(long)}.
+     * <p>
+     * Only one subscriber is supported. JsonParser doesn't close input.
+     *
+     * @param input - {@link JsonInput} with root array
+     * @param <E>   - type of elements
+     * @return publisher of elements
+     */
+    public <E> Flow.Publisher<E> publishArray(JsonInput input) {
+        return publishArray(input, null);
+    }
+
+    /**
+     * @param input    - {@link JsonInput} with root array
+     * @param executor - elements are parsed and delivered by this executor (so request doesn't block on input),
+     *                 null for thread which calls {@link Flow.Subscription#request(long)}
+     * @param <E>      - type of elements
+     * @return publisher of elements
+     * @see #publishArray(JsonInput)
+     */
+    @SuppressWarnings("unchecked")
+    public <E> Flow.Publisher<E> publishArray(JsonInput input, Executor executor) {
+        return (Flow.Publisher<E>) (Flow.Publisher<?>) new JsonArrayPublisher(this, input, options, executor);
+    }
+
+    /**
+     * Parse of many inputs (for example batch of messages) by default executor - virtual threads on Java 21+,
+     * otherwise {@link java.util.concurrent.ForkJoinPool#commonPool()}
+     *
+     * @param inputs - {@link CharSequence}, char[] or byte[] (UTF-8) inputs
+     * @param <E>    - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return results in order of inputs
+     * @see #parseAsync(List, Executor)
+     */
+    public <E> List<E> parseAll(List<?> inputs) {
+        return parseAll(inputs, JsonBatch.DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * @param inputs   - {@link CharSequence}, char[] or byte[] (UTF-8) inputs
+     * @param executor - executor of batches
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return results in order of inputs
+     * @see #parseAsync(List, Executor)
+     */
+    public <E> List<E> parseAll(List<?> inputs, Executor executor) {
+        try {
+            return this.<E>parseAsync(inputs, executor).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new JsonException(e.getCause());
+        }
+    }
+
+    /**
+     * @param inputs - {@link CharSequence}, char[] or byte[] (UTF-8) inputs
+     * @param <E>    - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return future of results in order of inputs
+     * @see #parseAll(List)
+     */
+    public <E> CompletableFuture<List<E>> parseAsync(List<?> inputs) {
+        return parseAsync(inputs, JsonBatch.DefaultExecutor.INSTANCE);
+    }
+
+    /**
+     * Inputs are parsed in few contiguous batches (about 4 per processor), not one task per input, so scanner buffers
+     * are reused for whole batch and executor isn't flooded with small tasks. Builder must be thread-safe.
+     * Future fails with {@link JsonException} of the first invalid input (message starts with index of input).
+     *
+     * @param inputs   - {@link CharSequence}, char[] or byte[] (UTF-8) inputs, list must not be changed until future is done
+     * @param executor - executor of batches
+     * @param <E>      - {@link JsonBuilder#createObject()} or {@link JsonBuilder#createArray()}
+     * @return future of results in order of inputs
+     */
+    @SuppressWarnings("unchecked")
+    public <E> CompletableFuture<List<E>> parseAsync(List<?> inputs, Executor executor) {
+        return (CompletableFuture<List<E>>) (CompletableFuture<?>) JsonBatch.parse(this, inputs, executor);
+    }
+
+    /**
+     * Lazy sequential stream of elements of root array - elements are parsed one by one during traversal.
+     * Objects and arrays are built by builder of this parser (every element as one build), other elements are String,
+     * Boolean, {@link JsonNumber} or null. JsonParser doesn't close input.
+     *
+     * @param input - {@link JsonInput} with root array
+     * @param <E>   - type of elements
+     * @return stream of elements
+     */
+    @SuppressWarnings("unchecked")
+    public <E> Stream<E> streamArray(JsonInput input) {
+        final JsonScanner scanner = new JsonScanner(Objects.requireNonNull(input, "input"), options);
+        final Iterator<Object> iterator = new Iterator<Object>() {
+            private JsonArrayCursor cursor;
+
+            @Override
+            public boolean hasNext() {
+                if (cursor == null) {
+                    cursor = new JsonArrayCursor(JsonParser.this, scanner);
+                }
+                return cursor.hasNext();
+            }
+
+            @Override
+            public Object next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return cursor.next();
+            }
+        };
+        return (Stream<E>) StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    /**
+     * Like {@link #streamArray(JsonInput)}, but stream can be parallel - input is scanned once for element boundaries
+     * before first split and then every part of array is parsed by its own thread. Builder must be thread-safe for parallel stream.
+     *
+     * @param input - json with root array
+     * @param <E>   - type of elements
+     * @return stream of elements
+     */
+    public <E> Stream<E> streamArray(char[] input) {
+        return streamArray(new JsonArraySpliterator.CharsSource(this, options, input));
+    }
+
+    /**
+     * @param input - UTF-8 bytes with root array
+     * @param <E>   - type of elements
+     * @return stream of elements
+     * @see #streamArray(char[])
+     */
+    public <E> Stream<E> streamArray(byte[] input) {
+        return streamArray(new JsonArraySpliterator.BytesSource(this, options, input));
+    }
+
+    /**
+     * File is mapped to memory by parts (files larger than 2GB are supported). Stream must be closed to close the file.
+     *
+     * @param input - UTF-8 file with root array
+     * @param <E>   - type of elements
+     * @return stream of elements
+     * @see #streamArray(char[])
+     */
+    public <E> Stream<E> streamArray(Path input) {
+        return streamArray(new JsonArraySpliterator.FileSource(this, options, input));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E> Stream<E> streamArray(JsonArraySpliterator.Source source) {
+        return (Stream<E>) StreamSupport.stream(new JsonArraySpliterator(source), false).onClose(source::close);
+    }
+
+    /**
+     * @param first - first important char of document, after parse the closing char of document is in scanner.lastReadChar
+     */
+    @SuppressWarnings("unchecked")
+    <E> E parseRoot(JsonScanner scanner, char first) {
         builder.buildStart();
         Object root;
-        switch (scanner.nextImportantChar()) {
+        switch (first) {
             case '{':
                 root = builder.createObject();
-                parseObject(scanner, root);
+                if (options.isIterative()) {
+                    parseIterative(scanner, root, true);
+                } else {
+                    parseObject(scanner, root);
+                }
                 break;
             case '[':
                 root = builder.createArray();
-                parseArray(scanner, root);
+                if (options.isIterative()) {
+                    parseIterative(scanner, root, false);
+                } else {
+                    parseArray(scanner, root);
+                }
                 break;
             default:
                 throw scanner.jsonException("Expected { or [");
@@ -98,18 +524,59 @@ public final class JsonParser {
         return (E) root;
     }
 
+    /**
+     * @param first - first char of element
+     * @return element of array, char after element is in lastReadChar of scanner
+     */
+    Object parseElement(JsonScanner scanner, char first) {
+        switch (first) {
+            case '{':
+            case '[':
+                final Object element = parseRoot(scanner, first);
+                scanner.nextImportantChar();
+                return element;
+            case '"':
+                return scanner.consumeString();
+            case 't':
+                scanner.consumeTrue();
+                return Boolean.TRUE;
+            case 'f':
+                scanner.consumeFalse();
+                return Boolean.FALSE;
+            case 'n':
+                scanner.consumeNull();
+                return null;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return scanner.consumeNumber();
+            default:
+                throw scanner.jsonException("Expected \" or ] or number or boolean or null");
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void parseObject(JsonScanner scanner, Object object) {
+        scanner.enter();
+        int size = 0;
         for (; ; ) {
             switch (scanner.nextImportantChar()) {
                 case '"':
-                    final String attr = scanner.consumeString();
+                    final String attr = scanner.consumeAttr();
                     if (scanner.lastReadChar != ':') {
                         throw scanner.jsonException("Expected :");
                     }
                     switch (scanner.nextImportantChar()) {
                         case '"':
-                            builder.addStringToObject(object, attr, scanner.consumeString());
+                            scanner.consumeStringToObject(primitive, object, attr);
                             break;
                         case '{':
                             builder.addObjectAttr(object, attr);
@@ -127,11 +594,11 @@ public final class JsonParser {
                             break;
                         case 't':
                             scanner.consumeTrue();
-                            builder.addBooleanToObject(object, attr, Boolean.TRUE);
+                            primitive.addBooleanToObject(object, attr, true);
                             break;
                         case 'f':
                             scanner.consumeFalse();
-                            builder.addBooleanToObject(object, attr, Boolean.FALSE);
+                            primitive.addBooleanToObject(object, attr, false);
                             break;
                         case 'n':
                             scanner.consumeNull();
@@ -148,7 +615,7 @@ public final class JsonParser {
                         case '7':
                         case '8':
                         case '9':
-                            builder.addNumberToObject(object, attr, scanner.consumeNumber());
+                            scanner.consumeNumberValue().addToObject(primitive, object, attr);
                             break;
                         default:
                             throw scanner.jsonException("Expected \" or number or boolean or null");
@@ -156,15 +623,18 @@ public final class JsonParser {
                     break;
                 case '}':
                     builder.objectCompleted(object);
+                    scanner.exit();
                     return;
                 default:
                     throw scanner.jsonException("Expected \"");
             }
+            scanner.value(++size);
             switch (scanner.lastReadChar) {
                 case ',':
                     continue;
                 case '}':
                     builder.objectCompleted(object);
+                    scanner.exit();
                     return;
                 default:
                     throw scanner.jsonException("Expected } or ,");
@@ -174,10 +644,12 @@ public final class JsonParser {
 
     @SuppressWarnings("unchecked")
     private void parseArray(JsonScanner scanner, Object array) {
+        scanner.enter();
+        int size = 0;
         for (; ; ) {
             switch (scanner.nextImportantChar()) {
                 case '"':
-                    builder.addStringToArray(array, scanner.consumeString());
+                    scanner.consumeStringToArray(primitive, array);
                     break;
                 case '{':
                     builder.addArrayComma(array);
@@ -195,11 +667,11 @@ public final class JsonParser {
                     break;
                 case 't':
                     scanner.consumeTrue();
-                    builder.addBooleanToArray(array, Boolean.TRUE);
+                    primitive.addBooleanToArray(array, true);
                     break;
                 case 'f':
                     scanner.consumeFalse();
-                    builder.addBooleanToArray(array, Boolean.FALSE);
+                    primitive.addBooleanToArray(array, false);
                     break;
                 case 'n':
                     scanner.consumeNull();
@@ -216,23 +688,465 @@ public final class JsonParser {
                 case '7':
                 case '8':
                 case '9':
-                    builder.addNumberToArray(array, scanner.consumeNumber());
+                    scanner.consumeNumberValue().addToArray(primitive, array);
                     break;
                 case ']':
                     builder.arrayCompleted(array);
+                    scanner.exit();
                     return;
                 default:
                     throw scanner.jsonException("Expected \" or ] or number or boolean or null");
             }
+            scanner.value(++size);
             switch (scanner.lastReadChar) {
                 case ',':
                     continue;
                 case ']':
                     builder.arrayCompleted(array);
+                    scanner.exit();
                     return;
                 default:
                     throw scanner.jsonException("Expected ] or ,");
             }
         }
     }
+
+    /**
+     * State of one projection parse
+     */
+    private static final class Projecting {
+        /**
+         * count of found selected values in subtree of node (by node id)
+         */
+        private final int[] found;
+        private int remaining;
+
+        private Projecting(JsonProjection projection) {
+            this.found = new int[projection.nodeCount];
+            this.remaining = projection.root.selectedCount;
+        }
+    }
+
+    /**
+     * @return count of selected values found in object, if all values are found (remaining == 0) object is not read to the end
+     */
+    @SuppressWarnings("unchecked")
+    private int projectObject(JsonScanner scanner, Object object, JsonProjection.Node node, Projecting state) {
+        int count = 0;
+        for (; ; ) {
+            switch (scanner.nextImportantChar()) {
+                case '"':
+                    final int n = scanner.consumeAttr(node.names);
+                    if (scanner.lastReadChar != ':') {
+                        throw scanner.jsonException("Expected :");
+                    }
+                    final char first = scanner.nextImportantChar();
+                    final JsonProjection.Node child = n < 0 ? null : node.children[n];
+                    if (child == null || state.found[child.id] == child.selectedCount) {
+                        skipValue(scanner, first, "Expected \" or number or boolean or null");
+                        break;
+                    }
+                    final String attr = node.names[n];
+                    int childCount = 0;
+                    if (child.selected) {
+                        projectedValueToObject(scanner, object, attr, first);
+                        childCount = 1;
+                        state.remaining--;
+                    } else if (first == '{') {
+                        builder.addObjectAttr(object, attr);
+                        final Object subObject = builder.createObject();
+                        childCount = projectObject(scanner, subObject, child, state);
+                        builder.addObjectToObject(object, attr, subObject);
+                    } else if (first == '[') {
+                        builder.addObjectAttr(object, attr);
+                        final Object subArray = builder.createArray();
+                        childCount = projectArray(scanner, subArray, child, state);
+                        builder.addArrayToObject(object, attr, subArray);
+                    } else {
+                        skipValue(scanner, first, "Expected \" or number or boolean or null");
+                    }
+                    state.found[child.id] += childCount;
+                    count += childCount;
+                    if (state.remaining == 0) {
+                        builder.objectCompleted(object);
+                        return count;
+                    }
+                    if (!child.selected && (first == '{' || first == '[')) {
+                        scanner.nextImportantChar();
+                    }
+                    break;
+                case '}':
+                    builder.objectCompleted(object);
+                    return count;
+                default:
+                    throw scanner.jsonException("Expected \"");
+            }
+            switch (scanner.lastReadChar) {
+                case ',':
+                    continue;
+                case '}':
+                    builder.objectCompleted(object);
+                    return count;
+                default:
+                    throw scanner.jsonException("Expected } or ,");
+            }
+        }
+    }
+
+    /**
+     * @return count of selected values found in array, if all values are found (remaining == 0) array is not read to the end
+     */
+    @SuppressWarnings("unchecked")
+    private int projectArray(JsonScanner scanner, Object array, JsonProjection.Node node, Projecting state) {
+        int count = 0;
+        for (int index = 0; ; index++) {
+            final char first = scanner.nextImportantChar();
+            if (first == ']') {
+                builder.arrayCompleted(array);
+                return count;
+            }
+            final JsonProjection.Node child = node.child(index);
+            if (child == null || state.found[child.id] == child.selectedCount) {
+                skipValue(scanner, first, "Expected \" or ] or number or boolean or null");
+            } else {
+                int childCount = 0;
+                if (child.selected) {
+                    projectedValueToArray(scanner, array, first);
+                    childCount = 1;
+                    state.remaining--;
+                } else if (first == '{') {
+                    builder.addArrayComma(array);
+                    final Object subObject = builder.createObject();
+                    childCount = projectObject(scanner, subObject, child, state);
+                    builder.addObjectToArray(array, subObject);
+                } else if (first == '[') {
+                    builder.addArrayComma(array);
+                    final Object subArray = builder.createArray();
+                    childCount = projectArray(scanner, subArray, child, state);
+                    builder.addArrayToArray(array, subArray);
+                } else {
+                    skipValue(scanner, first, "Expected \" or ] or number or boolean or null");
+                }
+                state.found[child.id] += childCount;
+                count += childCount;
+                if (state.remaining == 0) {
+                    builder.arrayCompleted(array);
+                    return count;
+                }
+                if (!child.selected && (first == '{' || first == '[')) {
+                    scanner.nextImportantChar();
+                }
+            }
+            switch (scanner.lastReadChar) {
+                case ',':
+                    continue;
+                case ']':
+                    builder.arrayCompleted(array);
+                    return count;
+                default:
+                    throw scanner.jsonException("Expected ] or ,");
+            }
+        }
+    }
+
+    /**
+     * Parse one value of object, first char of value is already read. After parse next important char is in scanner.lastReadChar
+     */
+    @SuppressWarnings("unchecked")
+    private void projectedValueToObject(JsonScanner scanner, Object object, String attr, char first) {
+        switch (first) {
+            case '"':
+                scanner.consumeStringToObject(primitive, object, attr);
+                break;
+            case '{':
+                builder.addObjectAttr(object, attr);
+                final Object subObject = builder.createObject();
+                parseObject(scanner, subObject);
+                builder.addObjectToObject(object, attr, subObject);
+                scanner.nextImportantChar();
+                break;
+            case '[':
+                builder.addObjectAttr(object, attr);
+                final Object subArray = builder.createArray();
+                parseArray(scanner, subArray);
+                builder.addArrayToObject(object, attr, subArray);
+                scanner.nextImportantChar();
+                break;
+            case 't':
+                scanner.consumeTrue();
+                primitive.addBooleanToObject(object, attr, true);
+                break;
+            case 'f':
+                scanner.consumeFalse();
+                primitive.addBooleanToObject(object, attr, false);
+                break;
+            case 'n':
+                scanner.consumeNull();
+                builder.addNullToObject(object, attr);
+                break;
+            default:
+                if (first == '-' || (first >= '0' && first <= '9')) {
+                    scanner.consumeNumberValue().addToObject(primitive, object, attr);
+                } else {
+                    throw scanner.jsonException("Expected \" or number or boolean or null");
+                }
+        }
+    }
+
+    /**
+     * Parse one value of array, first char of value is already read. After parse next important char is in scanner.lastReadChar
+     */
+    @SuppressWarnings("unchecked")
+    private void projectedValueToArray(JsonScanner scanner, Object array, char first) {
+        switch (first) {
+            case '"':
+                scanner.consumeStringToArray(primitive, array);
+                break;
+            case '{':
+                builder.addArrayComma(array);
+                final Object subObject = builder.createObject();
+                parseObject(scanner, subObject);
+                builder.addObjectToArray(array, subObject);
+                scanner.nextImportantChar();
+                break;
+            case '[':
+                builder.addArrayComma(array);
+                final Object subArray = builder.createArray();
+                parseArray(scanner, subArray);
+                builder.addArrayToArray(array, subArray);
+                scanner.nextImportantChar();
+                break;
+            case 't':
+                scanner.consumeTrue();
+                primitive.addBooleanToArray(array, true);
+                break;
+            case 'f':
+                scanner.consumeFalse();
+                primitive.addBooleanToArray(array, false);
+                break;
+            case 'n':
+                scanner.consumeNull();
+                builder.addNullToArray(array);
+                break;
+            default:
+                if (first == '-' || (first >= '0' && first <= '9')) {
+                    scanner.consumeNumberValue().addToArray(primitive, array);
+                } else {
+                    throw scanner.jsonException("Expected \" or ] or number or boolean or null");
+                }
+        }
+    }
+
+    /**
+     * Skip value without allocation, first char of value is already read. After skip next important char is in scanner.lastReadChar
+     */
+    private void skipValue(JsonScanner scanner, char first, String error) {
+        switch (first) {
+            case '"':
+                scanner.skipString();
+                break;
+            case '{':
+            case '[':
+                scanner.skipContainer();
+                scanner.nextImportantChar();
+                break;
+            case 't':
+                scanner.consumeTrue();
+                break;
+            case 'f':
+                scanner.consumeFalse();
+                break;
+            case 'n':
+                scanner.consumeNull();
+                break;
+            default:
+                if (first == '-' || (first >= '0' && first <= '9')) {
+                    scanner.skipNumber();
+                } else {
+                    throw scanner.jsonException(error);
+                }
+        }
+    }
+
+    /**
+     * Same as {@link #parseObject(JsonScanner, Object)} and {@link #parseArray(JsonScanner, Object)} with same builder callbacks,
+     * but without recursion - parents of actual container are in own stack.
+     */
+    @SuppressWarnings("unchecked")
+    private void parseIterative(JsonScanner scanner, Object root, boolean rootIsObject) {
+        Object[] parents = new Object[32];
+        boolean[] parentIsObject = new boolean[32];
+        String[] attrs = new String[32]; //attr of actual container in parent object
+        int[] sizes = new int[32]; //count of values in parent
+        int depth = 0;
+        int size = 0;
+        Object container = root;
+        boolean isObject = rootIsObject;
+        scanner.enter();
+        for (; ; ) {
+            boolean completed = false;
+            String name = null;
+            Object sub = null;
+            boolean subIsObject = false;
+            final char c = scanner.nextImportantChar();
+            if (isObject) {
+                if (c == '"') {
+                    name = scanner.consumeAttr();
+                    if (scanner.lastReadChar != ':') {
+                        throw scanner.jsonException("Expected :");
+                    }
+                    switch (scanner.nextImportantChar()) {
+                        case '"':
+                            scanner.consumeStringToObject(primitive, container, name);
+                            break;
+                        case '{':
+                            builder.addObjectAttr(container, name);
+                            sub = builder.createObject();
+                            subIsObject = true;
+                            break;
+                        case '[':
+                            builder.addObjectAttr(container, name);
+                            sub = builder.createArray();
+                            break;
+                        case 't':
+                            scanner.consumeTrue();
+                            primitive.addBooleanToObject(container, name, true);
+                            break;
+                        case 'f':
+                            scanner.consumeFalse();
+                            primitive.addBooleanToObject(container, name, false);
+                            break;
+                        case 'n':
+                            scanner.consumeNull();
+                            builder.addNullToObject(container, name);
+                            break;
+                        case '-':
+                        case '0':
+                        case '1':
+                        case '2':
+                        case '3':
+                        case '4':
+                        case '5':
+                        case '6':
+                        case '7':
+                        case '8':
+                        case '9':
+                            scanner.consumeNumberValue().addToObject(primitive, container, name);
+                            break;
+                        default:
+                            throw scanner.jsonException("Expected \" or number or boolean or null");
+                    }
+                } else if (c == '}') {
+                    completed = true;
+                } else {
+                    throw scanner.jsonException("Expected \"");
+                }
+            } else {
+                switch (c) {
+                    case '"':
+                        scanner.consumeStringToArray(primitive, container);
+                        break;
+                    case '{':
+                        builder.addArrayComma(container);
+                        sub = builder.createObject();
+                        subIsObject = true;
+                        break;
+                    case '[':
+                        builder.addArrayComma(container);
+                        sub = builder.createArray();
+                        break;
+                    case 't':
+                        scanner.consumeTrue();
+                        primitive.addBooleanToArray(container, true);
+                        break;
+                    case 'f':
+                        scanner.consumeFalse();
+                        primitive.addBooleanToArray(container, false);
+                        break;
+                    case 'n':
+                        scanner.consumeNull();
+                        builder.addNullToArray(container);
+                        break;
+                    case '-':
+                    case '0':
+                    case '1':
+                    case '2':
+                    case '3':
+                    case '4':
+                    case '5':
+                    case '6':
+                    case '7':
+                    case '8':
+                    case '9':
+                        scanner.consumeNumberValue().addToArray(primitive, container);
+                        break;
+                    case ']':
+                        completed = true;
+                        break;
+                    default:
+                        throw scanner.jsonException("Expected \" or ] or number or boolean or null");
+                }
+            }
+            if (sub != null) {
+                if (depth == parents.length) {
+                    parents = Arrays.copyOf(parents, depth * 2);
+                    parentIsObject = Arrays.copyOf(parentIsObject, depth * 2);
+                    attrs = Arrays.copyOf(attrs, depth * 2);
+                    sizes = Arrays.copyOf(sizes, depth * 2);
+                }
+                parents[depth] = container;
+                parentIsObject[depth] = isObject;
+                attrs[depth] = name;
+                sizes[depth] = size;
+                depth++;
+                size = 0;
+                container = sub;
+                isObject = subIsObject;
+                scanner.enter();
+                continue;
+            }
+            for (; ; ) {
+                if (!completed) {
+                    scanner.value(++size);
+                    final char separator = scanner.lastReadChar;
+                    if (separator == ',') {
+                        break;
+                    }
+                    if (separator != (isObject ? '}' : ']')) {
+                        throw scanner.jsonException(isObject ? "Expected } or ," : "Expected ] or ,");
+                    }
+                }
+                completed = false;
+                if (isObject) {
+                    builder.objectCompleted(container);
+                } else {
+                    builder.arrayCompleted(container);
+                }
+                scanner.exit();
+                if (depth == 0) {
+                    return;
+                }
+                depth--;
+                size = sizes[depth];
+                final Object parent = parents[depth];
+                parents[depth] = null;
+                if (parentIsObject[depth]) {
+                    if (isObject) {
+                        builder.addObjectToObject(parent, attrs[depth], container);
+                    } else {
+                        builder.addArrayToObject(parent, attrs[depth], container);
+                    }
+                } else {
+                    if (isObject) {
+                        builder.addObjectToArray(parent, container);
+                    } else {
+                        builder.addArrayToArray(parent, container);
+                    }
+                }
+                container = parent;
+                isObject = parentIsObject[depth];
+                scanner.nextImportantChar();
+            }
+        }
+    }
 }
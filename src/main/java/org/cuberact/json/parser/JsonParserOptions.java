@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Immutable options of {@link JsonParser}. Every {@code with...} method returns new instance.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonParserOptions {
+
+    public static final JsonParserOptions DEFAULT = new JsonParserOptions();
+
+    static final int KEY_CACHE_SIZE = 1024;
+
+    private boolean keyCache;
+    private JsonKeyPool keyPool;
+    private boolean iterative;
+    private boolean structuralIndex;
+    private ForkJoinPool parallelPool;
+    private JsonLimits limits = JsonLimits.NONE;
+
+    private JsonParserOptions() {
+    }
+
+    private JsonParserOptions copy() {
+        JsonParserOptions copy = new JsonParserOptions();
+        copy.keyCache = keyCache;
+        copy.keyPool = keyPool;
+        copy.iterative = iterative;
+        copy.structuralIndex = structuralIndex;
+        copy.parallelPool = parallelPool;
+        copy.limits = limits;
+        return copy;
+    }
+
+    /**
+     * @param keyCache - true - equal attribute names within one parse share one String instance
+     * @return new options
+     */
+    public JsonParserOptions withKeyCache(boolean keyCache) {
+        JsonParserOptions copy = copy();
+        copy.keyCache = keyCache;
+        return copy;
+    }
+
+    /**
+     * Attribute names are shared across parses with pool. Key cache is used too.
+     *
+     * @param keyPool - thread-safe pool, can be shared by many parsers. Null means no pool
+     * @return new options
+     */
+    public JsonParserOptions withKeyPool(JsonKeyPool keyPool) {
+        JsonParserOptions copy = copy();
+        copy.keyPool = keyPool;
+        return copy;
+    }
+
+    /**
+     * @param iterative - true - nested objects and arrays are parsed in one loop with own stack (not by recursion),
+     *                  so depth of json is not limited by thread stack size
+     * @return new options
+     */
+    public JsonParserOptions withIterative(boolean iterative) {
+        JsonParserOptions copy = copy();
+        copy.iterative = iterative;
+        return copy;
+    }
+
+    /**
+     * @param structuralIndex - true - char[] and byte[] inputs are parsed in two stages: positions of all structural chars
+     *                        are found block by block first, then the values are built from this index without char by char scanning.
+     *                        Error positions of byte[] input are byte offsets.
+     * @return new options
+     */
+    public JsonParserOptions withStructuralIndex(boolean structuralIndex) {
+        JsonParserOptions copy = copy();
+        copy.structuralIndex = structuralIndex;
+        return copy;
+    }
+
+    /**
+     * @param parallelPool - not null - big char[] and byte[] inputs (1MB and more) are parsed by structural index in parallel,
+     *                     builder must be thread-safe. Null means sequential parsing
+     * @return new options
+     */
+    public JsonParserOptions withParallelPool(ForkJoinPool parallelPool) {
+        JsonParserOptions copy = copy();
+        copy.parallelPool = parallelPool;
+        return copy;
+    }
+
+    /**
+     * @param limits - limits of untrusted input, {@link JsonLimits#NONE} means no limits
+     * @return new options
+     */
+    public JsonParserOptions withLimits(JsonLimits limits) {
+        JsonParserOptions copy = copy();
+        copy.limits = Objects.requireNonNull(limits, "limits");
+        return copy;
+    }
+
+    public boolean isKeyCache() {
+        return keyCache || keyPool != null;
+    }
+
+    public JsonKeyPool getKeyPool() {
+        return keyPool;
+    }
+
+    public boolean isIterative() {
+        return iterative;
+    }
+
+    public boolean isStructuralIndex() {
+        return structuralIndex;
+    }
+
+    public ForkJoinPool getParallelPool() {
+        return parallelPool;
+    }
+
+    public JsonLimits getLimits() {
+        return limits;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+
+/**
+ * {@link JsonBuilderPrimitive} for builder without primitive callbacks, so parser calls primitive callbacks only.
+ * Default methods pass Boolean and String, numbers are passed as {@link JsonNumber} (long and double callbacks
+ * are not overridden - see {@link JsonNumberValue}).
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+@SuppressWarnings("unchecked")
+final class JsonPrimitiveAdapter implements JsonBuilderPrimitive<Object, Object> {
+
+    private final JsonBuilder builder;
+
+    private JsonPrimitiveAdapter(JsonBuilder builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * @return builder itself if it has primitive callbacks, adapter otherwise
+     */
+    static JsonBuilderPrimitive of(JsonBuilder builder) {
+        return builder instanceof JsonBuilderPrimitive ? (JsonBuilderPrimitive) builder : new JsonPrimitiveAdapter(builder);
+    }
+
+    @Override
+    public void buildStart() {
+        builder.buildStart();
+    }
+
+    @Override
+    public void buildEnd() {
+        builder.buildEnd();
+    }
+
+    @Override
+    public Object createObject() {
+        return builder.createObject();
+    }
+
+    @Override
+    public Object createArray() {
+        return builder.createArray();
+    }
+
+    @Override
+    public void objectCompleted(Object object) {
+        builder.objectCompleted(object);
+    }
+
+    @Override
+    public void arrayCompleted(Object array) {
+        builder.arrayCompleted(array);
+    }
+
+    @Override
+    public void addObjectAttr(Object object, String attr) {
+        builder.addObjectAttr(object, attr);
+    }
+
+    @Override
+    public void addArrayComma(Object array) {
+        builder.addArrayComma(array);
+    }
+
+    @Override
+    public void addObjectToObject(Object object, String attr, Object value) {
+        builder.addObjectToObject(object, attr, value);
+    }
+
+    @Override
+    public void addArrayToObject(Object object, String attr, Object value) {
+        builder.addArrayToObject(object, attr, value);
+    }
+
+    @Override
+    public void addStringToObject(Object object, String attr, String value) {
+        builder.addStringToObject(object, attr, value);
+    }
+
+    @Override
+    public void addBooleanToObject(Object object, String attr, Boolean value) {
+        builder.addBooleanToObject(object, attr, value);
+    }
+
+    @Override
+    public void addNullToObject(Object object, String attr) {
+        builder.addNullToObject(object, attr);
+    }
+
+    @Override
+    public void addNumberToObject(Object object, String attr, JsonNumber value) {
+        builder.addNumberToObject(object, attr, value);
+    }
+
+    @Override
+    public void addObjectToArray(Object array, Object value) {
+        builder.addObjectToArray(array, value);
+    }
+
+    @Override
+    public void addArrayToArray(Object array, Object value) {
+        builder.addArrayToArray(array, value);
+    }
+
+    @Override
+    public void addStringToArray(Object array, String value) {
+        builder.addStringToArray(array, value);
+    }
+
+    @Override
+    public void addBooleanToArray(Object array, Boolean value) {
+        builder.addBooleanToArray(array, value);
+    }
+
+    @Override
+    public void addNullToArray(Object array) {
+        builder.addNullToArray(array);
+    }
+
+    @Override
+    public void addNumberToArray(Object array, JsonNumber value) {
+        builder.addNumberToArray(array, value);
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Set of JSON Pointers (RFC 6901) - {@link JsonParser#parse(org.cuberact.json.input.JsonInput, JsonProjection)} builds only values on these paths.
+ * <p>
+ * Example: <code>new JsonProjection("/route/service", "/headers/x-tenant", "/items/0/id")</code>
+ * <p>
+ * Pointer "" selects whole document. Pointer token is attribute name (with ~1 for / and ~0 for ~) or index in array.
+ * Value on path which is prefix of other path contains whole subtree, so longer path is not needed.
+ * <p>
+ * JsonProjection is immutable and thread-safe.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonProjection {
+
+    private final List<String> pointers;
+    final Node root;
+    final int nodeCount;
+
+    public JsonProjection(String... pointers) {
+        this(Arrays.asList(Objects.requireNonNull(pointers, "pointers")));
+    }
+
+    public JsonProjection(Collection<String> pointers) {
+        this.pointers = new ArrayList<>(Objects.requireNonNull(pointers, "pointers"));
+        NodeBuilder rootBuilder = new NodeBuilder();
+        for (String pointer : this.pointers) {
+            NodeBuilder node = rootBuilder;
+            for (String token : tokens(pointer)) {
+                node = node.child(token);
+            }
+            node.selected = true;
+        }
+        int[] ids = new int[1];
+        this.root = rootBuilder.build(ids);
+        this.nodeCount = ids[0];
+    }
+
+    public List<String> getPointers() {
+        return new ArrayList<>(pointers);
+    }
+
+    @Override
+    public String toString() {
+        return pointers.toString();
+    }
+
+    private static List<String> tokens(String pointer) {
+        Objects.requireNonNull(pointer, "pointer");
+        List<String> tokens = new ArrayList<>();
+        if (pointer.isEmpty()) {
+            return tokens;
+        }
+        if (pointer.charAt(0) != '/') {
+            throw new IllegalArgumentException("JSON Pointer must be empty or start with / - " + pointer);
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 1; i <= pointer.length(); i++) {
+            final char c = i < pointer.length() ? pointer.charAt(i) : '/';
+            if (c == '/') {
+                tokens.add(token.toString());
+                token.setLength(0);
+            } else if (c == '~') {
+                final char escaped = ++i < pointer.length() ? pointer.charAt(i) : 0;
+                if (escaped == '0') {
+                    token.append('~');
+                } else if (escaped == '1') {
+                    token.append('/');
+                } else {
+                    throw new IllegalArgumentException("Expected ~0 or ~1 in JSON Pointer - " + pointer);
+                }
+            } else {
+                token.append(c);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Level of paths
+     */
+    static final class Node {
+        final int id;
+        final boolean selected;
+        /**
+         * count of selected nodes in subtree
+         */
+        final int selectedCount;
+        final String[] names;
+        /**
+         * index in array for every name, or -1 if name can't be array index
+         */
+        final int[] indexes;
+        final Node[] children;
+
+        private Node(int id, boolean selected, int selectedCount, String[] names, Node[] children) {
+            this.id = id;
+            this.selected = selected;
+            this.selectedCount = selectedCount;
+            this.names = names;
+            this.children = children;
+            this.indexes = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                indexes[i] = arrayIndex(names[i]);
+            }
+        }
+
+        /**
+         * @return child for array element or null
+         */
+        Node child(int index) {
+            for (int i = 0; i < indexes.length; i++) {
+                if (indexes[i] == index) return children[i];
+            }
+            return null;
+        }
+
+        private static int arrayIndex(String name) {
+            if (name.isEmpty() || name.length() > 9 || (name.charAt(0) == '0' && name.length() > 1)) {
+                return -1;
+            }
+            for (int i = 0; i < name.length(); i++) {
+                if (name.charAt(i) < '0' || name.charAt(i) > '9') return -1;
+            }
+            return Integer.parseInt(name);
+        }
+    }
+
+    private static final class NodeBuilder {
+        private boolean selected;
+        private final List<String> names = new ArrayList<>();
+        private final List<NodeBuilder> children = new ArrayList<>();
+
+        private NodeBuilder child(String name) {
+            final int i = names.indexOf(name);
+            if (i >= 0) {
+                return children.get(i);
+            }
+            NodeBuilder child = new NodeBuilder();
+            names.add(name);
+            children.add(child);
+            return child;
+        }
+
+        private Node build(int[] ids) {
+            final int id = ids[0]++;
+            if (selected) { //whole subtree is selected
+                return new Node(id, true, 1, new String[0], new Node[0]);
+            }
+            Node[] built = new Node[children.size()];
+            int selectedCount = 0;
+            for (int i = 0; i < built.length; i++) {
+                built[i] = children.get(i).build(ids);
+                selectedCount += built[i].selectedCount;
+            }
+            return new Node(id, false, selectedCount, names.toArray(new String[0]), built);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.input.JsonInput;
+import org.cuberact.json.input.JsonInputCharArray;
+import org.cuberact.json.input.JsonInputCharSequence;
+import org.cuberact.json.input.JsonInputReader;
+import org.cuberact.json.input.JsonInputUtf8;
+
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Pull parser - caller walks through json token by token ({@link #peek()}, {@link #beginObject()}, {@link #nextName()}, ...)
+ * with constant memory. Values skipped by {@link #skipValue()} are not allocated.
+ * <p>
+ * Example:
+ * <pre>
+ * JsonReader reader = new JsonReader(input);
+ * reader.beginArray();
+ * while (reader.hasNext()) {
+ *     reader.beginObject();
+ *     while (reader.hasNext()) {
+ *         if ("id".equals(reader.nextName())) {
+ *             long id = reader.nextLong();
+ *         } else {
+ *             reader.skipValue();
+ *         }
+ *     }
+ *     reader.endObject();
+ * }
+ * reader.endArray();
+ * </pre>
+ * JsonReader is not thread-safe.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public final class JsonReader {
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final JsonScanner scanner;
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+    private JsonToken peeked;
+    private boolean charPending;
+
+    public JsonReader(CharSequence input) {
+        this(new JsonInputCharSequence(input));
+    }
+
+    public JsonReader(char[] input) {
+        this(new JsonInputCharArray(input));
+    }
+
+    /**
+     * @param input - UTF-8 encoded bytes
+     */
+    public JsonReader(byte[] input) {
+        this(new JsonInputUtf8(input));
+    }
+
+    /**
+     * @param input - JsonReader doesn't close input reader
+     */
+    public JsonReader(Reader input) {
+        this(new JsonInputReader(input));
+    }
+
+    public JsonReader(JsonInput input) {
+        this(input, JsonParserOptions.DEFAULT);
+    }
+
+    public JsonReader(JsonInput input, JsonParserOptions options) {
+        this.scanner = new JsonScanner(input, options);
+        this.stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * @return type of next token, token is not consumed
+     */
+    public JsonToken peek() {
+        if (peeked == null) {
+            peeked = doPeek();
+        }
+        return peeked;
+    }
+
+    /**
+     * @return true if actual object or array has next element
+     */
+    public boolean hasNext() {
+        JsonToken token = peek();
+        return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+    }
+
+    public void beginObject() {
+        expect(JsonToken.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() {
+        expect(JsonToken.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() {
+        expect(JsonToken.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() {
+        expect(JsonToken.END_ARRAY);
+        stackSize--;
+    }
+
+    public String nextName() {
+        expect(JsonToken.NAME);
+        charPending = true;
+        return scanner.consumeAttr();
+    }
+
+    public String nextString() {
+        expect(JsonToken.STRING);
+        charPending = true;
+        return scanner.consumeString();
+    }
+
+    public JsonNumber nextNumber() {
+        expect(JsonToken.NUMBER);
+        charPending = true;
+        return scanner.consumeNumber();
+    }
+
+    public int nextInt() {
+        return nextNumber().asInt();
+    }
+
+    public long nextLong() {
+        return nextNumber().asLong();
+    }
+
+    public double nextDouble() {
+        return nextNumber().asDouble();
+    }
+
+    public boolean nextBoolean() {
+        expect(JsonToken.BOOLEAN);
+        charPending = true;
+        if (scanner.lastReadChar == 't') {
+            scanner.consumeTrue();
+            return true;
+        }
+        scanner.consumeFalse();
+        return false;
+    }
+
+    public void nextNull() {
+        expect(JsonToken.NULL);
+        charPending = true;
+        scanner.consumeNull();
+    }
+
+    /**
+     * Skip next value (with its name, if next token is {@link JsonToken#NAME}) without allocation.
+     * Skipped object or array is checked only for closed strings and balanced brackets.
+     */
+    public void skipValue() {
+        JsonToken token = peek();
+        if (token == JsonToken.NAME) {
+            peeked = null;
+            scanner.skipString();
+            charPending = true;
+            token = peek();
+        }
+        switch (token) {
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                scanner.skipContainer();
+                break;
+            case STRING:
+                scanner.skipString();
+                charPending = true;
+                break;
+            case NUMBER:
+                scanner.skipNumber();
+                charPending = true;
+                break;
+            case BOOLEAN:
+                if (scanner.lastReadChar == 't') {
+                    scanner.consumeTrue();
+                } else {
+                    scanner.consumeFalse();
+                }
+                charPending = true;
+                break;
+            case NULL:
+                scanner.consumeNull();
+                charPending = true;
+                break;
+            default:
+                throw new JsonException("Expected value, but actual token is " + token);
+        }
+        peeked = null;
+    }
+
+    private void expect(JsonToken expected) {
+        JsonToken token = peek();
+        if (token != expected) {
+            throw new JsonException("Expected " + expected + ", but actual token is " + token);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            stack = Arrays.copyOf(stack, stackSize * 2);
+        }
+        stack[stackSize++] = scope;
+    }
+
+    private char nextImportantChar() {
+        if (charPending) {
+            charPending = false;
+            return scanner.lastReadChar;
+        }
+        return scanner.nextImportantChar();
+    }
+
+    private JsonToken doPeek() {
+        final int scope = stack[stackSize - 1];
+        char c;
+        switch (scope) {
+            case EMPTY_DOCUMENT:
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                c = nextImportantChar();
+                if (c != '{' && c != '[') {
+                    throw scanner.jsonException("Expected { or [");
+                }
+                break;
+            case NONEMPTY_DOCUMENT:
+                return JsonToken.END_DOCUMENT;
+            case EMPTY_OBJECT:
+            case NONEMPTY_OBJECT:
+                c = nextImportantChar();
+                if (c == '}') {
+                    return JsonToken.END_OBJECT;
+                }
+                if (scope == NONEMPTY_OBJECT) {
+                    if (c != ',') {
+                        throw scanner.jsonException("Expected } or ,");
+                    }
+                    c = nextImportantChar();
+                }
+                if (c != '"') {
+                    throw scanner.jsonException("Expected \"");
+                }
+                stack[stackSize - 1] = DANGLING_NAME;
+                return JsonToken.NAME;
+            case DANGLING_NAME:
+                if (nextImportantChar() != ':') {
+                    throw scanner.jsonException("Expected :");
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                c = nextImportantChar();
+                break;
+            case EMPTY_ARRAY:
+                c = nextImportantChar();
+                if (c == ']') {
+                    return JsonToken.END_ARRAY;
+                }
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                break;
+            default: //NONEMPTY_ARRAY
+                c = nextImportantChar();
+                if (c == ']') {
+                    return JsonToken.END_ARRAY;
+                }
+                if (c != ',') {
+                    throw scanner.jsonException("Expected ] or ,");
+                }
+                c = nextImportantChar();
+                break;
+        }
+        switch (c) {
+            case '{':
+                return JsonToken.BEGIN_OBJECT;
+            case '[':
+                return JsonToken.BEGIN_ARRAY;
+            case '"':
+                return JsonToken.STRING;
+            case 't':
+            case 'f':
+                return JsonToken.BOOLEAN;
+            case 'n':
+                return JsonToken.NULL;
+            case '-':
+            case '0':
+            case '1':
+            case '2':
+            case '3':
+            case '4':
+            case '5':
+            case '6':
+            case '7':
+            case '8':
+            case '9':
+                return JsonToken.NUMBER;
+            default:
+                throw scanner.jsonException(scope == NONEMPTY_ARRAY || scope == EMPTY_ARRAY
+                        ? "Expected \" or ] or number or boolean or null"
+                        : "Expected \" or number or boolean or null");
+        }
+    }
+}
@@ -18,7 +18,12 @@ package org.cuberact.json.parser;
 
 import org.cuberact.json.JsonException;
 import org.cuberact.json.JsonNumber;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
 import org.cuberact.json.input.JsonInput;
+import org.cuberact.json.input.JsonInputWindow;
+
+import java.util.Arrays;
+
 import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
 import static org.cuberact.json.optimize.CharTable.hexBitShift;
 import static org.cuberact.json.optimize.CharTable.toInt;
@@ -28,33 +33,327 @@ import static org.cuberact.json.optimize.CharTable.toInt;
  */
 final class JsonScanner {
 
-    private final JsonInput input;
-    private final char[] buffer = new char[4096];
+    private static final int BUFFER_SIZE = 4096;
+    private static final char[] EMPTY_WINDOW = new char[0];
+    private static final ThreadLocal<JsonScanner> REUSABLE = ThreadLocal.withInitial(JsonScanner::new);
+
+    private JsonInput input;
+    private JsonInputWindow windowInput;
+    private char[] buffer = new char[BUFFER_SIZE];
+    private char[] window;
+    private int cursor;
+    private int limit;
+    private JsonKeyPool keyCache;
+    private JsonKeyPool keyPool;
+    private boolean numberFloating;
+    private JsonNumberValue numberValue;
+    private JsonKeyPool ownKeyCache;
+    private boolean inUse;
+    private JsonLimits limits;
+    private int maxDepth;
+    private long maxInputLength;
+    private int maxStringLength;
+    private int maxNumberLength;
+    private int maxContainerSize;
+    private long maxAllocation;
+    private int depth;
+    private long allocated;
     char lastReadChar;
 
+    private JsonScanner() {
+        window = EMPTY_WINDOW;
+    }
+
     JsonScanner(JsonInput input) {
+        this(input, JsonParserOptions.DEFAULT);
+    }
+
+    JsonScanner(JsonInput input, JsonParserOptions options) {
+        reset(input, options);
+    }
+
+    /**
+     * Scanner of current thread - buffers are allocated once per thread and reused by following parses.
+     * If scanner of current thread is in use (parse called from builder), new scanner is returned.
+     * Scanner must be returned by {@link #release()}.
+     */
+    static JsonScanner acquire(JsonInput input, JsonParserOptions options) {
+        JsonScanner scanner = REUSABLE.get();
+        if (scanner.inUse) {
+            scanner = new JsonScanner();
+        }
+        scanner.inUse = true;
+        try {
+            scanner.reset(input, options);
+        } catch (RuntimeException e) {
+            scanner.release();
+            throw e;
+        }
+        return scanner;
+    }
+
+    /**
+     * Same as {@link #acquire(JsonInput, JsonParserOptions)}, but attributes are canonicalized by given key cache
+     * (shared by more parses, it is not cleared by {@link #release()})
+     *
+     * @param keyCache - key cache or null if key cache is not enabled
+     */
+    static JsonScanner acquire(JsonInput input, JsonParserOptions options, JsonKeyPool keyCache) {
+        final JsonScanner scanner = acquire(input, options);
+        scanner.keyCache = keyCache;
+        return scanner;
+    }
+
+    /**
+     * End of parse - references to input and parsed keys are dropped, buffers stay for next {@link #acquire(JsonInput, JsonParserOptions)}
+     */
+    void release() {
+        input = null;
+        windowInput = null;
+        window = EMPTY_WINDOW;
+        cursor = 0;
+        limit = 0;
+        if (keyCache == ownKeyCache && keyCache != null) {
+            keyCache.clear();
+        }
+        keyCache = null;
+        keyPool = null;
+        lastReadChar = 0;
+        limits = null;
+        depth = 0;
+        allocated = 0;
+        if (buffer.length > BUFFER_SIZE) { //grown by long number
+            buffer = new char[BUFFER_SIZE];
+        }
+        inUse = false;
+    }
+
+    private void reset(JsonInput input, JsonParserOptions options) {
         this.input = input;
+        if (options.isKeyCache()) {
+            if (ownKeyCache == null) {
+                ownKeyCache = new JsonKeyPool(JsonParserOptions.KEY_CACHE_SIZE);
+            }
+            keyCache = ownKeyCache;
+        } else {
+            keyCache = null;
+        }
+        this.keyPool = options.getKeyPool();
+        limits = options.getLimits();
+        maxDepth = limits.getMaxDepth();
+        maxInputLength = limits.getMaxInputLength();
+        maxStringLength = limits.getMaxStringLength();
+        maxNumberLength = limits.getMaxNumberLength();
+        maxContainerSize = limits.getMaxContainerSize();
+        maxAllocation = limits.getMaxAllocation();
+        depth = 0;
+        allocated = 0;
+        if (input instanceof JsonInputWindow) {
+            windowInput = (JsonInputWindow) input;
+            window = windowInput.window();
+            cursor = windowInput.cursor();
+            limit = windowInput.limit();
+            checkInputLength(windowInput.positionLong() - cursor + limit);
+        } else {
+            windowInput = null;
+            window = EMPTY_WINDOW;
+            cursor = 0;
+            limit = 0;
+        }
     }
 
     private char nextChar() {
-        return lastReadChar = input.nextChar();
+        if (cursor < limit) {
+            return lastReadChar = window[cursor++];
+        }
+        return lastReadChar = nextCharFromInput();
+    }
+
+    private char nextCharFromInput() {
+        if (windowInput == null) {
+            final char c = input.nextChar();
+            if (maxInputLength != Long.MAX_VALUE) {
+                checkInputLength(input.positionLong());
+            }
+            return c;
+        }
+        windowInput.cursor(cursor);
+        if (windowInput.fill()) {
+            window = windowInput.window();
+            cursor = windowInput.cursor();
+            limit = windowInput.limit();
+            checkInputLength(windowInput.positionLong() - cursor + limit);
+            return window[cursor++];
+        }
+        window = windowInput.window();
+        cursor = windowInput.cursor();
+        limit = windowInput.limit();
+        return END_OF_INPUT;
     }
 
     char nextImportantChar() {
         for (; ; ) {
-            nextChar();
-            if (!(lastReadChar == ' ' || lastReadChar == '\n' || lastReadChar == '\r' || lastReadChar == '\t')) {
-                return lastReadChar;
+            final int l = limit;
+            final int i = JsonKernels.whitespaceEnd(window, cursor, l);
+            if (i < l) {
+                cursor = i + 1;
+                return lastReadChar = window[i];
+            }
+            cursor = i;
+            final char c = lastReadChar = nextCharFromInput();
+            if (!(c == ' ' || c == '\n' || c == '\r' || c == '\t')) {
+                return c;
             }
         }
     }
 
     String consumeString() {
+        final char[] w = window;
+        final int l = limit;
+        final int start = cursor;
+        final int i = JsonKernels.stringEnd(w, start, l);
+        if (i < l && w[i] == '"') { //whole string without escapes is in window
+            cursor = i + 1;
+            checkString(i - start);
+            final String value = new String(w, start, i - start);
+            nextImportantChar();
+            return value;
+        }
+        int count = i - start;
         StringBuilder token = null;
-        int count = 0;
+        if (count > BUFFER_SIZE) {
+            checkStringLength(count);
+            token = new StringBuilder(count + 16);
+            token.append(w, start, count);
+            count = 0;
+        } else {
+            System.arraycopy(w, start, buffer, 0, count);
+        }
+        cursor = i;
+        return consumeString(token, count);
+    }
+
+    /**
+     * Same as {@link #consumeString()}, but string is added to object - string without escapes in actual window
+     * is passed as range of window chars
+     */
+    @SuppressWarnings("unchecked")
+    void consumeStringToObject(JsonBuilderPrimitive builder, Object object, String attr) {
+        final int start = cursor;
+        final int i = JsonKernels.stringEnd(window, start, limit);
+        if (i < limit && window[i] == '"') {
+            cursor = i + 1;
+            checkString(i - start);
+            builder.addStringToObject(object, attr, window, start, i - start);
+            nextImportantChar();
+        } else {
+            builder.addStringToObject(object, attr, consumeString());
+        }
+    }
+
+    /**
+     * Same as {@link #consumeString()}, but string is added to array - string without escapes in actual window
+     * is passed as range of window chars
+     */
+    @SuppressWarnings("unchecked")
+    void consumeStringToArray(JsonBuilderPrimitive builder, Object array) {
+        final int start = cursor;
+        final int i = JsonKernels.stringEnd(window, start, limit);
+        if (i < limit && window[i] == '"') {
+            cursor = i + 1;
+            checkString(i - start);
+            builder.addStringToArray(array, window, start, i - start);
+            nextImportantChar();
+        } else {
+            builder.addStringToArray(array, consumeString());
+        }
+    }
+
+    /**
+     * Same as {@link #consumeString()}, but equal attributes are canonicalized by key cache (if enabled)
+     */
+    String consumeAttr() {
+        if (keyCache == null) {
+            return consumeString();
+        }
+        final char[] w = window;
+        final int l = limit;
+        final int start = cursor;
+        int hash = 0;
+        for (int i = start; i < l; i++) {
+            final char c = w[i];
+            if (c == '"') { //whole attribute without escapes is in window
+                cursor = i + 1;
+                checkStringLength(i - start);
+                String attr = keyCache.find(w, start, i - start, hash);
+                if (attr == null) {
+                    allocate(JsonLimits.valueBytes(i - start));
+                    attr = keyPool != null ? keyPool.get(w, start, i - start, hash) : new String(w, start, i - start);
+                    keyCache.put(attr);
+                }
+                nextImportantChar();
+                return attr;
+            }
+            if (c == '\\' || c == END_OF_INPUT) break;
+            hash = 31 * hash + c;
+        }
+        String attr = consumeString();
+        String cached = keyCache.find(attr);
+        if (cached == null) {
+            cached = keyPool != null ? keyPool.get(attr) : attr;
+            keyCache.put(cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Consume attribute and find it in names. Attribute is not allocated if it has no escapes and it is in actual window.
+     *
+     * @return index of attribute in names or -1
+     */
+    int consumeAttr(String[] names) {
+        final char[] w = window;
+        final int l = limit;
+        final int start = cursor;
+        final int i = JsonKernels.stringEnd(w, start, l);
+        if (i < l && w[i] == '"') {
+            cursor = i + 1;
+            checkStringLength(i - start);
+            int found = -1;
+            for (int n = 0; n < names.length && found < 0; n++) {
+                final String name = names[n];
+                if (name.length() == i - start) {
+                    int j = 0;
+                    while (j < name.length() && name.charAt(j) == w[start + j]) j++;
+                    if (j == name.length()) found = n;
+                }
+            }
+            nextImportantChar();
+            return found;
+        }
+        final String attr = consumeString();
+        for (int n = 0; n < names.length; n++) {
+            if (names[n].equals(attr)) return n;
+        }
+        return -1;
+    }
+
+    private String consumeString(StringBuilder token, int count) {
         for (; ; ) {
+            final char[] w = window;
+            final int l = Math.min(limit, cursor + BUFFER_SIZE - count);
+            final int i = JsonKernels.stringEnd(w, cursor, l);
+            System.arraycopy(w, cursor, buffer, count, i - cursor);
+            count += i - cursor;
+            cursor = i;
+            if (count == BUFFER_SIZE) {
+                count = 0;
+                token = flush(token);
+                continue;
+            }
             nextChar();
             if (lastReadChar == '"') {
+                checkString(token == null ? count : token.length() + count);
                 nextImportantChar();
                 if (token == null) return new String(buffer, 0, count);
                 token.append(buffer, 0, count);
@@ -85,17 +384,26 @@ final class JsonScanner {
                 break;
             }
             buffer[count++] = lastReadChar;
-            if (count == 4096) {
+            if (count == BUFFER_SIZE) {
                 count = 0;
-                if (token == null) {
-                    token = new StringBuilder(8000);
-                }
-                token.append(buffer);
+                token = flush(token);
             }
         }
         throw jsonException("Expected \"");
     }
 
+    /**
+     * Full buffer is appended to token
+     */
+    private StringBuilder flush(StringBuilder token) {
+        if (token == null) {
+            token = new StringBuilder(8000);
+        }
+        checkStringLength(token.length() + BUFFER_SIZE);
+        token.append(buffer, 0, BUFFER_SIZE);
+        return token;
+    }
+
     void consumeTrue() {
         if (nextChar() == 'r' && nextChar() == 'u' && nextChar() == 'e') {
             nextImportantChar();
@@ -121,6 +429,29 @@ final class JsonScanner {
     }
 
     JsonNumber consumeNumber() {
+        final int count = scanNumber();
+        allocate(JsonLimits.valueBytes(count));
+        return new JsonNumber(buffer, count, numberFloating);
+    }
+
+    /**
+     * Same as {@link #consumeNumber()}, but value can be passed as long or double - returned holder is reused by next call
+     */
+    JsonNumberValue consumeNumberValue() {
+        final int count = scanNumber();
+        allocate(JsonLimits.valueBytes(count));
+        if (numberValue == null) {
+            numberValue = new JsonNumberValue();
+        }
+        return numberValue.of(buffer, count, numberFloating);
+    }
+
+    /**
+     * Copy number chars to buffer, first char of number is in lastReadChar
+     *
+     * @return count of number chars in buffer
+     */
+    private int scanNumber() {
         int i = 0;
         buffer[i++] = lastReadChar;
         if (buffer[0] == '-') {
@@ -130,36 +461,206 @@ final class JsonScanner {
             }
             buffer[i++] = lastReadChar;
         }
-        for (; ; ) {
-            nextChar();
-            if (lastReadChar < '0' || lastReadChar > '9') break;
-            buffer[i++] = lastReadChar;
-        }
+        i = consumeDigits(i);
         boolean containsDot = lastReadChar == '.';
         if (containsDot) {
             buffer[i++] = '.';
-            for (; ; ) {
-                nextChar();
-                if (lastReadChar < '0' || lastReadChar > '9') break;
-                buffer[i++] = lastReadChar;
-            }
+            i = consumeDigits(i);
             if (lastReadChar == 'e' || lastReadChar == 'E') {
                 buffer[i++] = 'e';
                 nextChar();
                 if (lastReadChar == '-' || lastReadChar == '+' || !(lastReadChar < '0' || lastReadChar > '9')) {
                     buffer[i++] = lastReadChar;
-                    for (; ; ) {
-                        nextChar();
-                        if (lastReadChar < '0' || lastReadChar > '9') break;
-                        buffer[i++] = lastReadChar;
+                    i = consumeDigits(i);
+                }
+            }
+        }
+        if (i > maxNumberLength) {
+            throw jsonException(limits.numberError());
+        }
+        if (lastReadChar == ' ' || lastReadChar == '\n' || lastReadChar == '\r' || lastReadChar == '\t') {
+            nextImportantChar();
+        }
+        numberFloating = containsDot;
+        return i;
+    }
+
+    /**
+     * Copy digits to buffer, first non digit char is in lastReadChar
+     *
+     * @param i - buffer index
+     * @return buffer index after last digit
+     */
+    private int consumeDigits(int i) {
+        for (; ; ) {
+            final char[] w = window;
+            final int l = limit;
+            final int j = JsonKernels.digitsEnd(w, cursor, l);
+            if (i + j - cursor + 2 > buffer.length) { //room for digits and next two chars of number
+                growBuffer(i + j - cursor + 2);
+            }
+            System.arraycopy(w, cursor, buffer, i, j - cursor);
+            i += j - cursor;
+            if (j < l) {
+                cursor = j + 1;
+                lastReadChar = w[j];
+                return i;
+            }
+            cursor = j;
+            final char c = lastReadChar = nextCharFromInput();
+            if (c < '0' || c > '9') {
+                return i;
+            }
+            buffer[i++] = c;
+        }
+    }
+
+    private void growBuffer(int capacity) {
+        if (capacity - 2 > maxNumberLength) {
+            throw jsonException(limits.numberError());
+        }
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, capacity));
+    }
+
+    /**
+     * Skip string without allocation, opening quote is already read
+     */
+    void skipString() {
+        skipStringChars();
+        nextImportantChar();
+    }
+
+    private void skipStringChars() {
+        for (; ; ) {
+            final char[] w = window;
+            final int l = limit;
+            int i = cursor;
+            boolean escapeOnWindowEnd = false;
+            while (i < l) {
+                i = JsonKernels.stringEnd(w, i, l);
+                if (i == l) break;
+                final char c = w[i++];
+                if (c == '"') {
+                    cursor = i;
+                    lastReadChar = c;
+                    return;
+                }
+                if (c == '\\') {
+                    if (i < l) {
+                        i++;
+                    } else {
+                        escapeOnWindowEnd = true;
                     }
+                } else if (c == END_OF_INPUT) {
+                    cursor = i;
+                    throw jsonException("Expected \"");
+                }
+            }
+            cursor = i;
+            char c = nextChar();
+            if (!escapeOnWindowEnd) {
+                if (c == '"') {
+                    return;
+                }
+                if (c == '\\') {
+                    c = nextChar();
+                }
+            }
+            if (c == END_OF_INPUT) {
+                throw jsonException("Expected \"");
+            }
+        }
+    }
+
+    /**
+     * Skip number without allocation, first char of number is already read
+     */
+    void skipNumber() {
+        if (lastReadChar == '-') {
+            nextChar();
+            if (lastReadChar < '0' || lastReadChar > '9') {
+                throw jsonException("Expected correct number");
+            }
+        }
+        skipDigits();
+        if (lastReadChar == '.') {
+            skipDigits();
+            if (lastReadChar == 'e' || lastReadChar == 'E') {
+                nextChar();
+                if (lastReadChar == '-' || lastReadChar == '+' || !(lastReadChar < '0' || lastReadChar > '9')) {
+                    skipDigits();
                 }
             }
         }
         if (lastReadChar == ' ' || lastReadChar == '\n' || lastReadChar == '\r' || lastReadChar == '\t') {
             nextImportantChar();
         }
-        return new JsonNumber(buffer, i, containsDot);
+    }
+
+    private void skipDigits() {
+        for (; ; ) {
+            final int l = limit;
+            final int j = JsonKernels.digitsEnd(window, cursor, l);
+            if (j < l) {
+                cursor = j + 1;
+                lastReadChar = window[j];
+                return;
+            }
+            cursor = j;
+            final char c = lastReadChar = nextCharFromInput();
+            if (c < '0' || c > '9') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Skip object or array without allocation, { or [ is already read. Nested values are checked only
+     * for closed strings and balanced brackets. Closing } or ] is in lastReadChar.
+     */
+    void skipContainer() {
+        skipContainer(null);
+    }
+
+    /**
+     * Same as {@link #skipContainer()}, but every nested object and array is recorded to index
+     *
+     * @param index - index of lazy document or null
+     */
+    void skipContainer(JsonLazy.Index index) {
+        int depth = 1;
+        for (; ; ) {
+            final char[] w = window;
+            final int l = limit;
+            int i = cursor;
+            char c = 0;
+            while (i < l) {
+                c = w[i++];
+                if (c == '"' || c == '{' || c == '[' || c == '}' || c == ']' || c == END_OF_INPUT) break;
+            }
+            cursor = i;
+            if (i == l && !(c == '"' || c == '{' || c == '[' || c == '}' || c == ']' || c == END_OF_INPUT)) {
+                c = nextCharFromInput();
+            }
+            lastReadChar = c;
+            switch (c) {
+                case '"':
+                    skipStringChars();
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    if (index != null) index.open();
+                    break;
+                case '}':
+                case ']':
+                    if (index != null) index.close(cursor);
+                    if (--depth == 0) return;
+                    break;
+                case END_OF_INPUT:
+                    throw jsonException("Expected } or ]");
+            }
+        }
     }
 
     private char consumeUnicodeChar() {
@@ -175,7 +676,82 @@ final class JsonScanner {
         return (char) (unicodeChar);
     }
 
+    /**
+     * @return index of next unread char in window (index in array for {@link org.cuberact.json.input.JsonInputCharArray})
+     */
+    int cursor() {
+        return cursor;
+    }
+
+    /**
+     * Jump in actual window, char before new cursor is in lastReadChar
+     *
+     * @param cursor - index of next unread char in window
+     */
+    void cursor(int cursor) {
+        this.cursor = cursor;
+        lastReadChar = window[cursor - 1];
+    }
+
+    /**
+     * Object or array is started, it is checked against max depth
+     */
+    void enter() {
+        if (depth == 0) { //budget of one document
+            allocated = 0;
+        }
+        if (++depth > maxDepth) {
+            throw jsonException(limits.depthError());
+        }
+        allocate(JsonLimits.CONTAINER_BYTES);
+    }
+
+    /**
+     * Object or array is completed
+     */
+    void exit() {
+        depth--;
+    }
+
+    /**
+     * Value is added to object or array
+     *
+     * @param size - count of values in object or array
+     */
+    void value(int size) {
+        if (size > maxContainerSize) {
+            throw jsonException(limits.containerError());
+        }
+        allocate(JsonLimits.VALUE_BYTES);
+    }
+
+    private void checkString(int length) {
+        checkStringLength(length);
+        allocate(JsonLimits.valueBytes(length));
+    }
+
+    private void checkStringLength(int length) {
+        if (length > maxStringLength) {
+            throw jsonException(limits.stringError());
+        }
+    }
+
+    private void allocate(long bytes) {
+        if ((allocated += bytes) > maxAllocation) {
+            throw jsonException(limits.allocationError());
+        }
+    }
+
+    private void checkInputLength(long length) {
+        if (length > maxInputLength) {
+            throw new JsonException("Parse error on position " + (maxInputLength + 1) + " - " + limits.inputError());
+        }
+    }
+
     JsonException jsonException(String error) {
-        return new JsonException("Parse error on position " + input.position() + " - " + error);
+        if (windowInput != null) {
+            windowInput.cursor(cursor);
+        }
+        return new JsonException("Parse error on position " + input.positionLong() + " - " + error);
     }
 }
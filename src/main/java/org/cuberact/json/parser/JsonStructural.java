@@ -0,0 +1,705 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+import org.cuberact.json.input.JsonInput;
+
+import java.util.Arrays;
+
+
+/**
+ * Two stage parser (idea of simdjson).
+ * <p>
+ * Stage 1 - input is processed in blocks of 64 chars, every block is converted to bit masks (quotes, backslashes,
+ * operators, whitespaces). Escaped chars, strings (prefix xor of quotes) and starts of all structural chars and values
+ * outside of strings are computed with few long operations per block. Positions are stored to index.
+ * <p>
+ * Stage 2 - walks index (without recursion) and calls {@link JsonBuilder} in same order as {@link JsonParser}.
+ * Whitespaces and string contents are not read char by char again, a string is found between its opening quote and next index position.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+abstract class JsonStructural {
+
+    static final char END_OF_INPUT = JsonInput.END_OF_INPUT;
+
+    static final int QUOTE = 1;
+    static final int BACKSLASH = 2;
+    static final int OPERATOR = 4;
+    static final int WHITESPACE = 8;
+    static final byte[] CLASSES = new byte[256]; //non ASCII chars and bytes have no class
+
+    static {
+        CLASSES['"'] = QUOTE;
+        CLASSES['\\'] = BACKSLASH;
+        CLASSES['{'] = OPERATOR;
+        CLASSES['}'] = OPERATOR;
+        CLASSES['['] = OPERATOR;
+        CLASSES[']'] = OPERATOR;
+        CLASSES[':'] = OPERATOR;
+        CLASSES[','] = OPERATOR;
+        CLASSES[' '] = WHITESPACE;
+        CLASSES['\t'] = WHITESPACE;
+        CLASSES['\n'] = WHITESPACE;
+        CLASSES['\r'] = WHITESPACE;
+    }
+
+    private static final long EVEN_BITS = 0x5555555555555555L;
+
+    final int length;
+    final JsonParserOptions options;
+    final JsonKeyPool keyCache;
+    final JsonKeyPool keyPool;
+    final JsonLimits limits;
+    private int[] index;
+    private int count;
+    private long prevEscaped;
+    private long prevInString;
+    private long prevScalar;
+    private char[] numberBuffer = new char[64];
+    private boolean numberFloating;
+    private JsonNumberValue numberValue;
+    private long allocated;
+    JsonStructuralParallel parallel;
+    int splitEntry = -1;
+    int level = 1; //depth of container built by walk
+
+    /**
+     * @param capacity - initial capacity of index
+     */
+    JsonStructural(int length, JsonParserOptions options, int capacity) {
+        this.length = length;
+        this.options = options;
+        this.index = new int[capacity];
+        this.keyCache = options.isKeyCache() ? new JsonKeyPool(JsonParserOptions.KEY_CACHE_SIZE) : null;
+        this.keyPool = options.getKeyPool();
+        this.limits = options.getLimits();
+    }
+
+    /**
+     * Fails fast on input longer than limit, before stage 1
+     */
+    static void checkLength(int length, JsonParserOptions options) {
+        final JsonLimits limits = options.getLimits();
+        if (length > limits.getMaxInputLength()) {
+            throw new JsonException("Parse error on position " + (limits.getMaxInputLength() + 1) + " - " + limits.inputError());
+        }
+    }
+
+    /**
+     * @param pos - position in input
+     * @return char on position (non ASCII chars of bytes can be returned as any char &gt;= 128) or {@link org.cuberact.json.input.JsonInput#END_OF_INPUT}
+     */
+    abstract char ch(int pos);
+
+    /**
+     * @param start - position after opening quote
+     * @param end   - position of closing quote
+     */
+    abstract String string(int start, int end);
+
+    /**
+     * Same as {@link #string(int, int)}, but string is added to object of primitive builder
+     */
+    @SuppressWarnings("unchecked")
+    void addStringToObject(JsonBuilderPrimitive builder, Object object, String attr, int start, int end) {
+        builder.addStringToObject(object, attr, string(start, end));
+    }
+
+    /**
+     * Same as {@link #string(int, int)}, but string is added to array of primitive builder
+     */
+    @SuppressWarnings("unchecked")
+    void addStringToArray(JsonBuilderPrimitive builder, Object array, int start, int end) {
+        builder.addStringToArray(array, string(start, end));
+    }
+
+    /**
+     * Same as {@link #string(int, int)}, but equal attributes are canonicalized by key cache (if enabled)
+     */
+    abstract String key(int start, int end);
+
+    /**
+     * Stage 1 for part of input
+     *
+     * @param from - position of first block (multiple of 64)
+     * @param to   - end of last block (multiple of 64 or length)
+     */
+    abstract void index(int from, int to);
+
+    /**
+     * @param capacity - initial capacity of index
+     * @return new instance for same input and options
+     */
+    abstract JsonStructural copy(int capacity);
+
+    /**
+     * Starts stage 1 with empty index in the middle of input
+     *
+     * @param escaped  - 1 if first char is escaped
+     * @param inString - -1 if first char is in string
+     * @param scalar   - 1 if char before first char is part of value (not quote)
+     */
+    final void carry(long escaped, long inString, long scalar) {
+        prevEscaped = escaped;
+        prevInString = inString;
+        prevScalar = scalar;
+        count = 0;
+    }
+
+    /**
+     * @return -1 if input after the last processed block is in string
+     */
+    final long inString() {
+        return prevInString;
+    }
+
+    final int[] entries() {
+        return index;
+    }
+
+    final int count() {
+        return count;
+    }
+
+    /**
+     * Index of whole input (can be shared by more instances, stage 2 doesn't change it)
+     */
+    final void entries(int[] index, int count, long inString) {
+        this.index = index;
+        this.count = count;
+        this.prevInString = inString;
+    }
+
+    /**
+     * Stage 1 - process block of 64 chars
+     *
+     * @param base       - position of first char of block
+     * @param quote      - bit mask of quotes
+     * @param backslash  - bit mask of backslashes
+     * @param operator   - bit mask of { } [ ] : ,
+     * @param whitespace - bit mask of whitespaces (chars after end of input must be marked as whitespaces)
+     */
+    final void block(int base, long quote, long backslash, long operator, long whitespace) {
+        long escaped;
+        if (backslash == 0) {
+            escaped = prevEscaped;
+            prevEscaped = 0;
+        } else {
+            backslash &= ~prevEscaped;
+            final long followsEscape = backslash << 1 | prevEscaped;
+            final long oddSequenceStarts = backslash & ~EVEN_BITS & ~followsEscape;
+            final long sequencesStartingOnEvenBits = oddSequenceStarts + backslash;
+            prevEscaped = Long.compareUnsigned(sequencesStartingOnEvenBits, backslash) < 0 ? 1L : 0L; //overflow
+            escaped = (EVEN_BITS ^ (sequencesStartingOnEvenBits << 1)) & followsEscape;
+        }
+        quote &= ~escaped;
+        long inString = quote; //prefix xor - opening quote and string content
+        inString ^= inString << 1;
+        inString ^= inString << 2;
+        inString ^= inString << 4;
+        inString ^= inString << 8;
+        inString ^= inString << 16;
+        inString ^= inString << 32;
+        inString ^= prevInString;
+        prevInString = inString >> 63;
+        final long scalar = ~(operator | whitespace);
+        final long nonQuoteScalar = scalar & ~quote;
+        final long followsNonQuoteScalar = nonQuoteScalar << 1 | prevScalar;
+        prevScalar = nonQuoteScalar >>> 63;
+        final long stringTail = inString ^ quote; //string content and closing quote
+        long structural = (operator | (scalar & ~followsNonQuoteScalar)) & ~stringTail;
+        if (count + 64 > index.length) {
+            index = Arrays.copyOf(index, Math.max(index.length + (index.length >> 1), count + 64));
+        }
+        final int[] idx = index;
+        int c = count;
+        while (structural != 0) {
+            idx[c++] = base + Long.numberOfTrailingZeros(structural);
+            structural &= structural - 1;
+        }
+        count = c;
+    }
+
+    /**
+     * @param lanes - 8 lanes of 8 bits
+     * @return lowest bit of every lane packed to 8 bits
+     */
+    static long bits(long lanes) {
+        return ((lanes & 0x0101010101010101L) * 0x0102040810204080L) >>> 56;
+    }
+
+    final int entry(int i) {
+        return i < count ? index[i] : length;
+    }
+
+    /**
+     * Stage 2
+     */
+    @SuppressWarnings("unchecked")
+    final <E> E parse(JsonBuilder builder) {
+        final int pos = entry(0);
+        allocate(pos, JsonLimits.CONTAINER_BYTES);
+        builder.buildStart();
+        final Object root;
+        switch (ch(pos)) {
+            case '{':
+                root = builder.createObject();
+                walk(builder, root, true, 1, -1);
+                break;
+            case '[':
+                root = builder.createArray();
+                walk(builder, root, false, 1, -1);
+                break;
+            default:
+                throw error(pos, "Expected { or [");
+        }
+        builder.buildEnd();
+        return (E) root;
+    }
+
+    /**
+     * Builds content of container
+     *
+     * @param p    - index entry after opening char of container
+     * @param stop - index entry of separator after last built value of container, -1 for whole container
+     * @return index entry after closing char of container or stop
+     */
+    @SuppressWarnings("unchecked")
+    final int walk(JsonBuilder builder, Object container, boolean isObject, int p, int stop) {
+        final JsonBuilderPrimitive primitive = JsonPrimitiveAdapter.of(builder);
+        final boolean unclosedString = prevInString != 0;
+        final int[] idx = index;
+        final int cnt = count;
+        final int maxDepth = limits.getMaxDepth();
+        final int maxContainerSize = limits.getMaxContainerSize();
+        int pos;
+        Object[] parents = new Object[32];
+        boolean[] parentIsObject = new boolean[32];
+        String[] attrs = new String[32];
+        int[] sizes = new int[32]; //count of values in parent
+        int depth = 0;
+        int size = 0;
+        boolean split = p - 1 == splitEntry;
+        for (; ; ) {
+            boolean completed = false;
+            String name = null;
+            Object sub = null;
+            boolean subIsObject = false;
+            if (split) {
+                split = false;
+                p = parallel.fill(builder, container, isObject);
+                completed = true;
+            } else {
+                pos = p < cnt ? idx[p++] : length;
+                char c = ch(pos);
+                if (isObject) {
+                    if (c == '"') {
+                        if (p >= cnt && unclosedString) {
+                            throw error(length, "Expected \"");
+                        }
+                        name = key(pos + 1, stringEnd(pos + 1, entry(p)));
+                        pos = p < cnt ? idx[p++] : length;
+                        if (ch(pos) != ':') {
+                            throw error(pos, "Expected :");
+                        }
+                        pos = p < cnt ? idx[p++] : length;
+                        c = ch(pos);
+                        switch (c) {
+                            case '"':
+                                if (p >= cnt && unclosedString) {
+                                    throw error(length, "Expected \"");
+                                }
+                                addStringToObject(primitive, container, name, pos + 1, stringEnd(pos + 1, entry(p)));
+                                break;
+                            case '{':
+                                builder.addObjectAttr(container, name);
+                                sub = builder.createObject();
+                                subIsObject = true;
+                                break;
+                            case '[':
+                                builder.addObjectAttr(container, name);
+                                sub = builder.createArray();
+                                break;
+                            case 't':
+                                literal(pos, "true", entry(p), "Expected } or ,");
+                                primitive.addBooleanToObject(container, name, true);
+                                break;
+                            case 'f':
+                                literal(pos, "false", entry(p), "Expected } or ,");
+                                primitive.addBooleanToObject(container, name, false);
+                                break;
+                            case 'n':
+                                literal(pos, "null", entry(p), "Expected } or ,");
+                                builder.addNullToObject(container, name);
+                                break;
+                            case '-':
+                            case '0':
+                            case '1':
+                            case '2':
+                            case '3':
+                            case '4':
+                            case '5':
+                            case '6':
+                            case '7':
+                            case '8':
+                            case '9':
+                                numberValue(pos, entry(p), "Expected } or ,").addToObject(primitive, container, name);
+                                break;
+                            default:
+                                throw error(pos, "Expected \" or number or boolean or null");
+                        }
+                    } else if (c == '}') {
+                        completed = true;
+                    } else {
+                        throw error(pos, "Expected \"");
+                    }
+                } else {
+                    switch (c) {
+                        case '"':
+                            if (p >= cnt && unclosedString) {
+                                throw error(length, "Expected \"");
+                            }
+                            addStringToArray(primitive, container, pos + 1, stringEnd(pos + 1, entry(p)));
+                            break;
+                        case '{':
+                            builder.addArrayComma(container);
+                            sub = builder.createObject();
+                            subIsObject = true;
+                            break;
+                        case '[':
+                            builder.addArrayComma(container);
+                            sub = builder.createArray();
+                            break;
+                        case 't':
+                            literal(pos, "true", entry(p), "Expected ] or ,");
+                            primitive.addBooleanToArray(container, true);
+                            break;
+                        case 'f':
+                            literal(pos, "false", entry(p), "Expected ] or ,");
+                            primitive.addBooleanToArray(container, false);
+                            break;
+                        case 'n':
+                            literal(pos, "null", entry(p), "Expected ] or ,");
+                            builder.addNullToArray(container);
+                            break;
+                        case '-':
+                        case '0':
+                        case '1':
+                        case '2':
+                        case '3':
+                        case '4':
+                        case '5':
+                        case '6':
+                        case '7':
+                        case '8':
+                        case '9':
+                            numberValue(pos, entry(p), "Expected ] or ,").addToArray(primitive, container);
+                            break;
+                        case ']':
+                            completed = true;
+                            break;
+                        default:
+                            throw error(pos, "Expected \" or ] or number or boolean or null");
+                    }
+                }
+            }
+            if (sub != null) {
+                if (depth == parents.length) {
+                    parents = Arrays.copyOf(parents, depth * 2);
+                    parentIsObject = Arrays.copyOf(parentIsObject, depth * 2);
+                    attrs = Arrays.copyOf(attrs, depth * 2);
+                    sizes = Arrays.copyOf(sizes, depth * 2);
+                }
+                parents[depth] = container;
+                parentIsObject[depth] = isObject;
+                attrs[depth] = name;
+                sizes[depth] = size;
+                depth++;
+                size = 0;
+                if (level + depth > maxDepth) {
+                    throw error(idx[p - 1], limits.depthError());
+                }
+                allocate(idx[p - 1], JsonLimits.CONTAINER_BYTES);
+                container = sub;
+                isObject = subIsObject;
+                split = p - 1 == splitEntry;
+                continue;
+            }
+            for (; ; ) {
+                if (!completed) {
+                    pos = p < cnt ? idx[p++] : length;
+                    if (++size > maxContainerSize) {
+                        throw error(pos, limits.containerError());
+                    }
+                    allocate(pos, JsonLimits.VALUE_BYTES);
+                    final char separator = ch(pos);
+                    if (depth == 0 && p - 1 == stop) {
+                        if (separator != ',' && separator != (isObject ? '}' : ']')) {
+                            throw error(pos, isObject ? "Expected } or ," : "Expected ] or ,");
+                        }
+                        return stop;
+                    }
+                    if (separator == ',') {
+                        break;
+                    }
+                    if (separator != (isObject ? '}' : ']')) {
+                        throw error(pos, isObject ? "Expected } or ," : "Expected ] or ,");
+                    }
+                }
+                completed = false;
+                if (isObject) {
+                    builder.objectCompleted(container);
+                } else {
+                    builder.arrayCompleted(container);
+                }
+                if (depth == 0) {
+                    return p;
+                }
+                depth--;
+                size = sizes[depth];
+                final Object parent = parents[depth];
+                parents[depth] = null;
+                if (parentIsObject[depth]) {
+                    if (isObject) {
+                        builder.addObjectToObject(parent, attrs[depth], container);
+                    } else {
+                        builder.addArrayToObject(parent, attrs[depth], container);
+                    }
+                } else {
+                    if (isObject) {
+                        builder.addObjectToArray(parent, container);
+                    } else {
+                        builder.addArrayToArray(parent, container);
+                    }
+                }
+                container = parent;
+                isObject = parentIsObject[depth];
+            }
+        }
+    }
+
+    /**
+     * @param start - position after opening quote
+     * @param next  - position of next index entry after string
+     * @return position of closing quote, length of string is checked
+     */
+    private int stringEnd(int start, int next) {
+        final int end = closingQuote(next);
+        if (end - start > limits.getMaxStringLength() && unescapedLength(start, end) > limits.getMaxStringLength()) {
+            throw error(start + limits.getMaxStringLength(), limits.stringError());
+        }
+        allocate(start, JsonLimits.valueBytes(end - start));
+        return end;
+    }
+
+    /**
+     * @return length of string content after unescaping
+     */
+    private int unescapedLength(int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            if (ch(i) == '\\') {
+                i += ch(i + 1) == 'u' ? 5 : 1;
+            }
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @param next - position of next index entry after string
+     * @return position of closing quote - only whitespaces can be between closing quote and next entry
+     */
+    private int closingQuote(int next) {
+        int end = next - 1;
+        while (isWhitespace(ch(end))) {
+            end--;
+        }
+        return end;
+    }
+
+    private void literal(int pos, String literal, int next, String separatorError) {
+        for (int i = 1; i < literal.length(); i++) {
+            if (ch(pos + i) != literal.charAt(i)) {
+                throw error(pos + i, "Expected " + literal);
+            }
+        }
+        checkValueEnd(pos + literal.length(), next, separatorError);
+    }
+
+    private JsonNumberValue numberValue(int pos, int next, String separatorError) {
+        final int count = scanNumber(pos, next, separatorError);
+        allocate(pos, JsonLimits.valueBytes(count));
+        if (numberValue == null) {
+            numberValue = new JsonNumberValue();
+        }
+        return numberValue.of(numberBuffer, count, numberFloating);
+    }
+
+    /**
+     * Copy number chars to numberBuffer
+     *
+     * @return count of number chars
+     */
+    private int scanNumber(int pos, int next, String separatorError) {
+        char[] buffer = numberBuffer;
+        if (next - pos + 1 > buffer.length) {
+            buffer = numberBuffer = new char[next - pos + 1];
+        }
+        int i = pos;
+        int n = 0;
+        char c = ch(i);
+        buffer[n++] = c;
+        if (c == '-') {
+            c = ch(++i);
+            if (c < '0' || c > '9') {
+                throw error(i, "Expected correct number");
+            }
+            buffer[n++] = c;
+        }
+        c = ch(++i);
+        while (c >= '0' && c <= '9') {
+            buffer[n++] = c;
+            c = ch(++i);
+        }
+        final boolean containsDot = c == '.';
+        if (containsDot) {
+            buffer[n++] = '.';
+            c = ch(++i);
+            while (c >= '0' && c <= '9') {
+                buffer[n++] = c;
+                c = ch(++i);
+            }
+            if (c == 'e' || c == 'E') {
+                buffer[n++] = 'e';
+                c = ch(++i);
+                if (c == '-' || c == '+' || (c >= '0' && c <= '9')) {
+                    buffer[n++] = c;
+                    c = ch(++i);
+                    while (c >= '0' && c <= '9') {
+                        buffer[n++] = c;
+                        c = ch(++i);
+                    }
+                }
+            }
+        }
+        if (n > limits.getMaxNumberLength()) {
+            throw error(pos + limits.getMaxNumberLength(), limits.numberError());
+        }
+        checkValueEnd(i, next, separatorError);
+        numberFloating = containsDot;
+        return n;
+    }
+
+    /**
+     * Value must be followed by whitespace or next entry
+     */
+    private void checkValueEnd(int pos, int next, String separatorError) {
+        if (pos < next) {
+            if (!isWhitespace(ch(pos))) {
+                throw error(pos, separatorError);
+            }
+        }
+    }
+
+    /**
+     * Decode escape sequences
+     *
+     * @param chars - string content
+     * @param start - position of first char of content in input
+     * @return decoded string
+     */
+    final String unescape(char[] chars, int from, int to, int start) {
+        final StringBuilder sb = new StringBuilder(to - from);
+        int i = from;
+        while (i < to) {
+            char c = chars[i++];
+            if (c == '\\') {
+                c = i < to ? chars[i++] : END_OF_INPUT;
+                switch (c) {
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        int unicodeChar = 0;
+                        for (int h = 0; h < 4; h++) {
+                            final char hex = i < to ? chars[i] : ch(start + i - from);
+                            final int digit = Character.digit(hex, 16);
+                            if (digit < 0 || hex > 'f') {
+                                throw error(start + i - from, "Expected 4 digits hex number");
+                            }
+                            unicodeChar = (unicodeChar << 4) + digit;
+                            i++;
+                        }
+                        c = (char) unicodeChar;
+                        break;
+                }
+            }
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return equal instance from key cache or key pool
+     */
+    final String canonical(String key) {
+        String cached = keyCache.find(key);
+        if (cached == null) {
+            cached = keyPool != null ? keyPool.get(key) : key;
+            keyCache.put(cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Counts bytes of parsed values against allocation budget
+     */
+    final void allocate(int pos, long bytes) {
+        if ((allocated += bytes) > limits.getMaxAllocation()) {
+            throw error(pos, limits.allocationError());
+        }
+    }
+
+    final long allocated() {
+        return allocated;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    final JsonException error(int pos, String error) {
+        return new JsonException("Parse error on position " + (pos < length ? pos + 1 : length) + " - " + error);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link JsonStructural} for UTF-8 bytes. Positions (also in error messages) are byte offsets.
+ * Only strings with non ASCII bytes are decoded (and validated), leading UTF-8 BOM is skipped.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonStructuralBytes extends JsonStructural {
+
+    private final byte[] input;
+    private CharsetDecoder decoder;
+
+    private JsonStructuralBytes(byte[] input, JsonParserOptions options, int capacity) {
+        super(input.length, options, capacity);
+        this.input = input;
+    }
+
+    static <E> E parse(byte[] input, JsonBuilder builder, JsonParserOptions options) {
+        checkLength(input.length, options);
+        if (JsonStructuralParallel.isParallel(input.length, options)) {
+            return new JsonStructuralParallel(new JsonStructuralBytes(input, options, 0)).parse(builder);
+        }
+        JsonStructuralBytes structural = new JsonStructuralBytes(input, options, Math.max(64, input.length >>> 2));
+        structural.index(0, input.length);
+        return structural.parse(builder);
+    }
+
+    @Override
+    void index(int from, int to) {
+        final byte[] in = input;
+        final int blocks = to & ~63;
+        long bom = from == 0 && length >= 3 && in[0] == (byte) 0xEF && in[1] == (byte) 0xBB && in[2] == (byte) 0xBF ? 0b111 : 0;
+        int base = from;
+        for (; base < blocks; base += 64) {
+            block(in, base, base, bom);
+            bom = 0;
+        }
+        if (base < to) {
+            final byte[] tail = new byte[64];
+            System.arraycopy(in, base, tail, 0, to - base);
+            Arrays.fill(tail, to - base, 64, (byte) ' ');
+            block(tail, 0, base, bom);
+        }
+    }
+
+    @Override
+    JsonStructural copy(int capacity) {
+        return new JsonStructuralBytes(input, options, capacity);
+    }
+
+    /**
+     * @param bom - leading BOM is marked as whitespace
+     */
+    private void block(byte[] in, int from, int base, long bom) {
+        final byte[] classes = CLASSES;
+        long quote = 0, backslash = 0, operator = 0, whitespace = bom;
+        for (int j = 0; j < 64; j += 8) {
+            long lanes = 0; //class of every byte in one byte
+            for (int k = 0; k < 8; k++) {
+                lanes |= (long) classes[in[from + j + k] & 0xFF] << (k << 3);
+            }
+            quote |= bits(lanes) << j;
+            backslash |= bits(lanes >>> 1) << j;
+            operator |= bits(lanes >>> 2) << j;
+            whitespace |= bits(lanes >>> 3) << j;
+        }
+        block(base, quote, backslash, operator, whitespace);
+    }
+
+    @Override
+    char ch(int pos) {
+        return pos < length ? (char) (input[pos] & 0xFF) : END_OF_INPUT;
+    }
+
+    @Override
+    String string(int start, int end) {
+        final byte[] in = input;
+        boolean escape = false;
+        int ascii = 0;
+        for (int i = start; i < end; i++) {
+            final byte b = in[i];
+            ascii |= b;
+            escape |= b == '\\';
+        }
+        if (!escape) {
+            return ascii >= 0 ? new String(in, start, end - start, StandardCharsets.ISO_8859_1) : new String(decode(start, end));
+        }
+        final char[] chars = ascii >= 0 ? new String(in, start, end - start, StandardCharsets.ISO_8859_1).toCharArray() : decode(start, end);
+        return unescape(chars, 0, chars.length, start);
+    }
+
+    @Override
+    String key(int start, int end) {
+        if (keyCache == null) {
+            return string(start, end);
+        }
+        final byte[] in = input;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            final byte b = in[i];
+            if (b == '\\' || b < 0) {
+                return canonical(string(start, end));
+            }
+            hash = 31 * hash + b;
+        }
+        String key = keyCache.find(in, start, end - start, hash);
+        if (key == null) {
+            key = keyPool != null ? keyPool.get(in, start, end - start, hash) : new String(in, start, end - start, StandardCharsets.ISO_8859_1);
+            keyCache.put(key);
+        }
+        return key;
+    }
+
+    private char[] decode(int start, int end) {
+        if (decoder == null) {
+            decoder = StandardCharsets.UTF_8.newDecoder();
+        }
+        final ByteBuffer bytes = ByteBuffer.wrap(input, start, end - start);
+        final CharBuffer chars = CharBuffer.allocate(end - start);
+        decoder.reset();
+        CoderResult result = decoder.decode(bytes, chars, true);
+        if (!result.isError()) {
+            result = decoder.flush(chars);
+        }
+        if (result.isError()) {
+            throw new JsonException("Invalid UTF-8 byte sequence on position " + bytes.position());
+        }
+        final char[] decoded = new char[chars.position()];
+        chars.flip().get(decoded);
+        return decoded;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+
+import java.util.Arrays;
+
+/**
+ * {@link JsonStructural} for char array
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonStructuralChars extends JsonStructural {
+
+    private final char[] input;
+
+    private JsonStructuralChars(char[] input, JsonParserOptions options, int capacity) {
+        super(input.length, options, capacity);
+        this.input = input;
+    }
+
+    static <E> E parse(char[] input, JsonBuilder builder, JsonParserOptions options) {
+        checkLength(input.length, options);
+        if (JsonStructuralParallel.isParallel(input.length, options)) {
+            return new JsonStructuralParallel(new JsonStructuralChars(input, options, 0)).parse(builder);
+        }
+        JsonStructuralChars structural = new JsonStructuralChars(input, options, Math.max(64, input.length >>> 2));
+        structural.index(0, input.length);
+        return structural.parse(builder);
+    }
+
+    @Override
+    void index(int from, int to) {
+        final char[] in = input;
+        final int blocks = to & ~63;
+        int base = from;
+        for (; base < blocks; base += 64) {
+            block(in, base, base);
+        }
+        if (base < to) {
+            final char[] tail = new char[64];
+            System.arraycopy(in, base, tail, 0, to - base);
+            Arrays.fill(tail, to - base, 64, ' ');
+            block(tail, 0, base);
+        }
+    }
+
+    @Override
+    JsonStructural copy(int capacity) {
+        return new JsonStructuralChars(input, options, capacity);
+    }
+
+    private void block(char[] in, int from, int base) {
+        final byte[] classes = CLASSES;
+        long quote = 0, backslash = 0, operator = 0, whitespace = 0;
+        for (int j = 0; j < 64; j += 8) {
+            long lanes = 0; //class of every char in one byte
+            for (int k = 0; k < 8; k++) {
+                final char c = in[from + j + k];
+                lanes |= (long) (c < 128 ? classes[c] : 0) << (k << 3);
+            }
+            quote |= bits(lanes) << j;
+            backslash |= bits(lanes >>> 1) << j;
+            operator |= bits(lanes >>> 2) << j;
+            whitespace |= bits(lanes >>> 3) << j;
+        }
+        block(base, quote, backslash, operator, whitespace);
+    }
+
+    @Override
+    char ch(int pos) {
+        return pos < length ? input[pos] : END_OF_INPUT;
+    }
+
+    @Override
+    String string(int start, int end) {
+        return plain(start, end) ? new String(input, start, end - start) : unescape(input, start, end, start);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void addStringToObject(JsonBuilderPrimitive builder, Object object, String attr, int start, int end) {
+        if (plain(start, end)) {
+            builder.addStringToObject(object, attr, input, start, end - start);
+        } else {
+            builder.addStringToObject(object, attr, unescape(input, start, end, start));
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void addStringToArray(JsonBuilderPrimitive builder, Object array, int start, int end) {
+        if (plain(start, end)) {
+            builder.addStringToArray(array, input, start, end - start);
+        } else {
+            builder.addStringToArray(array, unescape(input, start, end, start));
+        }
+    }
+
+    /**
+     * @return true if string has no escapes
+     */
+    private boolean plain(int start, int end) {
+        final char[] in = input;
+        for (int i = start; i < end; i++) {
+            if (in[i] == '\\') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    String key(int start, int end) {
+        if (keyCache == null) {
+            return string(start, end);
+        }
+        final char[] in = input;
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            final char c = in[i];
+            if (c == '\\') {
+                return canonical(unescape(in, start, end, start));
+            }
+            hash = 31 * hash + c;
+        }
+        String key = keyCache.find(in, start, end - start, hash);
+        if (key == null) {
+            key = keyPool != null ? keyPool.get(in, start, end - start, hash) : new String(in, start, end - start);
+            keyCache.put(key);
+        }
+        return key;
+    }
+}
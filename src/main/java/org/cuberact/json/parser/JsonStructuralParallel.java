@@ -0,0 +1,689 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.builder.JsonBuilder;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel {@link JsonStructural} for one big document.
+ * <p>
+ * Stage 1 - input is split to segments (on block boundaries) indexed concurrently. Escape and scalar state on segment start
+ * are computed from preceding chars, string state is speculated from first quote of segment (followed by : , } or ] means
+ * closing quote). Quote parity of every segment doesn't depend on speculation, so real string states are resolved afterwards
+ * and mispredicted segments are indexed again. Segment indexes are merged to one.
+ * <p>
+ * Stage 2 - container which holds most of document (root or its biggest descendant) is found, its values are split to ranges
+ * and built concurrently. Builder calls on this container are recorded and replayed in original order by calling thread,
+ * when sequential stage 2 reaches the container. Builder must be thread-safe.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonStructuralParallel {
+
+    static final int THRESHOLD = 1 << 20;
+    private static final int MIN_SEGMENT = 1 << 18;
+    private static final int MIN_RANGE = 1 << 12;
+    private static final int SPECULATION_WINDOW = 1 << 10;
+
+    private final JsonStructural structural;
+    private final ForkJoinPool pool;
+    private final List<ForkJoinTask<Recorder>> ranges = new ArrayList<>();
+    private int closeEntry;
+    private int splitLevel;
+
+    JsonStructuralParallel(JsonStructural structural) {
+        this.structural = structural;
+        this.pool = structural.options.getParallelPool();
+    }
+
+    static boolean isParallel(int length, JsonParserOptions options) {
+        final ForkJoinPool pool = options.getParallelPool();
+        return pool != null && pool.getParallelism() > 1 && length >= THRESHOLD;
+    }
+
+    <E> E parse(JsonBuilder builder) {
+        index();
+        try {
+            split(builder);
+            return structural.parse(builder);
+        } finally {
+            for (ForkJoinTask<Recorder> range : ranges) {
+                range.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Stage 1
+     */
+    private void index() {
+        final int length = structural.length;
+        final int count = (int) Math.max(1, Math.min(pool.getParallelism() * 4L, length / MIN_SEGMENT));
+        final int size = (length / count + 63) & ~63;
+        final List<Segment> segments = new ArrayList<>();
+        for (int from = 0; from < length; from += size) {
+            segments.add(new Segment(from, (int) Math.min((long) from + size, length)));
+        }
+        invokeAll(segments);
+        final List<Segment> mispredicted = new ArrayList<>();
+        long inString = 0;
+        for (Segment segment : segments) {
+            if (segment.inString != inString) {
+                segment.inString = inString;
+                mispredicted.add(segment);
+            }
+            inString ^= segment.parity;
+        }
+        invokeAll(mispredicted);
+        int total = 0;
+        for (Segment segment : segments) {
+            segment.offset = total;
+            total += segment.indexer.count();
+        }
+        final int[] merged = new int[total];
+        final List<Callable<Void>> copies = new ArrayList<>();
+        for (Segment segment : segments) {
+            copies.add(() -> {
+                System.arraycopy(segment.indexer.entries(), 0, merged, segment.offset, segment.indexer.count());
+                return null;
+            });
+        }
+        invokeAll(copies);
+        structural.entries(merged, total, inString);
+    }
+
+    /**
+     * Stage 2 - finds container for split and starts building of its values
+     */
+    private void split(JsonBuilder builder) {
+        final int[] idx = structural.entries();
+        final int cnt = structural.count();
+        if (cnt == 0 || !isOpening(structural.ch(idx[0]))) {
+            return; //error is thrown by sequential stage 2
+        }
+        final int target = Math.max(MIN_RANGE, cnt / (pool.getParallelism() * 8));
+        final List<int[]> bounds = new ArrayList<>();
+        int open = 0;
+        int level = 1;
+        int values;
+        boolean isObject;
+        for (; ; ) {
+            isObject = structural.ch(idx[open]) == '{';
+            bounds.clear();
+            values = 0;
+            int depth = 0;
+            int rangeStart = open + 1;
+            int childStart = open + 1;
+            int biggestValue = -1;
+            int biggestSize = 0;
+            int i = open + 1;
+            for (; i < cnt; i++) {
+                final char c = structural.ch(idx[i]);
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if ((c == '}' || c == ']') && depth > 0) {
+                    depth--;
+                } else if (depth == 0 && (c == ',' || c == '}' || c == ']')) {
+                    values++;
+                    if (i - childStart > biggestSize) {
+                        biggestSize = i - childStart;
+                        biggestValue = isObject ? childStart + 2 : childStart;
+                    }
+                    childStart = i + 1;
+                    if (i > rangeStart && (i + 1 - rangeStart >= target || c != ',')) {
+                        bounds.add(new int[]{rangeStart, i});
+                        rangeStart = i + 1;
+                    }
+                    if (c != ',') {
+                        break;
+                    }
+                }
+            }
+            if (i == cnt || structural.ch(idx[i]) != (isObject ? '}' : ']')) {
+                return; //unclosed or mismatched container, error is thrown by sequential stage 2
+            }
+            closeEntry = i;
+            if (biggestSize * 2 > i - open && biggestValue < cnt && isOpening(structural.ch(idx[biggestValue]))) {
+                open = biggestValue;
+                level++;
+                continue;
+            }
+            break;
+        }
+        if (bounds.size() < 2 || values > structural.limits.getMaxContainerSize()) {
+            return; //too big container fails in sequential stage 2
+        }
+        splitLevel = level;
+        final JsonBuilder recorded = builder;
+        final boolean object = isObject;
+        for (int[] range : bounds) {
+            ranges.add(pool.submit(() -> build(recorded, object, range[0], range[1])));
+        }
+        structural.parallel = this;
+        structural.splitEntry = open;
+    }
+
+    private Recorder build(JsonBuilder builder, boolean isObject, int start, int stop) {
+        final JsonStructural worker = structural.copy(0);
+        worker.entries(structural.entries(), structural.count(), structural.inString());
+        worker.level = splitLevel;
+        final Recorder recorder = builder instanceof JsonBuilderPrimitive ? new RecorderPrimitive(builder) : new Recorder(builder);
+        try {
+            worker.walk(recorder, Recorder.CONTAINER, isObject, start, stop);
+        } catch (RuntimeException e) {
+            recorder.error = e; //rethrown by calling thread without wrapping
+        }
+        recorder.allocated = worker.allocated();
+        return recorder;
+    }
+
+    /**
+     * Called by sequential stage 2 on split container
+     *
+     * @return index entry after closing char of container
+     */
+    int fill(JsonBuilder builder, Object container, boolean isObject) {
+        for (ForkJoinTask<Recorder> range : ranges) {
+            final Recorder recorder = range.join();
+            if (recorder.error != null) {
+                throw recorder.error;
+            }
+            structural.allocate(structural.entry(closeEntry), recorder.allocated);
+            recorder.replay(builder, container, isObject);
+        }
+        return closeEntry + 1;
+    }
+
+    private <T> void invokeAll(List<? extends Callable<T>> tasks) {
+        try {
+            for (Future<?> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new JsonException(e.getCause());
+        }
+    }
+
+    private static boolean isOpening(char c) {
+        return c == '{' || c == '[';
+    }
+
+    /**
+     * Part of input for stage 1
+     */
+    private final class Segment implements Callable<Void> {
+
+        private final int from;
+        private final int to;
+        private final JsonStructural indexer;
+        private long inString;
+        private long parity;
+        private int offset;
+
+        private Segment(int from, int to) {
+            this.from = from;
+            this.to = to;
+            this.indexer = structural.copy(Math.max(64, (to - from) >>> 2));
+            this.inString = speculate();
+        }
+
+        @Override
+        public Void call() {
+            indexer.carry(escaped(), inString, scalar());
+            indexer.index(from, to);
+            parity = indexer.inString() ^ inString;
+            return null;
+        }
+
+        /**
+         * @return 1 if char on from is escaped - odd count of backslashes before
+         */
+        private long escaped() {
+            int i = from - 1;
+            while (i >= 0 && structural.ch(i) == '\\') {
+                i--;
+            }
+            return (from - 1 - i) & 1;
+        }
+
+        /**
+         * @return 1 if char before from is part of value, but not quote
+         */
+        private long scalar() {
+            if (from == 0) {
+                return 0;
+            }
+            final char c = structural.ch(from - 1);
+            final int type = c < JsonStructural.CLASSES.length ? JsonStructural.CLASSES[c] : 0;
+            return (type & (JsonStructural.QUOTE | JsonStructural.OPERATOR | JsonStructural.WHITESPACE)) == 0 ? 1 : 0;
+        }
+
+        /**
+         * @return -1 if from is probably in string
+         */
+        private long speculate() {
+            final int end = Math.min(to, from + SPECULATION_WINDOW);
+            boolean escape = escaped() != 0;
+            for (int i = from; i < end; i++) {
+                final char c = structural.ch(i);
+                if (escape) {
+                    escape = false;
+                } else if (c == '\\') {
+                    escape = true;
+                } else if (c == '"') {
+                    char next = structural.ch(++i);
+                    while (next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+                        next = structural.ch(++i);
+                    }
+                    return next == ':' || next == ',' || next == '}' || next == ']' ? -1 : 0;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Records builder calls on {@link #CONTAINER}, other calls are delegated
+     */
+    @SuppressWarnings("unchecked")
+    private static class Recorder implements JsonBuilder<Object, Object>, JsonNumberValue.Delegating {
+
+        static final Object CONTAINER = new Object();
+
+        static final byte SEPARATOR = 0;
+        static final byte OBJECT = 1;
+        static final byte ARRAY = 2;
+        static final byte STRING = 3;
+        static final byte BOOLEAN = 4;
+        static final byte NULL = 5;
+        static final byte NUMBER = 6;
+        static final byte LONG = 7;
+        static final byte DOUBLE = 8;
+        static final byte PRIMITIVE_BOOLEAN = 9;
+
+        final JsonBuilder delegate;
+        private byte[] types = new byte[64];
+        private String[] attrs = new String[64];
+        private Object[] values = new Object[64];
+        private long[] primitives;
+        private int size;
+        RuntimeException error;
+        long allocated;
+
+        Recorder(JsonBuilder delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public JsonBuilder delegate() {
+            return delegate;
+        }
+
+        final void record(byte type, String attr, Object value) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                attrs = Arrays.copyOf(attrs, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+                if (primitives != null) {
+                    primitives = Arrays.copyOf(primitives, size * 2);
+                }
+            }
+            types[size] = type;
+            attrs[size] = attr;
+            values[size] = value;
+            size++;
+        }
+
+        final void record(byte type, String attr, long primitive) {
+            if (primitives == null) {
+                primitives = new long[types.length];
+            }
+            record(type, attr, null);
+            primitives[size - 1] = primitive;
+        }
+
+        void replay(JsonBuilder builder, Object container, boolean isObject) {
+            for (int i = 0; i < size; i++) {
+                final String attr = attrs[i];
+                final Object value = values[i];
+                if (isObject) {
+                    switch (types[i]) {
+                        case SEPARATOR:
+                            builder.addObjectAttr(container, attr);
+                            break;
+                        case OBJECT:
+                            builder.addObjectToObject(container, attr, value);
+                            break;
+                        case ARRAY:
+                            builder.addArrayToObject(container, attr, value);
+                            break;
+                        case STRING:
+                            builder.addStringToObject(container, attr, (String) value);
+                            break;
+                        case BOOLEAN:
+                            builder.addBooleanToObject(container, attr, (Boolean) value);
+                            break;
+                        case NULL:
+                            builder.addNullToObject(container, attr);
+                            break;
+                        case NUMBER:
+                            builder.addNumberToObject(container, attr, (JsonNumber) value);
+                            break;
+                        case LONG:
+                            ((JsonBuilderPrimitive) builder).addLongToObject(container, attr, primitives[i]);
+                            break;
+                        case PRIMITIVE_BOOLEAN:
+                            ((JsonBuilderPrimitive) builder).addBooleanToObject(container, attr, primitives[i] != 0);
+                            break;
+                        default:
+                            ((JsonBuilderPrimitive) builder).addDoubleToObject(container, attr, Double.longBitsToDouble(primitives[i]));
+                    }
+                } else {
+                    switch (types[i]) {
+                        case SEPARATOR:
+                            builder.addArrayComma(container);
+                            break;
+                        case OBJECT:
+                            builder.addObjectToArray(container, value);
+                            break;
+                        case ARRAY:
+                            builder.addArrayToArray(container, value);
+                            break;
+                        case STRING:
+                            builder.addStringToArray(container, (String) value);
+                            break;
+                        case BOOLEAN:
+                            builder.addBooleanToArray(container, (Boolean) value);
+                            break;
+                        case NULL:
+                            builder.addNullToArray(container);
+                            break;
+                        case NUMBER:
+                            builder.addNumberToArray(container, (JsonNumber) value);
+                            break;
+                        case LONG:
+                            ((JsonBuilderPrimitive) builder).addLongToArray(container, primitives[i]);
+                            break;
+                        case PRIMITIVE_BOOLEAN:
+                            ((JsonBuilderPrimitive) builder).addBooleanToArray(container, primitives[i] != 0);
+                            break;
+                        default:
+                            ((JsonBuilderPrimitive) builder).addDoubleToArray(container, Double.longBitsToDouble(primitives[i]));
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void buildStart() {
+            delegate.buildStart();
+        }
+
+        @Override
+        public void buildEnd() {
+            delegate.buildEnd();
+        }
+
+        @Override
+        public Object createObject() {
+            return delegate.createObject();
+        }
+
+        @Override
+        public Object createArray() {
+            return delegate.createArray();
+        }
+
+        @Override
+        public void objectCompleted(Object object) {
+            if (object != CONTAINER) {
+                delegate.objectCompleted(object);
+            }
+        }
+
+        @Override
+        public void arrayCompleted(Object array) {
+            if (array != CONTAINER) {
+                delegate.arrayCompleted(array);
+            }
+        }
+
+        @Override
+        public void addObjectAttr(Object object, String attr) {
+            if (object == CONTAINER) {
+                record(SEPARATOR, attr, null);
+            } else {
+                delegate.addObjectAttr(object, attr);
+            }
+        }
+
+        @Override
+        public void addArrayComma(Object array) {
+            if (array == CONTAINER) {
+                record(SEPARATOR, null, null);
+            } else {
+                delegate.addArrayComma(array);
+            }
+        }
+
+        @Override
+        public void addObjectToObject(Object object, String attr, Object value) {
+            if (object == CONTAINER) {
+                record(OBJECT, attr, value);
+            } else {
+                delegate.addObjectToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addArrayToObject(Object object, String attr, Object value) {
+            if (object == CONTAINER) {
+                record(ARRAY, attr, value);
+            } else {
+                delegate.addArrayToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addStringToObject(Object object, String attr, String value) {
+            if (object == CONTAINER) {
+                record(STRING, attr, value);
+            } else {
+                delegate.addStringToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addBooleanToObject(Object object, String attr, Boolean value) {
+            if (object == CONTAINER) {
+                record(BOOLEAN, attr, value);
+            } else {
+                delegate.addBooleanToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addNullToObject(Object object, String attr) {
+            if (object == CONTAINER) {
+                record(NULL, attr, null);
+            } else {
+                delegate.addNullToObject(object, attr);
+            }
+        }
+
+        @Override
+        public void addNumberToObject(Object object, String attr, JsonNumber value) {
+            if (object == CONTAINER) {
+                record(NUMBER, attr, value);
+            } else {
+                delegate.addNumberToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addObjectToArray(Object array, Object value) {
+            if (array == CONTAINER) {
+                record(OBJECT, null, value);
+            } else {
+                delegate.addObjectToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addArrayToArray(Object array, Object value) {
+            if (array == CONTAINER) {
+                record(ARRAY, null, value);
+            } else {
+                delegate.addArrayToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addStringToArray(Object array, String value) {
+            if (array == CONTAINER) {
+                record(STRING, null, value);
+            } else {
+                delegate.addStringToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addBooleanToArray(Object array, Boolean value) {
+            if (array == CONTAINER) {
+                record(BOOLEAN, null, value);
+            } else {
+                delegate.addBooleanToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addNullToArray(Object array) {
+            if (array == CONTAINER) {
+                record(NULL, null, null);
+            } else {
+                delegate.addNullToArray(array);
+            }
+        }
+
+        @Override
+        public void addNumberToArray(Object array, JsonNumber value) {
+            if (array == CONTAINER) {
+                record(NUMBER, null, value);
+            } else {
+                delegate.addNumberToArray(array, value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static final class RecorderPrimitive extends Recorder implements JsonBuilderPrimitive<Object, Object> {
+
+        RecorderPrimitive(JsonBuilder delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void addLongToObject(Object object, String attr, long value) {
+            if (object == CONTAINER) {
+                record(LONG, attr, value);
+            } else {
+                ((JsonBuilderPrimitive) delegate).addLongToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addDoubleToObject(Object object, String attr, double value) {
+            if (object == CONTAINER) {
+                record(DOUBLE, attr, Double.doubleToRawLongBits(value));
+            } else {
+                ((JsonBuilderPrimitive) delegate).addDoubleToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addLongToArray(Object array, long value) {
+            if (array == CONTAINER) {
+                record(LONG, null, value);
+            } else {
+                ((JsonBuilderPrimitive) delegate).addLongToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addDoubleToArray(Object array, double value) {
+            if (array == CONTAINER) {
+                record(DOUBLE, null, Double.doubleToRawLongBits(value));
+            } else {
+                ((JsonBuilderPrimitive) delegate).addDoubleToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addBooleanToObject(Object object, String attr, boolean value) {
+            if (object == CONTAINER) {
+                record(PRIMITIVE_BOOLEAN, attr, value ? 1 : 0);
+            } else {
+                ((JsonBuilderPrimitive) delegate).addBooleanToObject(object, attr, value);
+            }
+        }
+
+        @Override
+        public void addBooleanToArray(Object array, boolean value) {
+            if (array == CONTAINER) {
+                record(PRIMITIVE_BOOLEAN, null, value ? 1 : 0);
+            } else {
+                ((JsonBuilderPrimitive) delegate).addBooleanToArray(array, value);
+            }
+        }
+
+        @Override
+        public void addStringToObject(Object object, String attr, char[] chars, int offset, int length) {
+            if (object == CONTAINER) {
+                record(STRING, attr, new String(chars, offset, length)); //chars are not valid after this call
+            } else {
+                ((JsonBuilderPrimitive) delegate).addStringToObject(object, attr, chars, offset, length);
+            }
+        }
+
+        @Override
+        public void addStringToArray(Object array, char[] chars, int offset, int length) {
+            if (array == CONTAINER) {
+                record(STRING, null, new String(chars, offset, length)); //chars are not valid after this call
+            } else {
+                ((JsonBuilderPrimitive) delegate).addStringToArray(array, chars, offset, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
+
+/**
+ * Scanning loops of {@link JsonScanner} over char window - version for Java 17+.
+ * <p>
+ * If module jdk.incubator.vector is present (--add-modules jdk.incubator.vector), longer runs of chars are classified
+ * by {@link JsonKernelsVector} - one vector of chars in one step. First chars are always checked one by one,
+ * so short runs (one space after colon, short strings and numbers) are not slowed down. Vectors can be disabled
+ * by system property cuberact.json.vector=false. Incubator API can differ in other Java versions, so kernels are
+ * checked once before use and scalar loops are used on any failure.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonKernels {
+
+    private static final boolean VECTOR = vectorAvailable();
+    private static final int PROBE = 16;
+
+    private JsonKernels() {
+    }
+
+    private static boolean vectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("cuberact.json.vector", "true"))) {
+            return false;
+        }
+        Optional<Module> vector = ModuleLayer.boot().findModule("jdk.incubator.vector");
+        if (vector.isEmpty()) {
+            return false;
+        }
+        try {
+            JsonKernels.class.getModule().addReads(vector.get());
+            return JsonKernelsVector.LANES >= 8 && selfTest();
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    private static boolean selfTest() {
+        final char[] w = new char[JsonKernelsVector.LANES * 2];
+        Arrays.fill(w, ' ');
+        w[w.length - 1] = '"';
+        if (JsonKernelsVector.whitespaceEnd(w, 0, w.length) != w.length - 1) return false;
+        Arrays.fill(w, '0');
+        w[w.length - 1] = '\\';
+        if (JsonKernelsVector.digitsEnd(w, 0, w.length) != w.length - 1) return false;
+        return JsonKernelsVector.stringEnd(w, 0, w.length) == w.length - 1;
+    }
+
+    /**
+     * @return index of first char which is not whitespace or to
+     */
+    static int whitespaceEnd(char[] w, int from, int to) {
+        int i = from;
+        final int probe = Math.min(to, from + PROBE);
+        while (i < probe) {
+            final char c = w[i];
+            if (c > ' ' || !(c == ' ' || c == '\n' || c == '\r' || c == '\t')) {
+                return i;
+            }
+            i++;
+        }
+        if (VECTOR) {
+            i = JsonKernelsVector.whitespaceEnd(w, i, to);
+        }
+        while (i < to) {
+            final char c = w[i];
+            if (c > ' ' || !(c == ' ' || c == '\n' || c == '\r' || c == '\t')) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return index of first " or \ or {@link org.cuberact.json.input.JsonInput#END_OF_INPUT} or to
+     */
+    static int stringEnd(char[] w, int from, int to) {
+        int i = from;
+        final int probe = Math.min(to, from + PROBE);
+        while (i < probe) {
+            final char c = w[i];
+            if (c == '"' || c == '\\' || c == END_OF_INPUT) {
+                return i;
+            }
+            i++;
+        }
+        if (VECTOR) {
+            i = JsonKernelsVector.stringEnd(w, i, to);
+        }
+        while (i < to) {
+            final char c = w[i];
+            if (c == '"' || c == '\\' || c == END_OF_INPUT) {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * @return index of first char which is not digit or to
+     */
+    static int digitsEnd(char[] w, int from, int to) {
+        int i = from;
+        final int probe = Math.min(to, from + PROBE);
+        while (i < probe) {
+            final char c = w[i];
+            if (c < '0' || c > '9') {
+                return i;
+            }
+            i++;
+        }
+        if (VECTOR) {
+            i = JsonKernelsVector.digitsEnd(w, i, to);
+        }
+        while (i < to) {
+            final char c = w[i];
+            if (c < '0' || c > '9') {
+                return i;
+            }
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
+
+/**
+ * Vector kernels of {@link JsonKernels}. Every method processes whole vectors only and returns index of first matching
+ * char or index where less than one vector remains - the rest is processed by caller.
+ * <p>
+ * Loaded only if module jdk.incubator.vector is present.
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+final class JsonKernelsVector {
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    static final int LANES = SPECIES.length();
+
+    private JsonKernelsVector() {
+    }
+
+    static int whitespaceEnd(char[] w, int from, int to) {
+        int i = from;
+        for (final int bound = to - LANES; i <= bound; i += LANES) {
+            final ShortVector v = ShortVector.fromCharArray(SPECIES, w, i);
+            final VectorMask<Short> whitespace = v.eq((short) ' ')
+                    .or(v.eq((short) '\n'))
+                    .or(v.eq((short) '\r'))
+                    .or(v.eq((short) '\t'));
+            if (!whitespace.allTrue()) {
+                return i + whitespace.not().firstTrue();
+            }
+        }
+        return i;
+    }
+
+    static int stringEnd(char[] w, int from, int to) {
+        int i = from;
+        for (final int bound = to - LANES; i <= bound; i += LANES) {
+            final ShortVector v = ShortVector.fromCharArray(SPECIES, w, i);
+            final VectorMask<Short> end = v.eq((short) '"')
+                    .or(v.eq((short) '\\'))
+                    .or(v.eq((short) END_OF_INPUT));
+            if (end.anyTrue()) {
+                return i + end.firstTrue();
+            }
+        }
+        return i;
+    }
+
+    static int digitsEnd(char[] w, int from, int to) {
+        int i = from;
+        for (final int bound = to - LANES; i <= bound; i += LANES) {
+            final ShortVector v = ShortVector.fromCharArray(SPECIES, w, i);
+            //chars above Short.MAX_VALUE are negative, so they are below '0' too
+            final VectorMask<Short> other = v.compare(VectorOperators.LT, '0').or(v.compare(VectorOperators.GT, '9'));
+            if (other.anyTrue()) {
+                return i + other.firstTrue();
+            }
+        }
+        return i;
+    }
+}
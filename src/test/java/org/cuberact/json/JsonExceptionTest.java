@@ -32,4 +32,13 @@ public class JsonExceptionTest {
         assertEquals("text2", jsonException.getMessage());
         assertEquals(runtimeException, jsonException.getCause());
     }
+
+    @Test
+    public void wrappedCause() {
+        JsonException cause = new JsonException("Parse error on position 1 - Expected [");
+        JsonException wrapped = new JsonException(cause);
+        assertEquals("Parse error on position 1 - Expected [", wrapped.getMessage());
+        assertEquals(cause, wrapped.getCause());
+        assertEquals("java.lang.RuntimeException: text", new JsonException(new RuntimeException("text")).getMessage());
+    }
 }
@@ -112,6 +112,21 @@ public class JsonNumberTest {
         assertEquals(new BigDecimal(".45"), jsonNumber.asBigDecimal());
     }
 
+    @Test
+    public void convertBig() {
+        String[] numbers = {"123456789012345678901234567890", "-123456789012345678901234567890.123456789", "12345.67e+13", "-0.0",
+                "0.000000000000000000000000000000001234", "1.7976931348623157e308", "999999999999999999", "-9999999999999999999.5"};
+        for (String number : numbers) {
+            JsonNumber jsonNumber = new JsonNumber(number.toCharArray(), number.length(), number.contains("."));
+            assertEquals(new BigDecimal(number), jsonNumber.asBigDecimal());
+            assertEquals(new BigDecimal(number).scale(), jsonNumber.asBigDecimal().scale());
+            assertEquals(Double.parseDouble(number), jsonNumber.asDouble());
+            assertEquals(Float.parseFloat(number), jsonNumber.asFloat());
+            String integerPart = number.contains(".") ? number.substring(0, number.indexOf('.')) : number;
+            assertEquals(new BigInteger(integerPart), jsonNumber.asBigInt());
+        }
+    }
+
     @Test
     public void convertException() {
         assertThrows(JsonException.class, () -> {
@@ -17,7 +17,9 @@
 package org.cuberact.json.input;
 
 import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
 import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
 import org.cuberact.json.formatter.JsonFormatter;
 import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
 import org.cuberact.json.parser.JsonParser;
@@ -26,7 +28,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 
 
 /**
@@ -62,6 +70,120 @@ public class JsonInputTest {
         assertEquals(expected, json.toString(JsonFormatter.PACKED()));
     }
 
+    @Test
+    public void jsonInputUtf8() {
+        Json json = new JsonParser().parse(jsonAsString.getBytes(StandardCharsets.UTF_8));
+        assertEquals(expected, json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void jsonInputUtf8ByteBuffer() {
+        byte[] bytes = jsonAsString.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        Json json = new JsonParser().parse(direct);
+        assertEquals(expected, json.toString(JsonFormatter.PACKED()));
+        assertEquals(0, direct.position());
+        json = new JsonParser().parse(ByteBuffer.wrap(bytes));
+        assertEquals(expected, json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void jsonInputUtf8MultiByteChars() {
+        String input = "[\"\uFEFFž€\uD83D\uDE00\", \"ascii\"]";
+        byte[] bytes = ("\uFEFF" + input).getBytes(StandardCharsets.UTF_8);
+        Json json = new JsonParser().parse(bytes);
+        assertEquals(input.replace(" ", ""), json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void jsonInputUtf8InvalidSequence() {
+        assertThrows(JsonException.class, () -> new JsonParser().parse(new byte[]{'[', '"', (byte) 0xC3, '"', ']'}));
+        assertThrows(JsonException.class, () -> new JsonParser().parse(new byte[]{'[', '"', (byte) 0xE2, (byte) 0x82}));
+        assertThrows(JsonException.class, () -> new JsonParser().parse(new byte[]{'[', '"', (byte) 0xC0, (byte) 0x80, '"', ']'}));
+    }
+
+    @Test
+    public void longInputCrossingWindows() {
+        JsonArray array = new JsonArray();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 700; i++) {
+            text.append(i % 7 == 0 ? "\u011B\uD83D\uDE00\"\\" : "abcdefgh");
+            array.add(new JsonObject()
+                    .add("text" + i, text.toString())
+                    .add("number", -12.125 * i)
+                    .add("values", new JsonArray().add(true).add(null).add(i)));
+        }
+        String expectedJson = array.toString(JsonFormatter.PACKED());
+        String prettyJson = array.toString(JsonFormatter.PRETTY());
+        JsonParser parser = new JsonParser();
+        assertEquals(expectedJson, ((Json) parser.parse(prettyJson)).toString(JsonFormatter.PACKED()));
+        assertEquals(expectedJson, ((Json) parser.parse(new StringBuilder(prettyJson))).toString(JsonFormatter.PACKED()));
+        assertEquals(expectedJson, ((Json) parser.parse(CharBuffer.wrap(prettyJson))).toString(JsonFormatter.PACKED()));
+        assertEquals(expectedJson, ((Json) parser.parse(prettyJson.toCharArray())).toString(JsonFormatter.PACKED()));
+        assertEquals(expectedJson, ((Json) parser.parse(new StringReader(prettyJson))).toString(JsonFormatter.PACKED()));
+        assertEquals(expectedJson, ((Json) parser.parse(prettyJson.getBytes(StandardCharsets.UTF_8))).toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void jsonInputMappedFile() throws IOException {
+        Path file = Files.createTempFile("cuberact-json", ".json");
+        try {
+            Files.write(file, jsonAsString.getBytes(StandardCharsets.UTF_8));
+            Json json = new JsonParser().parse(file);
+            assertEquals(expected, json.toString(JsonFormatter.PACKED()));
+            for (int chunkSize = 4; chunkSize < 12; chunkSize++) {
+                try (JsonInputMappedFile input = new JsonInputMappedFile(file, chunkSize)) {
+                    json = new JsonParser().parse(input);
+                    assertEquals(expected, json.toString(JsonFormatter.PACKED()));
+                }
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void jsonInputMappedFileEndOfInput() throws IOException {
+        Path file = Files.createTempFile("cuberact-json", ".json");
+        try {
+            Files.write(file, "123".getBytes(StandardCharsets.UTF_8));
+            try (JsonInputMappedFile input = new JsonInputMappedFile(file, 4)) {
+                readInputWithAsserts(input);
+                assertEquals(3L, input.positionLong());
+            }
+            Files.write(file, new byte[]{'[', '"', (byte) 0xE2, (byte) 0x82});
+            try (JsonInputMappedFile input = new JsonInputMappedFile(file, 4)) {
+                assertThrows(JsonException.class, () -> new JsonParser().parse(input));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void jsonInputReaderPositionOver2G() {
+        Reader endless = new Reader() {
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                return length; //content doesn't matter, only count of chars
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        JsonInputReader input = new JsonInputReader(endless, 1 << 20);
+        long skipped = 0;
+        while (skipped <= Integer.MAX_VALUE) {
+            input.fill();
+            input.cursor(input.limit());
+            skipped += input.limit();
+        }
+        assertEquals(skipped, input.positionLong());
+        assertEquals(Integer.MAX_VALUE, input.position());
+    }
+
     @Test
     public void jsonInputCharSequenceEndOfInput() {
         readInputWithAsserts(new JsonInputCharSequence("123"));
@@ -72,6 +194,12 @@ public class JsonInputTest {
         readInputWithAsserts(new JsonInputCharArray("123".toCharArray()));
     }
 
+    @Test
+    public void jsonInputUtf8EndOfInput() {
+        readInputWithAsserts(new JsonInputUtf8("123".getBytes(StandardCharsets.UTF_8)));
+        readInputWithAsserts(new JsonInputUtf8("x123x".getBytes(StandardCharsets.UTF_8), 1, 3));
+    }
+
     @Test
     public void jsonInputReaderEndOfInput() {
         readInputWithAsserts(new JsonInputReader(new StringReader("123")));
@@ -92,12 +220,31 @@ public class JsonInputTest {
         assertEquals(3, input.position());
     }
 
+    @Test
+    public void jsonInputReaderSmallWindow() {
+        readInputWithAsserts(new JsonInputReader(new StringReader("123"), 1));
+        readInputWithAsserts(new JsonInputReader(new StringReader("123"), 2));
+        Json json = new JsonParser().parse(new JsonInputReader(new StringReader(jsonAsString), 3));
+        assertEquals(expected, json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void jsonInputReaderErrorPositionAfterRefill() {
+        JsonException e = assertThrows(JsonException.class, () -> new JsonParser().parse(new JsonInputReader(new StringReader("[1, 2, 3, x]"), 4)));
+        assertEquals("Parse error on position 11 - Expected \" or ] or number or boolean or null", e.getMessage());
+    }
+
+    @Test
+    public void jsonInputReaderWrongWindowSize() {
+        assertThrows(IllegalArgumentException.class, () -> new JsonInputReader(new StringReader("[]"), 0));
+    }
+
     @Test
     public void jsonInputReaderException() {
         assertThrows(JsonException.class, () -> {
             JsonInput input = new JsonInputReader(new StringReader("123") {
                 @Override
-                public int read() throws IOException {
+                public int read(char[] buffer, int offset, int length) throws IOException {
                     throw new IOException("simulated exception");
                 }
             });
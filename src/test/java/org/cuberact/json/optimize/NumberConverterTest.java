@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.optimize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Random;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class NumberConverterTest {
+
+    @Test
+    public void testConstructorIsPrivate() throws Throwable {
+        Constructor<NumberConverter> constructor = NumberConverter.class.getDeclaredConstructor();
+        assertTrue(Modifier.isPrivate(constructor.getModifiers()));
+        constructor.setAccessible(true);
+        constructor.newInstance();
+    }
+
+    @Test
+    public void edgeCases() {
+        String[] numbers = {"0", "-0", "0.0", "-0.0", "1", "-1.5", "1e10", "1.0e-400", "1.0e400", "-1.0e400", ".45", "5.", "12345.67E+13",
+                "4.9e-324", "2.4703282292062327e-324", "2.4703282292062328e-324", "2.2250738585072011e-308", "2.2250738585072012e-308",
+                "1.7976931348623157e308", "1.7976931348623158e308", "1.7976931348623159e308", "9007199254740993", "9007199254740993.0",
+                "1.00000000000000011102230246251565404236316680908203125", "1.00000000000000011102230246251565404236316680908203124",
+                "1.00000000000000011102230246251565404236316680908203126", "7.038531e-26", "3.4028235e38", "3.4028236e38", "1.4e-45", "7.0e-46",
+                "1.17549435e-38", "123456789012345678901234567890.5", "0.000000000000000000000000000000001234", "9999999999999999999.0",
+                "18446744073709551615.0", "18446744073709551616.0", "Infinity", "-Infinity", "NaN", "1.0d", " 1.5"};
+        for (String number : numbers) {
+            assertSame(number);
+        }
+    }
+
+    @Test
+    public void random() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong() & 0x7FEFFFFFFFFFFFFFL);
+            assertSame(Double.toString(d));
+            assertSame(Double.toString(-d * random.nextDouble()));
+            assertSame(Float.toString(Float.intBitsToFloat(random.nextInt() & 0x7F7FFFFF)));
+            assertSame(new BigDecimal(d).toString().replace('E', 'e'));
+            assertSame(new BigDecimal(d).add(new BigDecimal(Math.nextUp(d))).divide(BigDecimal.valueOf(2)).toString()); //halfway
+            assertSame((random.nextLong() >>> random.nextInt(64)) + "e" + (random.nextInt(700) - 360));
+            assertSame((random.nextLong() >>> 1) + "." + (random.nextLong() >>> 1) + "e" + (random.nextInt(80) - 40));
+        }
+    }
+
+    @Test
+    public void invalid() {
+        for (String number : new String[]{"", "-", ".", "1e", "1.5e+", "abc", "1x"}) {
+            char[] chars = number.toCharArray();
+            assertThrows(NumberFormatException.class, () -> NumberConverter.toDouble(chars, 0, chars.length));
+            assertThrows(NumberFormatException.class, () -> NumberConverter.toFloat(chars, 0, chars.length));
+        }
+    }
+
+    @Test
+    public void range() {
+        char[] chars = "[1.25,-3e2]".toCharArray();
+        assertEquals(1.25, NumberConverter.toDouble(chars, 1, 5));
+        assertEquals(-300f, NumberConverter.toFloat(chars, 6, 10));
+    }
+
+    private static void assertSame(String number) {
+        char[] chars = number.toCharArray();
+        assertEquals(Double.doubleToRawLongBits(Double.parseDouble(number)), Double.doubleToRawLongBits(NumberConverter.toDouble(chars, 0, chars.length)), number);
+        assertEquals(Float.floatToRawIntBits(Float.parseFloat(number)), Float.floatToRawIntBits(NumberConverter.toFloat(chars, 0, chars.length)), number);
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.input.JsonInput;
+import org.cuberact.json.input.JsonInputCharSequence;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonArrayPublisherTest {
+
+    @Test
+    public void demandDriven() {
+        String jsonAsString = "[{\"id\":1},{\"id\":2},{\"id\":3}]";
+        CountingInput input = new CountingInput(jsonAsString);
+        Recorder recorder = new Recorder();
+        new JsonParser().<JsonObject>publishArray(input).subscribe(recorder);
+        assertEquals(0, input.read);
+        recorder.subscription.request(1);
+        assertEquals(1, recorder.elements.size());
+        assertEquals(11, input.read); //first element, comma and { of second element
+        recorder.subscription.request(1);
+        assertEquals(2, recorder.elements.size());
+        assertEquals(0, recorder.completed);
+        recorder.subscription.request(5);
+        assertEquals("[{\"id\":1}, {\"id\":2}, {\"id\":3}]", recorder.packed());
+        assertEquals(1, recorder.completed);
+        assertNull(recorder.error);
+    }
+
+    @Test
+    public void elementTypes() {
+        Recorder recorder = new Recorder();
+        new JsonParser().publishArray(new JsonInputCharSequence("[\"a\", 1.5, true, null, [1,[2]], {}, false,]")).subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals("[a, 1.5, true, [1,[2]], {}, false]", recorder.packed());
+        assertEquals(1, recorder.completed);
+    }
+
+    @Test
+    public void requestFromOnNext() {
+        StringBuilder jsonAsString = new StringBuilder("[");
+        for (int i = 0; i < 100000; i++) {
+            jsonAsString.append(i).append(',');
+        }
+        jsonAsString.append("1]");
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onNext(Object item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        new JsonParser().publishArray(new JsonInputCharSequence(jsonAsString)).subscribe(recorder);
+        recorder.subscription.request(1);
+        assertEquals(100001, recorder.elements.size());
+        assertEquals(1, recorder.completed);
+    }
+
+    @Test
+    public void errors() {
+        Recorder recorder1 = new Recorder();
+        new JsonParser().publishArray(new JsonInputCharSequence("{\"a\":1}")).subscribe(recorder1);
+        recorder1.subscription.request(1);
+        assertEquals("Parse error on position 1 - Expected [", recorder1.error.getMessage());
+
+        Recorder recorder2 = new Recorder();
+        new JsonParser().publishArray(new JsonInputCharSequence("[1,2 3]")).subscribe(recorder2);
+        recorder2.subscription.request(10);
+        assertEquals(1, recorder2.elements.size());
+        assertTrue(recorder2.error instanceof JsonException);
+        assertEquals("Parse error on position 6 - Expected ] or ,", recorder2.error.getMessage());
+
+        Recorder recorder3 = new Recorder();
+        new JsonParser().publishArray(new JsonInputCharSequence("[1]")).subscribe(recorder3);
+        recorder3.subscription.request(0);
+        assertTrue(recorder3.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void oneSubscriber() {
+        Flow.Publisher<Object> publisher = new JsonParser().publishArray(new JsonInputCharSequence("[1]"));
+        Recorder recorder1 = new Recorder();
+        Recorder recorder2 = new Recorder();
+        publisher.subscribe(recorder1);
+        publisher.subscribe(recorder2);
+        assertTrue(recorder2.error instanceof IllegalStateException);
+        recorder1.subscription.request(1);
+        assertEquals(1, recorder1.elements.size());
+    }
+
+    @Test
+    public void cancel() {
+        CountingInput input = new CountingInput("[1,2,3,4,5]");
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onNext(Object item) {
+                super.onNext(item);
+                if (elements.size() == 2) subscription.cancel();
+            }
+        };
+        new JsonParser().publishArray(input).subscribe(recorder);
+        recorder.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, recorder.elements.size());
+        assertEquals(0, recorder.completed);
+        assertEquals(6, input.read); //second element, comma and first char of third element
+    }
+
+    @Test
+    public void executor() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        Recorder recorder = new Recorder() {
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                latch.countDown();
+            }
+        };
+        new JsonParser().publishArray(new JsonInputCharSequence("[1,2,3]"), ForkJoinPool.commonPool()).subscribe(recorder);
+        recorder.subscription.request(2);
+        recorder.subscription.request(2);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("[1, 2, 3]", recorder.packed());
+    }
+
+    private static class Recorder implements Flow.Subscriber<Object> {
+        final List<Object> elements = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        int completed;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Object item) {
+            elements.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed++;
+        }
+
+        String packed() {
+            List<String> packed = new ArrayList<>();
+            for (Object element : elements) {
+                packed.add(element instanceof Json ? ((Json) element).toString(JsonFormatter.PACKED()) : String.valueOf(element));
+            }
+            return packed.toString();
+        }
+    }
+
+    private static final class CountingInput implements JsonInput {
+        private final String input;
+        private int read;
+
+        private CountingInput(String input) {
+            this.input = input;
+        }
+
+        @Override
+        public char nextChar() {
+            return read < input.length() ? input.charAt(read++) : END_OF_INPUT;
+        }
+
+        @Override
+        public int position() {
+            return read;
+        }
+    }
+}
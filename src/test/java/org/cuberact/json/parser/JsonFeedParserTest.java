@@ -0,0 +1,175 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonFeedParserTest {
+
+    private final String jsonAsString = "\uFEFF{\"rect\": [486,\"\\u0048\\u0065\\u006c\\u006C\\u006FWorld\",{\"data\" : \"\\u011B\\u0161\\u010D\\u0159\\u017E\\u00FD\\u00E1\\u00ED\\u00E9\"},-23.54],\n" +
+            "  \"žluťoučký kůň 😀\": [ true, false, null, 1.5e-3, 0, -0.0, 12345678901234567890, [], {}, [1,], {\"a\":1,}],\n" +
+            "  \"escapes\": \"\\\"\\\\\\/\\b\\f\\n\\r\\t\",\n" +
+            "  \"nested\": {\"a\": {\"b\": {\"c\": [[[\"deep\"]]]}}}\r\n}";
+
+    @Test
+    public void chunks() {
+        String expected = ((Json) new JsonParser().parse(jsonAsString.substring(1))).toString(JsonFormatter.PACKED());
+        char[] chars = jsonAsString.substring(1).toCharArray();
+        byte[] bytes = jsonAsString.getBytes(StandardCharsets.UTF_8);
+        Random random = new Random(1);
+        for (int chunk = 1; chunk <= 64; chunk = chunk * 2 + random.nextInt(2)) {
+            List<Json> result = new ArrayList<>();
+            JsonFeedParser feedParser = new JsonParser().<Json>feedParser(result::add);
+            for (int i = 0; i < chars.length; i += chunk) {
+                feedParser.feed(chars, i, Math.min(chunk, chars.length - i));
+            }
+            feedParser.endOfInput();
+            assertEquals(1, result.size());
+            assertEquals(expected, result.get(0).toString(JsonFormatter.PACKED()));
+
+            result.clear();
+            feedParser = new JsonParser().<Json>feedParser(result::add);
+            for (int i = 0; i < bytes.length; i += chunk) {
+                feedParser.feed(bytes, i, Math.min(chunk, bytes.length - i));
+            }
+            feedParser.endOfInput();
+            assertEquals(1, result.size());
+            assertEquals(expected, result.get(0).toString(JsonFormatter.PACKED()));
+        }
+        List<Json> result = new ArrayList<>();
+        JsonFeedParser feedParser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyPool(new JsonKeyPool())).<Json>feedParser(result::add);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes).flip();
+        feedParser.feed(buffer);
+        assertFalse(buffer.hasRemaining());
+        feedParser.endOfInput();
+        assertEquals(expected, result.get(0).toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void streamOfDocuments() {
+        List<JsonObject> result = new ArrayList<>();
+        JsonFeedParser feedParser = new JsonParser().<JsonObject>feedParser(result::add);
+        feedParser.feed("{\"id\":1}\n{\"id\"".toCharArray());
+        assertEquals(1, result.size());
+        assertTrue(feedParser.isInsideDocument());
+        feedParser.feed(":2}{\"id\":3}\n".toCharArray());
+        assertFalse(feedParser.isInsideDocument());
+        feedParser.endOfInput();
+        assertEquals(3, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            assertEquals(i + 1, result.get(i).getInt("id"));
+        }
+        assertEquals(26, feedParser.position());
+    }
+
+    @Test
+    public void valuesAreBuiltImmediately() {
+        List<Object> values = new ArrayList<>();
+        JsonFeedParser feedParser = new JsonParser(new JsonBuilderDom() {
+            @Override
+            public void addNumberToArray(JsonArray array, JsonNumber value) {
+                values.add(value);
+                super.addNumberToArray(array, value);
+            }
+
+            @Override
+            public void addStringToArray(JsonArray array, String value) {
+                values.add(value);
+                super.addStringToArray(array, value);
+            }
+        }).feedParser(json -> {
+        });
+        feedParser.feed("[\"abc\",12".toCharArray());
+        assertEquals("[abc]", values.toString());
+        feedParser.feed("3,4".toCharArray());
+        assertEquals("[abc, 123]", values.toString());
+        feedParser.feed("5]".toCharArray());
+        assertEquals("[abc, 123, 45]", values.toString());
+    }
+
+    @Test
+    public void incompleteDocument() {
+        for (String json : new String[]{"{", "[1", "{\"a\"", "{\"a\":", "[tr", "[\"ab", "[\"\\u00", "[-"}) {
+            JsonFeedParser feedParser = new JsonParser().feedParser(result -> {
+            });
+            feedParser.feed(json.toCharArray());
+            assertThrows(JsonException.class, feedParser::endOfInput);
+        }
+    }
+
+    @Test
+    public void utf8Errors() {
+        JsonFeedParser feedParser1 = new JsonParser().feedParser(result -> {
+        });
+        feedParser1.feed(new byte[]{'[', '"', (byte) 0xC5});
+        JsonException e = assertThrows(JsonException.class, feedParser1::endOfInput);
+        assertEquals("Invalid UTF-8 byte sequence on position 2", e.getMessage());
+
+        JsonFeedParser feedParser2 = new JsonParser().feedParser(result -> {
+        });
+        e = assertThrows(JsonException.class, () -> feedParser2.feed(new byte[]{'[', '"', (byte) 0xC5, 'a'}));
+        assertEquals("Invalid UTF-8 byte sequence on position 2", e.getMessage());
+    }
+
+    @Test
+    public void state() {
+        JsonFeedParser feedParser1 = new JsonParser().feedParser(result -> {
+        });
+        feedParser1.feed("[]".toCharArray());
+        feedParser1.endOfInput();
+        assertThrows(IllegalStateException.class, () -> feedParser1.feed("[]".toCharArray()));
+
+        JsonFeedParser feedParser2 = new JsonParser().feedParser(result -> {
+        });
+        assertThrows(JsonException.class, () -> feedParser2.feed("[}".toCharArray()));
+        assertThrows(IllegalStateException.class, () -> feedParser2.feed("[]".toCharArray()));
+        assertThrows(IndexOutOfBoundsException.class, () -> new JsonParser().feedParser(result -> {
+        }).feed(new char[2], 1, 2));
+    }
+
+    @Test
+    public void keyPool() {
+        JsonKeyPool pool = new JsonKeyPool();
+        List<JsonObject> result = new ArrayList<>();
+        JsonFeedParser feedParser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyPool(pool)).<JsonObject>feedParser(result::add);
+        feedParser.feed("{\"name\":1} {\"name\":2}".toCharArray());
+        feedParser.endOfInput();
+        assertSame(result.get(0).map().keySet().iterator().next(), result.get(1).map().keySet().iterator().next());
+    }
+}
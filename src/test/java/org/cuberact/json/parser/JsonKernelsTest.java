@@ -0,0 +1,92 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.Arrays;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonKernelsTest {
+
+    @Test
+    public void whitespaceEnd() {
+        for (int length = 0; length < 100; length++) {
+            char[] w = new char[length + 1];
+            Arrays.fill(w, ' ');
+            w[length / 2] = '\n';
+            w[length / 3] = '\t';
+            w[length / 4] = '\r';
+            assertEquals(length, JsonKernels.whitespaceEnd(w, 0, length));
+            w[length] = 'x';
+            assertEquals(length, JsonKernels.whitespaceEnd(w, 0, length + 1));
+            w[length] = ' ';
+            assertEquals(length, JsonKernels.whitespaceEnd(w, 0, length + 1));
+        }
+    }
+
+    @Test
+    public void stringEnd() {
+        for (int length = 0; length < 100; length++) {
+            char[] w = new char[length + 1];
+            Arrays.fill(w, 'x');
+            w[length / 2] = 'Ģ'; //low byte is "
+            assertEquals(length, JsonKernels.stringEnd(w, 0, length));
+            for (char end : new char[]{'"', '\\', END_OF_INPUT}) {
+                w[length] = end;
+                assertEquals(length, JsonKernels.stringEnd(w, 0, length + 1));
+            }
+        }
+    }
+
+    @Test
+    public void digitsEnd() {
+        for (int length = 0; length < 100; length++) {
+            char[] w = new char[length + 1];
+            Arrays.fill(w, '7');
+            assertEquals(length, JsonKernels.digitsEnd(w, 0, length));
+            for (char end : new char[]{'/', ':', '.', 'e', '０'}) {
+                w[length] = end;
+                assertEquals(length, JsonKernels.digitsEnd(w, 0, length + 1));
+            }
+        }
+    }
+
+    @Test
+    public void longRuns() {
+        StringBuilder indent = new StringBuilder();
+        StringBuilder text = new StringBuilder();
+        StringBuilder digits = new StringBuilder("1");
+        for (int i = 0; i < 5000; i++) {
+            indent.append(i % 7 == 0 ? '\n' : ' ');
+            text.append((char) ('a' + i % 26));
+            if (i < 300) digits.append(i % 10);
+        }
+        String jsonAsString = "[" + indent + "\"" + text + "\"" + indent + "," + indent + digits + "." + digits + indent + ",\"" + text + "\\n" + text + "\"]";
+        String expected = "[\"" + text + "\"," + digits + "." + digits + ",\"" + text + "\\n" + text + "\"]";
+        JsonParser parser = new JsonParser();
+        assertEquals(expected, parser.<Json>parse(jsonAsString).toString(JsonFormatter.PACKED()));
+        assertEquals(expected, parser.<Json>parse(new StringReader(jsonAsString)).toString(JsonFormatter.PACKED()));
+    }
+}
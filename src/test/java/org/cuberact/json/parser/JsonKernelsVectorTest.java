@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.cuberact.json.parser;
+
+import static org.cuberact.json.input.JsonInput.END_OF_INPUT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+
+/**
+ * Vector API kernels from META-INF/versions/17 - tests run against main classes (not multi-release jar),
+ * so Java 17 version of {@link JsonKernels} is loaded directly. Needs --add-modules jdk.incubator.vector (see surefire in pom.xml).
+ *
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonKernelsVectorTest {
+
+    private static final int MAX_LENGTH = 300;
+    private static final int FROM = 3;
+
+    private final Class<?> kernels = loadKernels();
+
+    @Test
+    public void vectorEnabled() throws Exception {
+        Field vector = kernels.getDeclaredField("VECTOR");
+        vector.setAccessible(true);
+        assertTrue((Boolean) vector.get(null), "Vector kernels are disabled, module jdk.incubator.vector is missing");
+    }
+
+    @Test
+    public void whitespaceEnd() throws Exception {
+        for (int length = 0; length < MAX_LENGTH; length++) {
+            char[] w = new char[FROM + length + 1];
+            Arrays.fill(w, ' ');
+            w[FROM + length / 2] = '\n';
+            w[FROM + length / 3] = '\t';
+            w[FROM + length / 4] = '\r';
+            assertEquals(FROM + length, call("whitespaceEnd", w, FROM, FROM + length));
+            for (char end : new char[]{'x', '"', 'Ġ', 'ĉ'}) { //low bytes are space and tab
+                w[FROM + length] = end;
+                assertEquals(FROM + length, call("whitespaceEnd", w, FROM, FROM + length + 1));
+            }
+        }
+    }
+
+    @Test
+    public void stringEnd() throws Exception {
+        for (int length = 0; length < MAX_LENGTH; length++) {
+            char[] w = new char[FROM + length + 1];
+            Arrays.fill(w, 'x');
+            w[FROM + length / 2] = 'Ģ'; //low byte is "
+            w[FROM + length / 3] = 'Ŝ'; //low byte is \
+            assertEquals(FROM + length, call("stringEnd", w, FROM, FROM + length));
+            for (char end : new char[]{'"', '\\', END_OF_INPUT}) {
+                w[FROM + length] = end;
+                assertEquals(FROM + length, call("stringEnd", w, FROM, FROM + length + 1));
+            }
+        }
+    }
+
+    @Test
+    public void digitsEnd() throws Exception {
+        for (int length = 0; length < MAX_LENGTH; length++) {
+            char[] w = new char[FROM + length + 1];
+            Arrays.fill(w, '7');
+            w[FROM + length / 2] = '0';
+            w[FROM + length / 3] = '9';
+            assertEquals(FROM + length, call("digitsEnd", w, FROM, FROM + length));
+            for (char end : new char[]{'/', ':', '.', 'e', '０', 'ĵ'}) { //fullwidth zero is negative short
+                w[FROM + length] = end;
+                assertEquals(FROM + length, call("digitsEnd", w, FROM, FROM + length + 1));
+            }
+        }
+    }
+
+    private int call(String kernel, char[] w, int from, int to) throws Exception {
+        Method method = kernels.getDeclaredMethod(kernel, char[].class, int.class, int.class);
+        method.setAccessible(true);
+        return (Integer) method.invoke(null, w, from, to);
+    }
+
+    /**
+     * Kernel classes are loaded from versioned directory first, other classes from test class path
+     */
+    private static Class<?> loadKernels() {
+        try {
+            URL classes = JsonKernels.class.getProtectionDomain().getCodeSource().getLocation();
+            URL versioned = new URL(classes, "META-INF/versions/17/");
+            ClassLoader loader = new URLClassLoader(new URL[]{versioned}, JsonKernelsVectorTest.class.getClassLoader()) {
+                @Override
+                protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                    if (name.equals(JsonKernels.class.getName()) || name.equals(JsonKernels.class.getName() + "Vector")) {
+                        synchronized (getClassLoadingLock(name)) {
+                            Class<?> loaded = findLoadedClass(name);
+                            return loaded != null ? loaded : findClass(name);
+                        }
+                    }
+                    return super.loadClass(name, resolve);
+                }
+            };
+            return Class.forName(JsonKernels.class.getName(), true, loader);
+        } catch (Exception e) {
+            throw new IllegalStateException("Java 17 kernels are not compiled to META-INF/versions/17", e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonNumberValueTest {
+
+    @Test
+    public void eightDigits() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i++) {
+            String digits = String.format("%08d", random.nextInt(100_000_000));
+            assertEquals(Long.parseLong(digits), JsonNumberValue.eightDigits(("x" + digits).toCharArray(), 1));
+        }
+        assertEquals(99999999L, JsonNumberValue.eightDigits("99999999".toCharArray(), 0));
+        assertEquals(0L, JsonNumberValue.eightDigits("00000000".toCharArray(), 0));
+    }
+
+    @Test
+    public void longs() {
+        for (String number : new String[]{"0", "-0", "7", "-7", "12345678", "123456789", "007", "1234567890123456",
+                "9223372036854775807", "-9223372036854775808", "-9223372036854775807", "000000000000000000000000042"}) {
+            assertLong(Long.parseLong(number), number);
+        }
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            long value = random.nextLong() >> random.nextInt(64);
+            assertLong(value, Long.toString(value));
+        }
+    }
+
+    @Test
+    public void outOfLongRange() {
+        for (String number : new String[]{"9223372036854775808", "-9223372036854775809", "12345678901234567890", "99999999999999999999"}) {
+            JsonNumberValue value = new JsonNumberValue();
+            assertEquals(JsonNumberValue.JSON_NUMBER, value.parse(number.toCharArray(), number.length(), false));
+            assertEquals(new BigInteger(number), value.jsonNumber().asBigInt());
+        }
+    }
+
+    @Test
+    public void doubles() {
+        for (String number : new String[]{"0.0", "-0.0", "1.", "1.5", "-1.5", "0.1", "0.30000000000000004", "3.141592653589793",
+                "1.0e10", "1.0e-10", "1.5e+3", "-2.5e-300", "1.7976931348623157e308", "4.9e-324", "1.0e-400",
+                "123456789012345678901234567890.5", "0.000000000000000000000000000001", "9007199254740993.0", "00.5"}) {
+            assertDouble(Double.parseDouble(number), number);
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 10000; i++) {
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (Double.isNaN(value) || Double.isInfinite(value)) continue;
+            String number = Double.toString(value).replace('E', 'e');
+            assertDouble(value, number);
+            String fixed = String.format("%.6f", random.nextDouble() * 1000);
+            assertDouble(Double.parseDouble(fixed), fixed);
+        }
+    }
+
+    @Test
+    public void incompleteExponent() {
+        JsonNumberValue value = new JsonNumberValue();
+        assertEquals(JsonNumberValue.JSON_NUMBER, value.parse("1.0e".toCharArray(), 4, true));
+        assertEquals(JsonNumberValue.JSON_NUMBER, value.parse("1.0e-".toCharArray(), 5, true));
+    }
+
+    @Test
+    public void infinite() {
+        JsonNumberValue value = new JsonNumberValue();
+        for (String number : new String[]{"1.0e400", "-1.0e309", "17976931348623159.0e292"}) {
+            assertEquals(JsonNumberValue.JSON_NUMBER, value.parse(number.toCharArray(), number.length(), true), number);
+            assertEquals(number, value.jsonNumber().toString());
+        }
+    }
+
+    private void assertLong(long expected, String number) {
+        JsonNumberValue value = new JsonNumberValue();
+        assertEquals(JsonNumberValue.LONG, value.parse(number.toCharArray(), number.length(), false), number);
+        assertEquals(expected, value.longValue, number);
+    }
+
+    private void assertDouble(double expected, String number) {
+        JsonNumberValue value = new JsonNumberValue();
+        assertEquals(JsonNumberValue.DOUBLE, value.parse(number.toCharArray(), number.length(), true), number);
+        assertEquals(Double.doubleToLongBits(expected), Double.doubleToLongBits(value.doubleValue), number);
+    }
+}
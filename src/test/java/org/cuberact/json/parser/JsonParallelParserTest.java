@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParallelParserTest {
+
+    private final List<String> expected = new ArrayList<>();
+    private final String input;
+
+    public JsonParallelParserTest() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            String line = "{\"id\":" + i + ",\"name\":\"řádek " + i + "\",\"tags\":[" + (i % 7) + ",\"\\u00e9\"]}";
+            expected.add(line.replace("\\u00e9", "é"));
+            sb.append(line).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        input = sb.toString();
+    }
+
+    @Test
+    public void orderedCharsAndBytes() {
+        JsonParallelParser parser = new JsonParallelParser(() -> JsonBuilderDom.REF, JsonParserOptions.DEFAULT, new ForkJoinPool(4), 100);
+        assertEquals(expected, parse(parser, input.toCharArray()));
+        List<String> result = new ArrayList<>();
+        parser.<Json>parse(input.getBytes(StandardCharsets.UTF_8), true, json -> result.add(json.toString(JsonFormatter.PACKED())));
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void orderedReaderAndFile() throws IOException {
+        JsonParallelParser parser = new JsonParallelParser(() -> JsonBuilderDom.REF, JsonParserOptions.DEFAULT, new ForkJoinPool(4), 50);
+        List<String> result = new ArrayList<>();
+        parser.<Json>parse(new StringReader(input), true, json -> result.add(json.toString(JsonFormatter.PACKED())));
+        assertEquals(expected, result);
+
+        Path file = Files.createTempFile("cuberact-json", ".ndjson");
+        try {
+            Files.write(file, input.getBytes(StandardCharsets.UTF_8));
+            result.clear();
+            parser.<Json>parse(file, true, json -> result.add(json.toString(JsonFormatter.PACKED())));
+            assertEquals(expected, result);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void completionOrder() {
+        AtomicInteger builders = new AtomicInteger();
+        ForkJoinPool executor = new ForkJoinPool(3);
+        JsonParallelParser parser = new JsonParallelParser(() -> {
+            builders.incrementAndGet();
+            return new JsonBuilderDom();
+        }, JsonParserOptions.DEFAULT, executor, 64);
+        List<String> result = new ArrayList<>();
+        parser.<Json>parse(input.toCharArray(), false, json -> result.add(json.toString(JsonFormatter.PACKED())));
+        executor.shutdown();
+        assertEquals(expected.size(), result.size());
+        List<String> sorted = new ArrayList<>(expected);
+        Collections.sort(sorted);
+        Collections.sort(result);
+        assertEquals(sorted, result);
+        assertTrue(builders.get() <= 3);
+    }
+
+    @Test
+    public void lineLongerThanChunk() {
+        JsonParallelParser parser = new JsonParallelParser(() -> JsonBuilderDom.REF, JsonParserOptions.DEFAULT, Runnable::run, 3);
+        List<String> result = new ArrayList<>();
+        parser.<Json>parse(new StringReader("{\"a\":\"long line\"}\n[1]\n\n[2]"), true, json -> result.add(json.toString(JsonFormatter.PACKED())));
+        assertEquals("[{\"a\":\"long line\"}, [1], [2]]", result.toString());
+    }
+
+    @Test
+    public void error() {
+        JsonParallelParser parser = new JsonParallelParser(() -> JsonBuilderDom.REF, JsonParserOptions.DEFAULT, new ForkJoinPool(2), 10);
+        String errorInput = input + "{\"a\" 1}\n" + input;
+        JsonException e = assertThrows(JsonException.class, () -> parse(parser, errorInput.toCharArray()));
+        assertEquals("Chunk on offset " + input.length() + " - Parse error on position 6 - Expected :", e.getMessage());
+        assertNotEquals(null, e.getCause());
+    }
+
+    private List<String> parse(JsonParallelParser parser, char[] input) {
+        List<String> result = new ArrayList<>();
+        parser.<Json>parse(input, true, json -> result.add(json.toString(JsonFormatter.PACKED())));
+        return result;
+    }
+}
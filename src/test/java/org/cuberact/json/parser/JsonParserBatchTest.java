@@ -0,0 +1,93 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserBatchTest {
+
+    private final List<Object> inputs = new ArrayList<>();
+    private final List<String> expected = new ArrayList<>();
+
+    public JsonParserBatchTest() {
+        for (int i = 0; i < 3000; i++) {
+            String jsonAsString = "{\"id\":" + i + ",\"name\":\"message " + i + "\",\"tags\":[" + (i % 5) + ",\"x\"]}";
+            expected.add(jsonAsString);
+            switch (i % 3) {
+                case 0:
+                    inputs.add(jsonAsString);
+                    break;
+                case 1:
+                    inputs.add(jsonAsString.toCharArray());
+                    break;
+                default:
+                    inputs.add(jsonAsString.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @Test
+    public void parseAllInOrder() {
+        assertEquals(expected, packed(new JsonParser().parseAll(inputs)));
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(expected, packed(new JsonParser().parseAll(inputs, executor)));
+            assertEquals(expected, packed(new JsonParser().<Json>parseAsync(inputs, executor).join()));
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(Collections.emptyList(), new JsonParser().parseAll(Collections.emptyList()));
+    }
+
+    @Test
+    public void firstFailure() {
+        inputs.set(2500, "{\"id\":1,}");
+        inputs.set(1234, "{\"id\" 1}");
+        JsonException e = assertThrows(JsonException.class, () -> new JsonParser().parseAll(inputs));
+        assertEquals("Input on index 1234 - Parse error on position 7 - Expected :", e.getMessage());
+        CompletionException async = assertThrows(CompletionException.class, () -> new JsonParser().parseAsync(inputs).join());
+        assertTrue(async.getCause() instanceof JsonException);
+        inputs.set(100, 42);
+        assertThrows(IllegalArgumentException.class, () -> new JsonParser().parseAll(inputs));
+    }
+
+    private List<String> packed(List<Json> results) {
+        List<String> packed = new ArrayList<>();
+        for (Json json : results) {
+            packed.add(json.toString(JsonFormatter.PACKED()));
+        }
+        return packed;
+    }
+}
@@ -17,13 +17,16 @@
 package org.cuberact.json.parser;
 
 import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilderDom;
 import org.cuberact.json.input.JsonInputCharArray;
 import org.cuberact.json.input.JsonInputReader;
+import org.cuberact.json.input.JsonInputUtf8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 import org.junit.jupiter.api.Test;
 
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
 
 /**
  * @author Michal Nikodim (michal.nikodim@gmail.com)
@@ -169,20 +172,67 @@ public class JsonParserErrorTest {
     }
 
     private void tryParseJsonAndCheckExceptionMessage(String errorJson, String expectedExceptionMessage) {
+        tryParseJsonAndCheckExceptionMessage(new JsonParser(), errorJson, expectedExceptionMessage);
+        tryParseJsonAndCheckExceptionMessage(new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withIterative(true)), errorJson, expectedExceptionMessage);
+        JsonParser structural = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withStructuralIndex(true));
         try {
-            new JsonParser().parse(errorJson);
+            structural.parse(errorJson.toCharArray());
             fail("Expected JsonException");
         } catch (JsonException e) {
             assertEquals(expectedExceptionMessage, e.getMessage());
         }
         try {
-            new JsonParser().parse(new JsonInputReader(new StringReader(errorJson)));
+            structural.parse(errorJson.getBytes(StandardCharsets.UTF_8));
             fail("Expected JsonException");
         } catch (JsonException e) {
             assertEquals(expectedExceptionMessage, e.getMessage());
         }
         try {
-            new JsonParser().parse(new JsonInputCharArray(errorJson.toCharArray()));
+            JsonFeedParser feedParser = new JsonParser().feedParser(json -> {
+            });
+            for (char c : errorJson.toCharArray()) {
+                feedParser.feed(new char[]{c});
+            }
+            feedParser.endOfInput();
+            fail("Expected JsonException");
+        } catch (JsonException e) {
+            assertEquals(expectedExceptionMessage, e.getMessage());
+        }
+        try {
+            JsonFeedParser feedParser = new JsonParser().feedParser(json -> {
+            });
+            byte[] bytes = errorJson.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0; i < bytes.length; i++) {
+                feedParser.feed(bytes, i, 1);
+            }
+            feedParser.endOfInput();
+            fail("Expected JsonException");
+        } catch (JsonException e) {
+            assertEquals(expectedExceptionMessage, e.getMessage());
+        }
+    }
+
+    private void tryParseJsonAndCheckExceptionMessage(JsonParser parser, String errorJson, String expectedExceptionMessage) {
+        try {
+            parser.parse(errorJson);
+            fail("Expected JsonException");
+        } catch (JsonException e) {
+            assertEquals(expectedExceptionMessage, e.getMessage());
+        }
+        try {
+            parser.parse(new JsonInputReader(new StringReader(errorJson)));
+            fail("Expected JsonException");
+        } catch (JsonException e) {
+            assertEquals(expectedExceptionMessage, e.getMessage());
+        }
+        try {
+            parser.parse(new JsonInputCharArray(errorJson.toCharArray()));
+            fail("Expected JsonException");
+        } catch (JsonException e) {
+            assertEquals(expectedExceptionMessage, e.getMessage());
+        }
+        try {
+            parser.parse(new JsonInputUtf8(errorJson.getBytes(StandardCharsets.UTF_8)));
             fail("Expected JsonException");
         } catch (JsonException e) {
             assertEquals(expectedExceptionMessage, e.getMessage());
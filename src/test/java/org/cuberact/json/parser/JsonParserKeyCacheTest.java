@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserKeyCacheTest {
+
+    private final String jsonAsString = "[{'name':'jack','a\\\\tb':1,'nested':{'name':'john'}},{'name':'jill','a\\\\tb':2,'nested':{'name':'jane'}}]"
+            .replace('\'', '"');
+
+    @Test
+    public void keyCacheWithinOneParse() {
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyCache(true));
+        JsonArray json = parser.parse(jsonAsString);
+        assertEquals(jsonAsString, json.toString(JsonFormatter.PACKED()));
+        List<String> first = keys(json.getObj(0));
+        List<String> second = keys(json.getObj(1));
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), second.get(i));
+        }
+        assertSame(first.get(0), keys(json.getObj(0).getObj("nested")).get(0));
+    }
+
+    @Test
+    public void keyCacheIsNotSharedWithoutPool() {
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyCache(true));
+        JsonArray json1 = parser.parse(jsonAsString);
+        JsonArray json2 = parser.parse(jsonAsString);
+        assertNotSame(keys(json1.getObj(0)).get(0), keys(json2.getObj(0)).get(0));
+    }
+
+    @Test
+    public void keyPoolAcrossParses() {
+        JsonKeyPool pool = new JsonKeyPool(16);
+        JsonParser parser1 = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyPool(pool));
+        JsonParser parser2 = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyPool(pool));
+        JsonArray json1 = parser1.parse(jsonAsString);
+        JsonArray json2 = parser2.parse(jsonAsString.toCharArray());
+        assertEquals(jsonAsString, json2.toString(JsonFormatter.PACKED()));
+        List<String> keys1 = keys(json1.getObj(0));
+        List<String> keys2 = keys(json2.getObj(1));
+        for (int i = 0; i < keys1.size(); i++) {
+            assertSame(keys1.get(i), keys2.get(i));
+        }
+    }
+
+    @Test
+    public void keyPoolCollisions() {
+        JsonKeyPool pool = new JsonKeyPool(1);
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyPool(pool));
+        StringBuilder jsonAsString = new StringBuilder("{");
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0) jsonAsString.append(',');
+            jsonAsString.append("\"attr").append(i).append("\":").append(i);
+        }
+        jsonAsString.append('}');
+        Json json = parser.parse(jsonAsString);
+        assertEquals(jsonAsString.toString(), json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void keyPoolWrongSize() {
+        assertThrows(IllegalArgumentException.class, () -> new JsonKeyPool(0));
+    }
+
+    private List<String> keys(JsonObject jsonObject) {
+        return new ArrayList<>(jsonObject.map().keySet());
+    }
+}
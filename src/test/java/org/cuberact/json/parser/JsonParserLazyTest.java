@@ -0,0 +1,110 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserLazyTest {
+
+    private final String jsonAsString = ("{'id':42,'name':'Jack \\\\u0041','weight':75.5,'active':true,'parent':null," +
+            "'address':{'city':'Prague','geo':[50.08,14.43],'tags':[{'a':'}'},[],{}]},'items':[1,'two',[3,[4]],{'five':5}]}")
+            .replace('\'', '"');
+
+    @Test
+    public void sameAsParse() {
+        Json eager = new JsonParser().parse(jsonAsString);
+        Json lazy = new JsonParser().parseLazy(jsonAsString);
+        assertEquals(eager.toString(), lazy.toString());
+        assertEquals(eager.toString(JsonFormatter.PACKED()), new JsonParser().parseLazy(jsonAsString.toCharArray()).toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void access() {
+        JsonObject json = new JsonParser().parseLazy(jsonAsString);
+        assertEquals(42L, json.getLong("id"));
+        assertEquals("Jack \\u0041", json.getString("name"));
+        assertTrue(json.getBoolean("active"));
+        assertNull(json.get("parent"));
+        JsonObject address = json.getObj("address");
+        assertEquals("Prague", address.getString("city"));
+        assertEquals(14.43, address.getArr("geo").getDouble(1));
+        assertEquals("}", address.getArr("tags").getObj(0).getString("a"));
+        JsonArray items = json.getArr("items");
+        assertEquals(4, items.size());
+        assertEquals(4, items.getArr(2).getArr(1).getInt(0));
+        items.add("six");
+        json.remove("address");
+        assertEquals("{'id':42,'name':'Jack \\\\u0041','weight':75.5,'active':true,'parent':null,'items':[1,'two',[3,[4]],{'five':5},'six']}"
+                .replace('\'', '"'), json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void keyCacheSharedByContainers() {
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyCache(true));
+        JsonArray json = parser.parseLazy("[{\"name\":1},{\"name\":2},[{\"name\":3}]]");
+        String name = json.getObj(0).map().keySet().iterator().next();
+        assertSame(name, json.getObj(1).map().keySet().iterator().next());
+        assertSame(name, json.getArr(2).getObj(0).map().keySet().iterator().next());
+    }
+
+    @Test
+    public void errors() {
+        JsonException e = assertThrows(JsonException.class, () -> new JsonParser().parseLazy("{\"a\":[1,2}"));
+        assertEquals("Parse error on position 10 - Expected } or ]", e.getMessage());
+        e = assertThrows(JsonException.class, () -> new JsonParser().parseLazy("1"));
+        assertEquals("Parse error on position 1 - Expected { or [", e.getMessage());
+
+        JsonObject json = new JsonParser().parseLazy("{\"a\":1,\"b\":{\"c\" 2}}");
+        assertEquals(1, json.getInt("a"));
+        e = assertThrows(JsonException.class, () -> json.getObj("b").get("c"));
+        assertEquals("Parse error on position 17 - Expected :", e.getMessage());
+        e = assertThrows(JsonException.class, () -> json.getObj("b").size());
+        assertEquals("Parse error on position 17 - Expected :", e.getMessage());
+    }
+
+    @Test
+    public void serializable() throws IOException, ClassNotFoundException {
+        Json json = new JsonParser().parseLazy(jsonAsString);
+        ByteArrayOutputStream serializedJson = new ByteArrayOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(serializedJson);
+        oos.writeObject(json);
+        oos.close();
+        ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(serializedJson.toByteArray()));
+        Json deserializedJson = (Json) ois.readObject();
+        assertEquals(new JsonParser().parse(jsonAsString).toString(), deserializedJson.toString());
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserLimitsTest {
+
+    @Test
+    public void maxDepth() {
+        JsonLimits limits = JsonLimits.NONE.withMaxDepth(3);
+        assertParsed("[[[1]],{\"a\":[]}]", limits);
+        assertFailed("[[[[1]]]]", limits, "Parse error on position 4 - Depth is greater than 3");
+        assertFailed("{\"a\":{\"b\":{\"c\":{}}}}", limits, "Parse error on position 16 - Depth is greater than 3");
+    }
+
+    @Test
+    public void maxInputLength() {
+        JsonLimits limits = JsonLimits.NONE.withMaxInputLength(10);
+        assertParsed("[1,2,3,4] ", limits);
+        assertFailed("[1,2,3,4,5]", limits, "Parse error on position 11 - Input is longer than 10 chars");
+    }
+
+    @Test
+    public void maxStringLength() {
+        JsonLimits limits = JsonLimits.NONE.withMaxStringLength(5);
+        assertParsed("{\"abcde\":\"a\\tcde\"}", limits);
+        assertFailed("{\"abcdef\":1}", limits, "String is longer than 5 chars");
+        assertFailed("[\"a\\tcdef\"]", limits, "String is longer than 5 chars");
+        String longString = "[\"" + repeat('x', 10000) + "\\n\"]";
+        assertFailed(longString, JsonLimits.NONE.withMaxStringLength(9000), "String is longer than 9000 chars");
+        assertParsed(longString, JsonLimits.NONE.withMaxStringLength(10001));
+
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withLimits(limits));
+        JsonException e = assertThrows(JsonException.class, () -> parser.parse("{\"abcdef\":1,\"a\":2}", new JsonProjection("/a")));
+        assertEquals("Parse error on position 9 - String is longer than 5 chars", e.getMessage());
+    }
+
+    @Test
+    public void maxNumberLength() {
+        JsonLimits limits = JsonLimits.NONE.withMaxNumberLength(5);
+        assertParsed("[-1.25,12345,1.5e3]", limits);
+        assertFailed("[123456]", limits, "Number is longer than 5 chars");
+        assertFailed("{\"a\":1.2e-34}", limits, "Number is longer than 5 chars");
+        assertFailed("[" + repeat('1', 10000) + "]", JsonLimits.NONE.withMaxNumberLength(9000), "Number is longer than 9000 chars");
+    }
+
+    @Test
+    public void numberLongerThanBuffer() {
+        String number = repeat('7', 5000) + "." + repeat('3', 5000);
+        String json = "[" + number + ",-" + repeat('1', 9000) + "]";
+        assertParsed(json, JsonLimits.NONE);
+        JsonArray array = new JsonParser().parse(new StringReader(json));
+        assertEquals(number, array.get(0).toString());
+        assertEquals("[\"" + repeat('s', 5000) + "\"]", new JsonParser().parse(new StringReader("[\"" + repeat('s', 5000) + "\"]")).toString());
+    }
+
+    @Test
+    public void maxContainerSize() {
+        JsonLimits limits = JsonLimits.NONE.withMaxContainerSize(3);
+        assertParsed("{\"a\":[1,[2,3,4],3],\"b\":{},\"c\":[]}", limits);
+        assertFailed("[1,2,3,4]", limits, "Parse error on position 9 - Object or array has more than 3 values");
+        assertFailed("{\"a\":1,\"b\":[[],[],[],[]]}", limits, "Object or array has more than 3 values");
+    }
+
+    @Test
+    public void maxAllocation() {
+        JsonLimits limits = JsonLimits.NONE.withMaxAllocation(1000);
+        assertParsed("{\"a\":[1,2,3],\"b\":\"text\"}", limits);
+        assertFailed("[\"" + repeat('x', 500) + "\"]", limits, "Allocation budget 1000 bytes exceeded");
+        assertFailed("[" + repeat("[],", 50) + "[]]", limits, "Allocation budget 1000 bytes exceeded");
+    }
+
+    @Test
+    public void parallelDocument() {
+        char[] json = ("[" + repeat("[1,2,{\"a\":\"b\"}],", 200000) + "[]]").toCharArray();
+        JsonParserOptions parallel = JsonParserOptions.DEFAULT.withParallelPool(new ForkJoinPool(4));
+        JsonArray array = new JsonParser(JsonBuilderDom.REF, parallel.withLimits(JsonLimits.NONE.withMaxDepth(3).withMaxContainerSize(200001))).parse(json);
+        assertEquals(200001, array.size());
+        assertThrows(JsonException.class, () -> new JsonParser(JsonBuilderDom.REF, parallel.withLimits(JsonLimits.NONE.withMaxContainerSize(200000))).parse(json));
+        assertThrows(JsonException.class, () -> new JsonParser(JsonBuilderDom.REF, parallel.withLimits(JsonLimits.NONE.withMaxDepth(2))).parse(json));
+        JsonException e = assertThrows(JsonException.class, () -> new JsonParser(JsonBuilderDom.REF, parallel.withLimits(JsonLimits.NONE.withMaxAllocation(10_000_000))).parse(json));
+        assertTrue(e.getMessage().endsWith("Allocation budget 10000000 bytes exceeded"), e.getMessage());
+    }
+
+    @Test
+    public void budgetOfEveryDocument() {
+        JsonLimits limits = JsonLimits.NONE.withMaxAllocation(1000);
+        String document = "[\"" + repeat('x', 300) + "\"]\n";
+        List<Json> result = new ArrayList<>();
+        new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withLimits(limits)).<Json>parseStream(repeat(document, 10), result::add);
+        assertEquals(10, result.size());
+        JsonFeedParser feedParser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withLimits(limits)).<Json>feedParser(result::add);
+        feedParser.feed(repeat(document, 10).toCharArray());
+        feedParser.endOfInput();
+        assertEquals(20, result.size());
+    }
+
+    @Test
+    public void reusableScannerAfterFailure() {
+        JsonParser limited = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withLimits(JsonLimits.NONE.withMaxInputLength(2)));
+        assertThrows(JsonException.class, () -> limited.parse("[1,2]".toCharArray()));
+        assertEquals("[1,2]", ((Json) new JsonParser().parse("[1,2]".toCharArray())).toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void wrongLimits() {
+        assertThrows(IllegalArgumentException.class, () -> JsonLimits.NONE.withMaxDepth(0));
+        assertThrows(IllegalArgumentException.class, () -> JsonLimits.NONE.withMaxAllocation(-1));
+        assertThrows(NullPointerException.class, () -> JsonParserOptions.DEFAULT.withLimits(null));
+        assertEquals(Integer.MAX_VALUE, JsonParserOptions.DEFAULT.getLimits().getMaxDepth());
+    }
+
+    private static List<JsonParserOptions> options(JsonLimits limits) {
+        List<JsonParserOptions> options = new ArrayList<>();
+        options.add(JsonParserOptions.DEFAULT.withLimits(limits));
+        options.add(JsonParserOptions.DEFAULT.withLimits(limits).withIterative(true));
+        options.add(JsonParserOptions.DEFAULT.withLimits(limits).withKeyCache(true));
+        options.add(JsonParserOptions.DEFAULT.withLimits(limits).withStructuralIndex(true));
+        return options;
+    }
+
+    private static void assertParsed(String json, JsonLimits limits) {
+        String expected = ((Json) new JsonParser().parse(json)).toString(JsonFormatter.PACKED());
+        for (JsonParserOptions options : options(limits)) {
+            JsonParser parser = new JsonParser(JsonBuilderDom.REF, options);
+            assertEquals(expected, ((Json) parser.parse(json)).toString(JsonFormatter.PACKED()));
+            assertEquals(expected, ((Json) parser.parse(json.toCharArray())).toString(JsonFormatter.PACKED()));
+            assertEquals(expected, ((Json) parser.parse(json.getBytes(StandardCharsets.UTF_8))).toString(JsonFormatter.PACKED()));
+            assertEquals(expected, ((Json) parser.parse(new StringReader(json))).toString(JsonFormatter.PACKED()));
+        }
+        List<Json> result = new ArrayList<>();
+        JsonFeedParser feedParser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withLimits(limits)).<Json>feedParser(result::add);
+        feedParser.feed(json.toCharArray());
+        feedParser.endOfInput();
+        assertEquals(expected, result.get(0).toString(JsonFormatter.PACKED()));
+    }
+
+    /**
+     * @param error - whole message if it starts with "Parse error", end of message otherwise
+     */
+    private static void assertFailed(String json, JsonLimits limits, String error) {
+        List<Runnable> parses = new ArrayList<>();
+        for (JsonParserOptions options : options(limits)) {
+            JsonParser parser = new JsonParser(JsonBuilderDom.REF, options);
+            parses.add(() -> parser.parse(json));
+            parses.add(() -> parser.parse(json.toCharArray()));
+            parses.add(() -> parser.parse(json.getBytes(StandardCharsets.UTF_8)));
+            parses.add(() -> parser.parse(new StringReader(json)));
+        }
+        parses.add(() -> {
+            JsonFeedParser feedParser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withLimits(limits)).feedParser(root -> {
+            });
+            feedParser.feed(json.toCharArray());
+            feedParser.endOfInput();
+        });
+        for (Runnable parse : parses) {
+            JsonException e = assertThrows(JsonException.class, parse::run);
+            if (error.startsWith("Parse error")) {
+                assertEquals(error, e.getMessage());
+            } else {
+                assertTrue(e.getMessage().endsWith(error), e.getMessage());
+            }
+        }
+    }
+
+    private static String repeat(char c, int count) {
+        return repeat(String.valueOf(c), count);
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserParallelDocumentTest {
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(4);
+
+    private final JsonParser parallel = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withParallelPool(POOL));
+
+    @Test
+    public void rootArray() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < 3 * JsonStructuralParallel.THRESHOLD; i++) {
+            sb.append(element(i)).append(i % 5 == 0 ? " ,\n  " : ",");
+        }
+        sb.append("{}]");
+        assertSameAsParse(sb.toString());
+    }
+
+    @Test
+    public void biggestValueIsNested() {
+        StringBuilder sb = new StringBuilder("{\"meta\":{\"a\":[1,2]},\"data\":{\"rows\":[");
+        for (int i = 0; sb.length() < 2 * JsonStructuralParallel.THRESHOLD; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(element(i));
+        }
+        sb.append("],\"count\":3},\"tail\":\"}\"}");
+        assertSameAsParse(sb.toString());
+    }
+
+    @Test
+    public void longStringsOverSegments() {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < 12; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("\"k").append(i).append("\":\"");
+            for (int j = 0; j < 30000; j++) {
+                sb.append(j % 3 == 0 ? "\\\"]," : j % 3 == 1 ? "\\\\" : "x\\\":{");
+            }
+            sb.append("\"");
+        }
+        sb.append('}');
+        assertSameAsParse(sb.toString());
+    }
+
+    @Test
+    public void primitiveBuilder() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < 2 * JsonStructuralParallel.THRESHOLD; i++) {
+            sb.append(i).append(',').append(i).append(".5,{\"n\":").append(-i).append("},");
+        }
+        sb.append("0]");
+        String jsonAsString = sb.toString();
+        JsonParserOptions options = JsonParserOptions.DEFAULT.withStructuralIndex(true);
+        JsonArray expected = new JsonParser(new TypedBuilder(), options).parse(jsonAsString.toCharArray());
+        JsonArray actual = new JsonParser(new TypedBuilder(), options.withParallelPool(POOL)).parse(jsonAsString.toCharArray());
+        assertEquals(expected.toString(JsonFormatter.PACKED()), actual.toString(JsonFormatter.PACKED()));
+        assertEquals("L1", actual.get(3));
+        assertEquals("D1.5", actual.get(4));
+    }
+
+    @Test
+    public void errors() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; sb.length() < 2 * JsonStructuralParallel.THRESHOLD; i++) {
+            sb.append(element(i)).append(',');
+        }
+        String valid = sb.append("1]").toString();
+        int middle = valid.indexOf("{\"id\":", valid.length() / 2);
+        assertSameError(valid.substring(0, middle) + "{\"id\" 1}," + valid.substring(middle));
+        assertSameError(valid.substring(0, middle) + "tru," + valid.substring(middle));
+        assertSameError(valid.substring(0, valid.length() - 1));
+        assertSameError(valid.substring(0, valid.length() - 3) + "\"abc");
+        assertSameError(valid.substring(0, middle) + "{\"v\":[1,2[}," + valid.substring(middle)); //unclosed, not truncated
+        assertSameError(valid.substring(0, valid.length() - 1) + "}");
+
+        sb = new StringBuilder("{");
+        for (int i = 0; sb.length() < 2 * JsonStructuralParallel.THRESHOLD; i++) {
+            sb.append("\"a").append(i).append("\":").append(element(i)).append(',');
+        }
+        valid = sb.append("\"z\":1}").toString();
+        middle = valid.indexOf(",\"a", valid.length() / 2) + 1;
+        assertSameError(valid.substring(0, middle) + "\"b\":{\"v\":[1,2[}," + valid.substring(middle));
+    }
+
+    private static String element(int i) {
+        switch (i % 4) {
+            case 0:
+                return "{\"id\":" + i + ",\"name\":\"n\\\\\\\"" + i + "\\\":[\",\"tags\":[\"\u010D\",\"\\uD83D\\uDE00\",true,null]}";
+            case 1:
+                return "\"s\\\\" + i + "\\\"},\"";
+            case 2:
+                return "[" + i + ".5e3,-" + i + ",[[],{}]]";
+            default:
+                return i % 8 == 3 ? "null" : "false";
+        }
+    }
+
+    private void assertSameAsParse(String jsonAsString) {
+        Json expected = new JsonParser().parse(jsonAsString);
+        String packed = expected.toString(JsonFormatter.PACKED());
+        assertEquals(packed, ((Json) parallel.parse(jsonAsString.toCharArray())).toString(JsonFormatter.PACKED()));
+        byte[] bytes = ("\uFEFF" + jsonAsString).getBytes(StandardCharsets.UTF_8);
+        assertTrue(bytes.length >= JsonStructuralParallel.THRESHOLD);
+        assertEquals(packed, ((Json) parallel.parse(bytes)).toString(JsonFormatter.PACKED()));
+    }
+
+    private void assertSameError(String jsonAsString) {
+        JsonParser sequential = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withStructuralIndex(true));
+        JsonException expected = assertThrows(JsonException.class, () -> sequential.parse(jsonAsString.toCharArray()));
+        JsonException actual = assertThrows(JsonException.class, () -> parallel.parse(jsonAsString.toCharArray()));
+        assertEquals(expected.getMessage(), actual.getMessage());
+    }
+
+    private static final class TypedBuilder extends JsonBuilderDom implements JsonBuilderPrimitive<JsonObject, JsonArray> {
+
+        @Override
+        public void addLongToObject(JsonObject object, String attr, long value) {
+            object.add(attr, "L" + value);
+        }
+
+        @Override
+        public void addDoubleToObject(JsonObject object, String attr, double value) {
+            object.add(attr, "D" + value);
+        }
+
+        @Override
+        public void addLongToArray(JsonArray array, long value) {
+            array.add("L" + value);
+        }
+
+        @Override
+        public void addDoubleToArray(JsonArray array, double value) {
+            array.add("D" + value);
+        }
+    }
+}
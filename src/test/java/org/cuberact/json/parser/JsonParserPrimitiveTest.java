@@ -0,0 +1,223 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonNumber;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.builder.JsonBuilderPrimitive;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserPrimitiveTest {
+
+    private final String jsonAsString = "{\"int\":42,\"negative\":-7,\"double\":1.5,\"exp\":-2.5e-3,\"big\":123456789012345678901234567890," +
+            "\"array\":[0,-0.0,9223372036854775807,3.141592653589793,{\"nested\":[1.,2]}],\"text\":\"1\"}";
+
+    @Test
+    public void primitiveCallbacks() {
+        String expected = "{\"int\":42L,\"negative\":-7L,\"double\":1.5D,\"exp\":-0.0025D,\"big\":123456789012345678901234567890," +
+                "\"array\":[0L,-0.0D,9223372036854775807L,3.141592653589793D,{\"nested\":[1.0D,2L]}],\"text\":\"1\"}";
+        for (JsonParserOptions options : new JsonParserOptions[]{
+                JsonParserOptions.DEFAULT,
+                JsonParserOptions.DEFAULT.withIterative(true),
+                JsonParserOptions.DEFAULT.withStructuralIndex(true)}) {
+            JsonParser parser = new JsonParser(new TypedBuilder(), options);
+            assertEquals(expected, parser.<JsonObject>parse(jsonAsString.toCharArray()).toString(JsonFormatter.PACKED()));
+            assertEquals(expected, parser.<JsonObject>parse(jsonAsString.getBytes(StandardCharsets.UTF_8)).toString(JsonFormatter.PACKED()));
+            assertEquals(expected, parser.<JsonObject>parse(jsonAsString).toString(JsonFormatter.PACKED()));
+        }
+        JsonParser parser = new JsonParser(new TypedBuilder());
+        List<JsonObject> fed = new ArrayList<>();
+        JsonFeedParser feedParser = parser.<JsonObject>feedParser(fed::add);
+        for (char c : jsonAsString.toCharArray()) {
+            feedParser.feed(new char[]{c});
+        }
+        feedParser.endOfInput();
+        assertEquals(expected, fed.get(0).toString(JsonFormatter.PACKED()));
+        assertEquals("{\"array\":[3.141592653589793D,{\"nested\":[2L]}]}",
+                parser.<JsonObject>parse(jsonAsString, new JsonProjection("/array/3", "/array/4/nested/1")).toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void booleanAndStringCallbacks() {
+        String json = "{\"bool\":true,\"array\":[false,\"text\",{\"nested\":true}],\"escaped\":\"a\\tb\",\"s\":\"plain\"}";
+        String expected = "{\"bool\":\"yes\",\"array\":[\"no\",\"<text>\",{\"nested\":\"yes\"}],\"escaped\":\"a\\tb\",\"s\":\"<plain>\"}";
+        for (JsonParserOptions options : new JsonParserOptions[]{
+                JsonParserOptions.DEFAULT,
+                JsonParserOptions.DEFAULT.withIterative(true),
+                JsonParserOptions.DEFAULT.withStructuralIndex(true)}) {
+            JsonParser parser = new JsonParser(new ColumnBuilder(), options);
+            assertEquals(expected, parser.<JsonObject>parse(json.toCharArray()).toString(JsonFormatter.PACKED()));
+            assertEquals(expected, parser.<JsonObject>parse(json).toString(JsonFormatter.PACKED()));
+            assertEquals(expected.replace("<", "").replace(">", ""), parser.<JsonObject>parse(json.getBytes(StandardCharsets.UTF_8)).toString(JsonFormatter.PACKED())
+                    .replace("<", "").replace(">", "")); //strings of bytes are decoded
+        }
+        JsonParser parser = new JsonParser(new ColumnBuilder());
+        List<JsonObject> fed = new ArrayList<>();
+        JsonFeedParser feedParser = parser.<JsonObject>feedParser(fed::add);
+        feedParser.feed(json.toCharArray());
+        feedParser.endOfInput();
+        assertEquals(expected.replace("\"a\\tb\"", "\"<a\\tb>\""), fed.get(0).toString(JsonFormatter.PACKED())); //token of feed parser is unescaped
+        assertEquals("{\"array\":[\"no\",\"<text>\"]}", parser.<JsonObject>parse(json, new JsonProjection("/array/0", "/array/1")).toString(JsonFormatter.PACKED()));
+
+        StringBuilder big = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            big.append(json).append(',');
+        }
+        big.append("true]");
+        JsonArray sequential = new JsonParser(new ColumnBuilder()).parse(big.toString().toCharArray());
+        JsonArray parallel = new JsonParser(new ColumnBuilder(), JsonParserOptions.DEFAULT.withParallelPool(new ForkJoinPool(4))).parse(big.toString().toCharArray());
+        assertEquals("yes", parallel.get(20000));
+        assertEquals(sequential.toString(JsonFormatter.PACKED()), parallel.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void defaultMethodsCreateJsonNumber() {
+        JsonObject defaults = new JsonParser(new DefaultPrimitiveBuilder()).parse("{\"t\":true,\"f\":[false],\"s\":\"text\"}");
+        assertEquals(Boolean.TRUE, defaults.get("t"));
+        assertEquals(Boolean.FALSE, defaults.getArr("f").get(0));
+        assertEquals("text", defaults.get("s"));
+        JsonObject json = new JsonParser(new DefaultPrimitiveBuilder()).parse(jsonAsString);
+        assertEquals(new JsonParser().<JsonObject>parse(jsonAsString).toString(JsonFormatter.PACKED()), json.toString(JsonFormatter.PACKED())); //source chars
+        assertTrue(json.get("int") instanceof JsonNumber);
+        assertEquals(42L, ((JsonNumber) json.get("int")).asLong());
+        assertTrue(((JsonNumber) json.get("exp")).isFloatingNumber());
+        assertEquals(-0.0025, ((JsonNumber) json.get("exp")).asDouble());
+    }
+
+    @Test
+    public void numbersOutOfDoublePrecision() {
+        String json = "{\"a\":[1.0e400,0.10000000000000000000001,123456789012345678901234567890.5,-0,7],\"inf\":-1.0e999,\"d\":2.5}";
+        for (JsonParserOptions options : new JsonParserOptions[]{
+                JsonParserOptions.DEFAULT,
+                JsonParserOptions.DEFAULT.withIterative(true),
+                JsonParserOptions.DEFAULT.withStructuralIndex(true)}) {
+            JsonParser parser = new JsonParser(new LongBuilder(), options);
+            assertEquals("{\"a\":[1.0e400,0.10000000000000000000001,123456789012345678901234567890.5,0L,7L],\"inf\":-1.0e999,\"d\":2.5}",
+                    parser.<JsonObject>parse(json.toCharArray()).toString(JsonFormatter.PACKED()));
+            parser = new JsonParser(new TypedBuilder(), options);
+            assertEquals("{\"a\":[1.0e400,0.1D,1.2345678901234568E29D,0L,7L],\"inf\":-1.0e999,\"d\":2.5D}",
+                    parser.<JsonObject>parse(json).toString(JsonFormatter.PACKED())); //infinite values are passed as JsonNumber
+        }
+        List<JsonObject> fed = new ArrayList<>();
+        JsonFeedParser feedParser = new JsonParser(new LongBuilder()).<JsonObject>feedParser(fed::add);
+        feedParser.feed(json.toCharArray());
+        feedParser.endOfInput();
+        assertEquals("{\"a\":[1.0e400,0.10000000000000000000001,123456789012345678901234567890.5,0L,7L],\"inf\":-1.0e999,\"d\":2.5}",
+                fed.get(0).toString(JsonFormatter.PACKED()));
+
+        StringBuilder big = new StringBuilder("[");
+        for (int i = 0; i < 50000; i++) {
+            big.append(json).append(',');
+        }
+        big.append("1]");
+        JsonArray sequential = new JsonParser(new LongBuilder()).parse(big.toString().toCharArray());
+        JsonArray parallel = new JsonParser(new LongBuilder(), JsonParserOptions.DEFAULT.withParallelPool(new ForkJoinPool(4))).parse(big.toString().toCharArray());
+        assertEquals(sequential.toString(JsonFormatter.PACKED()), parallel.toString(JsonFormatter.PACKED()));
+        assertEquals("0.10000000000000000000001", parallel.getObj(40000).getArr("a").get(1).toString());
+    }
+
+    /**
+     * Values are stored as strings with type suffix, so the type of callback is visible in output
+     */
+    private static final class TypedBuilder extends JsonBuilderDom implements JsonBuilderPrimitive<JsonObject, JsonArray> {
+        @Override
+        public void addLongToObject(JsonObject object, String attr, long value) {
+            object.add(attr, new JsonNumber((value + "L").toCharArray(), (value + "L").length(), false));
+        }
+
+        @Override
+        public void addDoubleToObject(JsonObject object, String attr, double value) {
+            object.add(attr, new JsonNumber((value + "D").toCharArray(), (value + "D").length(), true));
+        }
+
+        @Override
+        public void addLongToArray(JsonArray array, long value) {
+            array.add(new JsonNumber((value + "L").toCharArray(), (value + "L").length(), false));
+        }
+
+        @Override
+        public void addDoubleToArray(JsonArray array, double value) {
+            array.add(new JsonNumber((value + "D").toCharArray(), (value + "D").length(), true));
+        }
+    }
+
+    /**
+     * Booleans and strings from primitive callbacks are marked, boxed booleans are not expected
+     */
+    private static final class ColumnBuilder extends JsonBuilderDom implements JsonBuilderPrimitive<JsonObject, JsonArray> {
+        @Override
+        public void addBooleanToObject(JsonObject object, String attr, boolean value) {
+            object.add(attr, value ? "yes" : "no");
+        }
+
+        @Override
+        public void addBooleanToArray(JsonArray array, boolean value) {
+            array.add(value ? "yes" : "no");
+        }
+
+        @Override
+        public void addStringToObject(JsonObject object, String attr, char[] chars, int offset, int length) {
+            object.add(attr, "<" + new String(chars, offset, length) + ">");
+        }
+
+        @Override
+        public void addStringToArray(JsonArray array, char[] chars, int offset, int length) {
+            array.add("<" + new String(chars, offset, length) + ">");
+        }
+
+        @Override
+        public void addBooleanToObject(JsonObject object, String attr, Boolean value) {
+            throw new IllegalStateException("Boxed boolean");
+        }
+
+        @Override
+        public void addBooleanToArray(JsonArray array, Boolean value) {
+            throw new IllegalStateException("Boxed boolean");
+        }
+    }
+
+    /**
+     * Only long callbacks are overridden, doubles are passed as JsonNumber of source chars
+     */
+    private static final class LongBuilder extends JsonBuilderDom implements JsonBuilderPrimitive<JsonObject, JsonArray> {
+        @Override
+        public void addLongToObject(JsonObject object, String attr, long value) {
+            object.add(attr, new JsonNumber((value + "L").toCharArray(), (value + "L").length(), false));
+        }
+
+        @Override
+        public void addLongToArray(JsonArray array, long value) {
+            array.add(new JsonNumber((value + "L").toCharArray(), (value + "L").length(), false));
+        }
+    }
+
+    private static final class DefaultPrimitiveBuilder extends JsonBuilderDom implements JsonBuilderPrimitive<JsonObject, JsonArray> {
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.input.JsonInputReader;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserProjectionTest {
+
+    private final String jsonAsString = ("{'id':'r-1','body':{'text':'x\\\"y','n':[1,2,{'deep':true}]},'route':{'service':'orders','version':2," +
+            "'tags':['a','b']},'a/b':{'~':1},'items':[{'id':1,'name':'first'},{'id':2,'name':'second'},[3]],'after':null}")
+            .replace('\'', '"');
+
+    @Test
+    public void projection() {
+        assertProjection("{\"route\":{\"service\":\"orders\"}}", "/route/service");
+        assertProjection("{\"id\":\"r-1\",\"route\":{\"service\":\"orders\",\"tags\":[\"a\",\"b\"]}}", "/route/tags", "/id", "/route/service");
+        assertProjection("{\"items\":[{\"name\":\"second\"}]}", "/items/1/name");
+        assertProjection("{\"items\":[{\"id\":1},{\"id\":2,\"name\":\"second\"}]}", "/items/0/id", "/items/1");
+        assertProjection("{\"a/b\":{\"~\":1}}", "/a~1b/~0");
+        assertProjection("{\"route\":{\"tags\":[\"a\",\"b\"]}}", "/route/tags", "/route/tags/0");
+        assertProjection("{\"body\":{\"n\":[{\"deep\":true}]}}", "/body/n/2/deep");
+    }
+
+    @Test
+    public void missingPaths() {
+        assertProjection("{}", "/missing");
+        assertProjection("{\"route\":{}}", "/route/missing");
+        assertProjection("{\"id\":\"r-1\"}", "/id/0", "/id");
+        assertProjection("{\"items\":[]}", "/items/9");
+        assertProjection("{}");
+    }
+
+    @Test
+    public void wholeDocument() {
+        assertProjection(jsonAsString, "", "/id");
+    }
+
+    @Test
+    public void rootArray() {
+        JsonArray json = new JsonParser().parse("[{\"a\":1,\"b\":2},{\"a\":3,\"b\":4}]", new JsonProjection("/1/b"));
+        assertEquals("[{\"b\":4}]", json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void stopsWhenAllPathsAreFound() {
+        JsonObject json = new JsonParser().parse("{\"id\":7,\"rest\":[ broken", new JsonProjection("/id"));
+        assertEquals("{\"id\":7}", json.toString(JsonFormatter.PACKED()));
+        json = new JsonParser().parse("{\"a\":{\"b\":[1,{\"c\":\"x\"}, broken", new JsonProjection("/a/b/1/c"));
+        assertEquals("{\"a\":{\"b\":[{\"c\":\"x\"}]}}", json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void firstOfDuplicateAttributes() {
+        JsonObject json = new JsonParser().parse("{\"a\":{\"b\":1},\"a\":{\"b\":2,\"c\":3},\"x\":1}", new JsonProjection("/a/b", "/x"));
+        assertEquals("{\"a\":{\"b\":1},\"x\":1}", json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void errors() {
+        JsonParser parser = new JsonParser();
+        JsonProjection projection = new JsonProjection("/b");
+        JsonException e = assertThrows(JsonException.class, () -> parser.parse("{\"a\":[1,\"x], \"b\":1}", projection));
+        assertEquals("Parse error on position 19 - Expected \"", e.getMessage());
+        e = assertThrows(JsonException.class, () -> parser.parse("{\"a\" 1}", projection));
+        assertEquals("Parse error on position 6 - Expected :", e.getMessage());
+        e = assertThrows(JsonException.class, () -> parser.parse("{\"a\":1 \"b\":1}", projection));
+        assertEquals("Parse error on position 8 - Expected } or ,", e.getMessage());
+        e = assertThrows(JsonException.class, () -> parser.parse("{\"a\":x}", projection));
+        assertEquals("Parse error on position 6 - Expected \" or number or boolean or null", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> new JsonProjection("a/b"));
+        assertThrows(IllegalArgumentException.class, () -> new JsonProjection("/a~2"));
+    }
+
+    private void assertProjection(String expected, String... pointers) {
+        JsonProjection projection = new JsonProjection(pointers);
+        JsonParser parser = new JsonParser();
+        assertEquals(expected, parser.<JsonObject>parse(jsonAsString, projection).toString(JsonFormatter.PACKED()));
+        assertEquals(expected, parser.<JsonObject>parse(jsonAsString.getBytes(StandardCharsets.UTF_8), projection).toString(JsonFormatter.PACKED()));
+        assertEquals(expected, parser.<JsonObject>parse(new JsonInputReader(new StringReader(jsonAsString)), projection).toString(JsonFormatter.PACKED()));
+        JsonParser keyCacheParser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyCache(true));
+        assertEquals(expected, keyCacheParser.<JsonObject>parse(jsonAsString.toCharArray(), projection).toString(JsonFormatter.PACKED()));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.input.JsonInputCharSequence;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserReuseTest {
+
+    @Test
+    public void scannerOfThreadIsReused() {
+        JsonScanner scanner1 = JsonScanner.acquire(new JsonInputCharSequence("{}"), JsonParserOptions.DEFAULT);
+        JsonScanner nested = JsonScanner.acquire(new JsonInputCharSequence("[]"), JsonParserOptions.DEFAULT);
+        assertNotSame(scanner1, nested);
+        nested.release();
+        scanner1.release();
+        JsonScanner scanner2 = JsonScanner.acquire(new JsonInputCharSequence("{}"), JsonParserOptions.DEFAULT);
+        scanner2.release();
+        assertSame(scanner1, scanner2);
+    }
+
+    @Test
+    public void parseAfterError() {
+        JsonParser parser = new JsonParser();
+        assertThrows(JsonException.class, () -> parser.parse("{\"a\":[1,2}"));
+        JsonObject json = parser.parse("{\"a\":[1,2]}");
+        assertEquals("{\"a\":[1,2]}", json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void nestedParseFromBuilder() {
+        JsonParser parser = new JsonParser(new JsonBuilderDom() {
+            @Override
+            public void addStringToObject(JsonObject object, String attr, String value) {
+                if (value.startsWith("{")) {
+                    object.add(attr, (Object) new JsonParser().parse(value));
+                } else {
+                    super.addStringToObject(object, attr, value);
+                }
+            }
+        });
+        JsonObject json = parser.parse("{\"a\":\"{\\\"b\\\":\\\"c\\\",\\\"n\\\":1.5}\",\"d\":[true,2]}");
+        assertEquals("{\"a\":{\"b\":\"c\",\"n\":1.5},\"d\":[true,2]}", json.toString(JsonFormatter.PACKED()));
+    }
+
+    @Test
+    public void nestedParseFromStreamConsumer() {
+        JsonParser parser = new JsonParser();
+        List<String> parsed = new ArrayList<>();
+        parser.<JsonArray>parseStream("[1] [2] [3]", array -> parsed.add(parser.<JsonArray>parse("[" + array.getInt(0) + ",\"x\"]").toString(JsonFormatter.PACKED())));
+        assertEquals("[[1,\"x\"], [2,\"x\"], [3,\"x\"]]", parsed.toString());
+    }
+
+    @Test
+    public void keyCacheIsClearedBetweenParses() {
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyCache(true));
+        JsonObject json1 = parser.parse("{\"name\":1}");
+        JsonObject json2 = parser.parse("{\"name\":2}");
+        assertNotSame(json1.map().keySet().iterator().next(), json2.map().keySet().iterator().next());
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.input.JsonInputCharSequence;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserStreamArrayTest {
+
+    private static final String BIG_ARRAY = bigArray(30000);
+
+    @Test
+    public void sequential() {
+        JsonParser parser = new JsonParser();
+        List<String> expected = expected(BIG_ARRAY);
+        assertEquals(expected, packed(parser.streamArray(new JsonInputCharSequence(BIG_ARRAY))));
+        assertEquals(expected, packed(parser.streamArray(BIG_ARRAY.toCharArray())));
+        assertEquals(expected, packed(parser.streamArray(BIG_ARRAY.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    public void parallel() {
+        JsonParser parser = new JsonParser();
+        List<String> expected = expected(BIG_ARRAY);
+        assertEquals(expected, packed(parser.streamArray(BIG_ARRAY.toCharArray()).parallel()));
+        assertEquals(expected, packed(parser.streamArray(BIG_ARRAY.getBytes(StandardCharsets.UTF_8)).parallel()));
+        assertEquals(expected.size(), parser.streamArray(BIG_ARRAY.toCharArray()).parallel().count());
+    }
+
+    @Test
+    public void file() throws IOException {
+        Path file = Files.createTempFile("stream-array", ".json");
+        try {
+            Files.write(file, ("\uFEFF" + BIG_ARRAY).getBytes(StandardCharsets.UTF_8));
+            JsonParser parser = new JsonParser();
+            List<String> expected = expected(BIG_ARRAY);
+            try (Stream<Object> stream = parser.streamArray(file)) {
+                assertEquals(expected, packed(stream));
+            }
+            try (Stream<Object> stream = parser.streamArray(file)) {
+                assertEquals(expected, packed(stream.parallel()));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void split() {
+        JsonParser parser = new JsonParser();
+        Spliterator<Object> spliterator = parser.streamArray(BIG_ARRAY.toCharArray()).spliterator();
+        int characteristics = spliterator.characteristics();
+        assertEquals(Spliterator.ORDERED | Spliterator.IMMUTABLE, characteristics);
+        Spliterator<Object> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(characteristics, spliterator.characteristics());
+        assertEquals(characteristics, prefix.characteristics());
+        assertEquals(expected(BIG_ARRAY).size(), prefix.estimateSize() + spliterator.estimateSize());
+        List<Object> first = new ArrayList<>();
+        prefix.tryAdvance(first::add);
+        assertEquals("{\"id\":0,\"name\":\"n\\\"0]\",\"tags\":[\"a\",\"\uD83D\uDE00\"]}", ((Json) first.get(0)).toString(JsonFormatter.PACKED()));
+        assertNull(prefix.trySplit()); //traversal of chunk started
+    }
+
+    @Test
+    public void smallArrays() {
+        JsonParser parser = new JsonParser();
+        assertEquals(0, parser.streamArray(" [ ] ".toCharArray()).parallel().count());
+        assertEquals(List.of("a", "1", "true", "null", "[1,[2]]", "{}"), packed(parser.streamArray(" [\"a\", 1, true, null, [1,[2]], {},] ".getBytes(StandardCharsets.UTF_8)).parallel()));
+    }
+
+    @Test
+    public void errors() {
+        JsonParser parser = new JsonParser();
+        assertError("Parse error on position 2 - Expected [", () -> parser.streamArray(" {}".toCharArray()).parallel().count());
+        assertError("Parse error on position 0 - Expected [", () -> parser.streamArray(new char[0]).parallel().count());
+        String broken = BIG_ARRAY.substring(0, BIG_ARRAY.length() - 100) + "tru}]";
+        JsonException expected = assertThrows(JsonException.class, () -> parser.parse(broken));
+        assertError(expected.getMessage(), () -> parser.streamArray(broken.toCharArray()).parallel().count());
+        assertError(expected.getMessage(), () -> parser.streamArray(broken.getBytes(StandardCharsets.UTF_8)).parallel().count());
+        assertError(expected.getMessage(), () -> parser.streamArray(broken.getBytes(StandardCharsets.UTF_8)).count());
+        String unclosed = BIG_ARRAY.substring(0, BIG_ARRAY.length() - 1);
+        expected = assertThrows(JsonException.class, () -> parser.parse(unclosed));
+        assertError(expected.getMessage(), () -> parser.streamArray(unclosed.toCharArray()).parallel().count());
+        StringBuilder wrongElement = new StringBuilder("[");
+        for (int i = 0; i < 200000; i++) {
+            wrongElement.append("1,");
+        }
+        wrongElement.append("x]");
+        assertError("Parse error on position 400002 - Expected \" or ] or number or boolean or null", () -> parser.streamArray(wrongElement.toString().toCharArray()).parallel().count());
+        assertError("Parse error on position 400002 - Expected \" or ] or number or boolean or null", () -> parser.streamArray(wrongElement.toString().getBytes(StandardCharsets.UTF_8)).parallel().count());
+        for (String truncated : new String[]{"[1,2,", "[1,2,}", "[1,2", "[1,2, ", "[", "[1,[2", "[1,\"a"}) {
+            String message = assertThrows(JsonException.class, () -> parser.parse(truncated)).getMessage();
+            assertError(message, () -> parser.streamArray(truncated.toCharArray()).count());
+            assertError(message, () -> parser.streamArray(truncated.toCharArray()).parallel().count());
+            assertError(message, () -> parser.streamArray(truncated.getBytes(StandardCharsets.UTF_8)).count());
+            assertError(message, () -> parser.streamArray(truncated.getBytes(StandardCharsets.UTF_8)).parallel().count());
+        }
+        assertEquals(List.of("1", "2"), packed(parser.streamArray("[1,2,]".toCharArray()).parallel()));
+    }
+
+    private static void assertError(String message, Runnable runnable) {
+        assertEquals(message, assertThrows(JsonException.class, runnable::run).getMessage());
+    }
+
+    private static List<String> expected(String jsonAsString) {
+        JsonArray array = new JsonParser().parse(jsonAsString);
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < array.size(); i++) {
+            result.add(packed(array.get(i)));
+        }
+        return result;
+    }
+
+    private static List<String> packed(Stream<?> stream) {
+        return stream.map(JsonParserStreamArrayTest::packed).collect(Collectors.toList());
+    }
+
+    private static String packed(Object element) {
+        return element instanceof Json ? ((Json) element).toString(JsonFormatter.PACKED()) : String.valueOf(element);
+    }
+
+    private static String bigArray(int count) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            switch (i % 4) {
+                case 0:
+                    sb.append("{\"id\":").append(i).append(",\"name\":\"n\\\"").append(i).append("]\",\"tags\":[\"a\",\"\uD83D\uDE00\"]}");
+                    break;
+                case 1:
+                    sb.append("\"s\\\\").append(i).append("[{\"");
+                    break;
+                case 2:
+                    sb.append(i).append(".5e3");
+                    break;
+                default:
+                    sb.append(i % 8 == 3 ? "null" : "[true,false,\"\u010D\"]");
+            }
+            sb.append(i % 7 == 0 ? " ,\n " : ",");
+        }
+        sb.append("1 ]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.input.JsonInputCharSequence;
+import org.cuberact.json.input.JsonInputReader;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserStreamTest {
+
+    @Test
+    public void newlineDelimited() {
+        String input = "{\"id\":1,\"msg\":\"a\"}\n{\"id\":2,\"msg\":\"b\\n\"}\r\n\n[1,2]\n";
+        assertEquals("[{\"id\":1,\"msg\":\"a\"}, {\"id\":2,\"msg\":\"b\\n\"}, [1,2]]", parseStream(input).toString());
+    }
+
+    @Test
+    public void concatenated() {
+        assertEquals("[{}, [], {\"a\":[{}]}, [true]]", parseStream("{}[]{\"a\":[{}]} \t [true]").toString());
+        assertEquals("[]", parseStream("").toString());
+        assertEquals("[]", parseStream(" \n\r\n ").toString());
+    }
+
+    @Test
+    public void reader() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            input.append("{\"id\":").append(i).append(",\"name\":\"record ").append(i).append("\"}\n");
+        }
+        List<Json> result = new ArrayList<>();
+        new JsonParser().<Json>parseStream(new JsonInputReader(new StringReader(input.toString()), 13), result::add);
+        assertEquals(1000, result.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals("{\"id\":" + i + ",\"name\":\"record " + i + "\"}", result.get(i).toString(JsonFormatter.PACKED()));
+        }
+    }
+
+    @Test
+    public void iterator() {
+        Iterator<Json> iterator = new JsonParser().parseIterator(new JsonInputCharSequence("{\"a\":1}\n[2]"));
+        assertTrue(iterator.hasNext());
+        assertEquals("{\"a\":1}", iterator.next().toString(JsonFormatter.PACKED()));
+        assertTrue(iterator.hasNext());
+        assertEquals("[2]", iterator.next().toString(JsonFormatter.PACKED()));
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    public void errorInSecondDocument() {
+        List<Json> result = new ArrayList<>();
+        JsonException e = assertThrows(JsonException.class, () -> new JsonParser().<Json>parseStream("{\"a\":1}\n{\"b\" 2}", result::add));
+        assertEquals("Parse error on position 14 - Expected :", e.getMessage());
+        assertEquals(1, result.size());
+        e = assertThrows(JsonException.class, () -> new JsonParser().<Json>parseStream("[1]\n2", result::add));
+        assertEquals("Parse error on position 5 - Expected { or [", e.getMessage());
+    }
+
+    private List<String> parseStream(String input) {
+        List<String> result = new ArrayList<>();
+        new JsonParser().<Json>parseStream(input, json -> result.add(json.toString(JsonFormatter.PACKED())));
+        return result;
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.Json;
+import org.cuberact.json.JsonArray;
+import org.cuberact.json.JsonException;
+import org.cuberact.json.JsonObject;
+import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.formatter.JsonFormatter;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonParserStructuralTest {
+
+    private final JsonParser structural = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withStructuralIndex(true));
+
+    @Test
+    public void sameAsParse() {
+        String jsonAsString = ("{'id':42,'name':'Jack \\\\u0041 \\\\\\\\ \\\\\\\"','weight':-75.5e-3,'active':true,'parent':null,'empty':''," +
+                "'address':{'city':'Prague','geo':[50.08,14.43],'tags':[{'a':'}'},[],{}]},'items':[1,'two',[3,[4]],{'five':5}]}")
+                .replace('\'', '"');
+        assertSameAsParse(jsonAsString);
+        assertSameAsParse(" [ 1 , \"a\" , { } , [ ] ] \n");
+    }
+
+    @Test
+    public void escapesOnBlockBoundary() {
+        for (int i = 50; i < 140; i++) {
+            StringBuilder padding = new StringBuilder();
+            for (int j = 0; j < i; j++) padding.append(' ');
+            assertSameAsParse("[" + padding + "\"a\\\\\",\"b\\\"c\\\\\\\"d\",\"\\u0041\"]");
+            assertSameAsParse("{\"" + padding.toString().replace(' ', 'x') + "\\\\\":\"\\\\\\\\\"}");
+        }
+    }
+
+    @Test
+    public void longString() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 1000; i++) value.append(i % 10 == 0 ? "\\\"" : "x{[,:");
+        assertSameAsParse("[\"" + value + "\",\"" + value + "\"]");
+    }
+
+    @Test
+    public void bytes() {
+        String jsonAsString = "{\"name\":\"Žluťoučký kůň \\u00e9 \\\" 😀\",\"€\":[1,2]}";
+        Json expected = new JsonParser().parse(jsonAsString);
+        byte[] bytes = jsonAsString.getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected.toString(), structural.parse(bytes).toString());
+        byte[] withBom = new byte[bytes.length + 3];
+        withBom[0] = (byte) 0xEF;
+        withBom[1] = (byte) 0xBB;
+        withBom[2] = (byte) 0xBF;
+        System.arraycopy(bytes, 0, withBom, 3, bytes.length);
+        assertEquals(expected.toString(), structural.parse(withBom).toString());
+    }
+
+    @Test
+    public void invalidUtf8() {
+        byte[] bytes = "[\"ab\"]".getBytes(StandardCharsets.UTF_8);
+        bytes[3] = (byte) 0xC3;
+        JsonException e = assertThrows(JsonException.class, () -> structural.parse(bytes));
+        assertEquals("Invalid UTF-8 byte sequence on position 3", e.getMessage());
+    }
+
+    @Test
+    public void unclosedString() {
+        JsonException e = assertThrows(JsonException.class, () -> structural.parse("[\"abc\\\"]".toCharArray()));
+        assertEquals("Parse error on position 8 - Expected \"", e.getMessage());
+    }
+
+    @Test
+    public void trailingCommaAsParse() {
+        assertSameAsParse("[1,]");
+        assertSameAsParse("{\"a\":1,}");
+    }
+
+    @Test
+    public void keyCache() {
+        JsonParser parser = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withKeyCache(true).withStructuralIndex(true));
+        String jsonAsString = "[{\"name\":1,\"a\\tb\":2},{\"name\":3,\"a\\tb\":4}]";
+        JsonArray chars = parser.parse(jsonAsString.toCharArray());
+        JsonArray bytes = parser.parse(jsonAsString.getBytes(StandardCharsets.UTF_8));
+        for (JsonArray json : new JsonArray[]{chars, bytes}) {
+            assertEquals(jsonAsString, json.toString(JsonFormatter.PACKED()));
+            JsonObject first = json.getObj(0);
+            JsonObject second = json.getObj(1);
+            assertSame(first.map().keySet().iterator().next(), second.map().keySet().iterator().next());
+        }
+    }
+
+    private void assertSameAsParse(String jsonAsString) {
+        Json expected = new JsonParser().parse(jsonAsString);
+        assertEquals(expected.toString(JsonFormatter.PACKED()), structural.<Json>parse(jsonAsString.toCharArray()).toString(JsonFormatter.PACKED()));
+        assertEquals(expected.toString(JsonFormatter.PACKED()), structural.<Json>parse(jsonAsString.getBytes(StandardCharsets.UTF_8)).toString(JsonFormatter.PACKED()));
+    }
+}
@@ -21,7 +21,10 @@ import org.cuberact.json.JsonArray;
 import org.cuberact.json.JsonNumber;
 import org.cuberact.json.JsonObject;
 import org.cuberact.json.builder.JsonBuilderDom;
+import org.cuberact.json.builder.JsonBuilderOutput;
 import org.cuberact.json.formatter.JsonFormatter;
+import org.cuberact.json.output.JsonOutput;
+import org.cuberact.json.output.JsonOutputStringBuilder;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import org.junit.jupiter.api.Test;
@@ -143,6 +146,21 @@ public class JsonParserTest {
         assertEquals(jsonAsString.toString(), json.toString(JsonFormatter.PACKED()));
     }
 
+    @Test
+    public void parseExampleVeryLongStringsWithEscapes() {
+        StringBuilder value = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            value.append((char) ((i & 15) + 65));
+        }
+        String jsonAsString = "['" + value + "\\n','\\t" + value + "','" + value + value + "\\u0041']";
+        jsonAsString = jsonAsString.replace('\'', '"');
+        String expected = "['" + value + "\\n','\\t" + value + "','" + value + value + "A']";
+        expected = expected.replace('\'', '"');
+        JsonParser parser = new JsonParser();
+        assertEquals(expected, ((Json) parser.parse(jsonAsString)).toString(JsonFormatter.PACKED()));
+        assertEquals(expected, ((Json) parser.parse(jsonAsString.toCharArray())).toString(JsonFormatter.PACKED()));
+    }
+
     @Test
     public void testArray() {
         String jsonAsString = "{'arr':[1,2,3,4,2147483647,-2147483648]}"
@@ -209,4 +227,35 @@ public class JsonParserTest {
         assertEquals(new BigDecimal("2.2"), jsonArray.getBigDecimal(4));
         assertEquals(new BigDecimal("3.3E-6"), jsonArray.getBigDecimal(5));
     }
+
+    @Test
+    public void iterativeSameAsRecursive() {
+        String jsonAsString = "{'a':[1,'x',{'b':[[],[{}],{'c':null}]},true,false,-1.5e3],'d':{'e':{'f':[[[1]]]}},'g':'\\u0041','h':[]}"
+                .replace('\'', '"');
+        JsonParser recursive = new JsonParser();
+        JsonParser iterative = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withIterative(true));
+        assertEquals(((Json) recursive.parse(jsonAsString)).toString(JsonFormatter.PACKED()),
+                ((Json) iterative.parse(jsonAsString)).toString(JsonFormatter.PACKED()));
+        JsonOutput<?> recursiveOutput = new JsonParser(new JsonBuilderOutput(new JsonOutputStringBuilder())).parse(jsonAsString);
+        JsonOutput<?> iterativeOutput = new JsonParser(new JsonBuilderOutput(new JsonOutputStringBuilder()), JsonParserOptions.DEFAULT.withIterative(true)).parse(jsonAsString);
+        assertEquals(recursiveOutput.getResult().toString(), iterativeOutput.getResult().toString());
+    }
+
+    @Test
+    public void iterativeDeepNesting() {
+        int depth = 100000;
+        StringBuilder jsonAsString = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            jsonAsString.append(i % 2 == 0 ? "{\"a\":" : "[");
+        }
+        jsonAsString.append("1");
+        for (int i = depth - 1; i >= 0; i--) {
+            jsonAsString.append(i % 2 == 0 ? "}" : "]");
+        }
+        Object json = new JsonParser(JsonBuilderDom.REF, JsonParserOptions.DEFAULT.withIterative(true)).parse(jsonAsString);
+        for (int i = 0; i < depth; i++) {
+            json = i % 2 == 0 ? ((JsonObject) json).get("a") : ((JsonArray) json).get(0);
+        }
+        assertEquals(1L, ((JsonNumber) json).asLong());
+    }
 }
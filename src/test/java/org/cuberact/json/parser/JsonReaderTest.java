@@ -0,0 +1,194 @@
+/*
+ * Copyright 2017 Michal Nikodim
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.cuberact.json.parser;
+
+import org.cuberact.json.JsonException;
+import org.cuberact.json.input.JsonInputReader;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+/**
+ * @author Michal Nikodim (michal.nikodim@gmail.com)
+ */
+public class JsonReaderTest {
+
+    private final String jsonAsString = ("{'id':1,'name':'Jack \\\"J\\\" \\u00e9','weight':75.5,'active':true,'tags':['a','b'],'parent':null," +
+            "'skip':{'x':[1,2,{'y':'}]\\\\'}],'z':false},'big':12345678901,'empty':[]}")
+            .replace('\'', '"');
+
+    @Test
+    public void walkTokens() {
+        JsonReader reader = new JsonReader(jsonAsString);
+        assertEquals(JsonToken.BEGIN_OBJECT, reader.peek());
+        reader.beginObject();
+        assertEquals(JsonToken.NAME, reader.peek());
+        assertEquals("id", reader.nextName());
+        assertEquals(JsonToken.NUMBER, reader.peek());
+        assertEquals(1, reader.nextInt());
+        assertEquals("name", reader.nextName());
+        assertEquals(JsonToken.STRING, reader.peek());
+        assertEquals("Jack \"J\" é", reader.nextString());
+        assertEquals("weight", reader.nextName());
+        assertEquals(75.5, reader.nextDouble());
+        assertEquals("active", reader.nextName());
+        assertEquals(JsonToken.BOOLEAN, reader.peek());
+        assertTrue(reader.nextBoolean());
+        assertEquals("tags", reader.nextName());
+        reader.beginArray();
+        assertTrue(reader.hasNext());
+        assertEquals("a", reader.nextString());
+        assertEquals("b", reader.nextString());
+        assertFalse(reader.hasNext());
+        assertEquals(JsonToken.END_ARRAY, reader.peek());
+        reader.endArray();
+        assertEquals("parent", reader.nextName());
+        assertEquals(JsonToken.NULL, reader.peek());
+        reader.nextNull();
+        assertEquals("skip", reader.nextName());
+        reader.skipValue();
+        assertEquals("big", reader.nextName());
+        assertEquals(12345678901L, reader.nextLong());
+        assertEquals("empty", reader.nextName());
+        reader.beginArray();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertFalse(reader.hasNext());
+        reader.endObject();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void skipNamesAndValues() {
+        JsonReader reader = new JsonReader(jsonAsString.toCharArray());
+        reader.beginObject();
+        int count = 0;
+        while (reader.hasNext()) {
+            if ("big".equals(reader.nextName())) {
+                assertEquals(12345678901L, reader.nextLong());
+            } else {
+                reader.skipValue();
+                count++;
+            }
+            count++;
+        }
+        reader.endObject();
+        assertEquals(17, count);
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void skipWithNameAndWholeDocument() {
+        JsonReader reader = new JsonReader(jsonAsString);
+        reader.beginObject();
+        reader.skipValue();
+        assertEquals("name", reader.nextName());
+        reader.skipValue();
+        reader.skipValue();
+        assertEquals("active", reader.nextName());
+
+        reader = new JsonReader(jsonAsString);
+        reader.skipValue();
+        assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+    }
+
+    @Test
+    public void smallWindowReader() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < 500; i++) {
+            if (i > 0) sb.append(",");
+            sb.append("{\"i\":").append(i).append(",\"s\":\"v\\\\").append(i).append("\",\"skip\":[\"x\\\"]\",{\"y\":-1.5e3}]}");
+        }
+        sb.append("]");
+        JsonReader reader = new JsonReader(new JsonInputReader(new StringReader(sb.toString()), 7));
+        reader.beginArray();
+        int i = 0;
+        while (reader.hasNext()) {
+            reader.beginObject();
+            assertEquals("i", reader.nextName());
+            assertEquals(i, reader.nextInt());
+            assertEquals("s", reader.nextName());
+            assertEquals("v\\" + i, reader.nextString());
+            reader.skipValue();
+            reader.endObject();
+            i++;
+        }
+        reader.endArray();
+        assertEquals(500, i);
+    }
+
+    @Test
+    public void wrongToken() {
+        JsonReader reader = new JsonReader("{\"a\":1}");
+        reader.beginObject();
+        JsonException e = assertThrows(JsonException.class, reader::nextString);
+        assertEquals("Expected STRING, but actual token is NAME", e.getMessage());
+        reader.nextName();
+        assertEquals(1, reader.nextInt());
+        e = assertThrows(JsonException.class, reader::skipValue);
+        assertEquals("Expected value, but actual token is END_OBJECT", e.getMessage());
+    }
+
+    @Test
+    public void parseErrors() {
+        assertError("{\"a\" 1}", "Parse error on position 6 - Expected :");
+        assertError("{\"a\":1 \"b\":2}", "Parse error on position 8 - Expected } or ,");
+        assertError("[1,]", "Parse error on position 4 - Expected \" or ] or number or boolean or null");
+        assertError("[1 2]", "Parse error on position 4 - Expected ] or ,");
+        assertError("1", "Parse error on position 1 - Expected { or [");
+        assertError("[{\"a\":[\"b]}", "Parse error on position 11 - Expected \"");
+        assertError("[{\"a\":[1]", "Parse error on position 9 - Expected } or ]");
+        assertError("[{\"a\":[1]}", "Parse error on position 10 - Expected ] or ,");
+    }
+
+    private void assertError(String json, String expectedMessage) {
+        JsonException e = assertThrows(JsonException.class, () -> {
+            JsonReader reader = new JsonReader(json);
+            while (reader.peek() != JsonToken.END_DOCUMENT) {
+                JsonToken token = reader.peek();
+                switch (token) {
+                    case BEGIN_OBJECT:
+                        if (json.startsWith("[{")) {
+                            reader.skipValue();
+                        } else {
+                            reader.beginObject();
+                        }
+                        break;
+                    case END_OBJECT:
+                        reader.endObject();
+                        break;
+                    case BEGIN_ARRAY:
+                        reader.beginArray();
+                        break;
+                    case END_ARRAY:
+                        reader.endArray();
+                        break;
+                    case NAME:
+                        reader.nextName();
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+        });
+        assertEquals(expectedMessage, e.getMessage());
+    }
+}